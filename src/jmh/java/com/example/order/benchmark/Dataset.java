@@ -0,0 +1,133 @@
+package com.example.order.benchmark;
+
+import com.example.order.util.Database;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Database filled with a number of orders before the benchmarks of a trial run. Every trial runs in a forked JVM,
+ * so each dataset size starts from a fresh in-memory database.
+ * <p>
+ * There's one customer per {@link #ORDERS_PER_CUSTOMER} orders and {@link #PRODUCTS} products; every third order is
+ * paid and each order has {@link #LINES_PER_ORDER} detail lines.
+ */
+@State(Scope.Benchmark)
+public class Dataset {
+    static final int ORDERS_PER_CUSTOMER = 10;
+    static final int PRODUCTS = 100;
+    static final int LINES_PER_ORDER = 2;
+
+    /**
+     * First ID of the seeded rows, after the rows of the seed migration
+     */
+    static final long FIRST_ID = 1000;
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"10000", "100000"})
+    public int orders;
+
+    private Database database;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        database = Database.getInstance();
+
+        try (Connection con = database.getConnection()) {
+            con.setAutoCommit(false);
+            try (PreparedStatement customer = con.prepareStatement("INSERT INTO customers VALUES (?, ?, ?)");
+                 PreparedStatement product = con.prepareStatement("INSERT INTO products VALUES (?, ?, ?)");
+                 PreparedStatement order = con.prepareStatement("INSERT INTO orders VALUES (?, ?, ?, ?)");
+                 PreparedStatement detail = con.prepareStatement("INSERT INTO order_details VALUES (?, ?, ?)")
+            ) {
+                for (int i = 0; i < getCustomers(); i++) {
+                    customer.setLong(1, FIRST_ID + i);
+                    customer.setString(2, "Customer " + i);
+                    customer.setString(3, "customer" + i + "@example.com");
+                    customer.addBatch();
+                }
+                customer.executeBatch();
+
+                for (int i = 0; i < PRODUCTS; i++) {
+                    product.setLong(1, FIRST_ID + i);
+                    product.setString(2, "Product " + i);
+                    product.setBigDecimal(3, BigDecimal.valueOf(100 + i, 2));
+                    product.addBatch();
+                }
+                product.executeBatch();
+
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                for (int i = 0; i < orders; i++) {
+                    long orderId = FIRST_ID + i;
+                    order.setLong(1, orderId);
+                    order.setLong(2, FIRST_ID + i % getCustomers());
+                    order.setTimestamp(3, now);
+                    order.setString(4, i % 3 == 0 ? "paid" : "created");
+                    order.addBatch();
+
+                    for (int line = 0; line < LINES_PER_ORDER; line++) {
+                        detail.setLong(1, orderId);
+                        detail.setLong(2, FIRST_ID + (i + line) % PRODUCTS);
+                        detail.setInt(3, line + 1);
+                        detail.addBatch();
+                    }
+
+                    if ((i + 1) % BATCH_SIZE == 0) {
+                        order.executeBatch();
+                        detail.executeBatch();
+                        con.commit();
+                    }
+                }
+                order.executeBatch();
+                detail.executeBatch();
+            }
+            con.commit();
+        }
+    }
+
+    public @NotNull Database getDatabase() {
+        return database;
+    }
+
+    public int getCustomers() {
+        return Math.max(1, orders / ORDERS_PER_CUSTOMER);
+    }
+
+    /**
+     * Picks one of the seeded orders
+     *
+     * @return ID of an order
+     */
+    public long randomOrderId() {
+        return FIRST_ID + ThreadLocalRandom.current().nextInt(orders);
+    }
+
+    /**
+     * Picks one of the seeded customers
+     *
+     * @return ID of a customer
+     */
+    public long randomCustomerId() {
+        return FIRST_ID + ThreadLocalRandom.current().nextInt(getCustomers());
+    }
+
+    /**
+     * Picks one of the seeded products
+     *
+     * @return ID of a product
+     */
+    public long randomProductId() {
+        return FIRST_ID + ThreadLocalRandom.current().nextInt(PRODUCTS);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.order.benchmark;
+
+import com.example.order.dao.DeleteOrderDao;
+import com.example.order.dto.ParamsDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the delete of a list of orders. The orders to delete are inserted before every invocation, in an ID
+ * range after the seeded orders, so only the delete itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+public class DeleteOrderBenchmark {
+    private static final long FIRST_DELETED_ID = 100_000_000;
+
+    @Param({"1", "100", "10000"})
+    public int ids;
+
+    private DeleteOrderDao dao;
+    private ParamsDto paramsDto;
+
+    @Setup(Level.Trial)
+    public void setup(Dataset dataset) {
+        dao = new DeleteOrderDao(dataset.getDatabase());
+    }
+
+    @Setup(Level.Invocation)
+    public void insertOrders(Dataset dataset) throws SQLException {
+        List<Long> orderIds = new ArrayList<>(ids);
+
+        try (Connection con = dataset.getDatabase().getConnection()) {
+            con.setAutoCommit(false);
+            try (PreparedStatement order = con.prepareStatement("INSERT INTO orders VALUES (?, ?, ?, 'paid')");
+                 PreparedStatement detail = con.prepareStatement("INSERT INTO order_details VALUES (?, ?, 1)")
+            ) {
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                for (int i = 0; i < ids; i++) {
+                    long orderId = FIRST_DELETED_ID + i;
+                    order.setLong(1, orderId);
+                    order.setLong(2, dataset.randomCustomerId());
+                    order.setTimestamp(3, now);
+                    order.addBatch();
+
+                    detail.setLong(1, orderId);
+                    detail.setLong(2, dataset.randomProductId());
+                    detail.addBatch();
+                    orderIds.add(orderId);
+                }
+                order.executeBatch();
+                detail.executeBatch();
+            }
+            con.commit();
+        }
+
+        paramsDto = new ParamsDto();
+        paramsDto.setOrderIds(orderIds);
+    }
+
+    @Benchmark
+    public int deleteOrdersById() {
+        return dao.deleteOrdersById(paramsDto);
+    }
+}
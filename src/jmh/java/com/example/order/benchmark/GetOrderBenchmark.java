@@ -0,0 +1,68 @@
+package com.example.order.benchmark;
+
+import com.example.order.dao.GetOrderDao;
+import com.example.order.dto.OrderDto;
+import com.example.order.dto.ParamsDto;
+import com.example.order.service.GetOrderService;
+import com.example.order.util.OrderCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the get path: the DAO with and without the order cache, and the service that formats the order
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetOrderBenchmark {
+    private GetOrderDao uncachedDao;
+    private GetOrderDao cachedDao;
+    private GetOrderService service;
+
+    @Setup(Level.Trial)
+    public void setup(Dataset dataset) {
+        uncachedDao = new GetOrderDao(dataset.getDatabase());
+        cachedDao = new GetOrderDao(dataset.getDatabase(), OrderCache.getInstance());
+        service = new GetOrderService();
+    }
+
+    @Benchmark
+    public OrderDto getOrderById(Dataset dataset) {
+        return uncachedDao.getOrderById(params(dataset.randomOrderId()));
+    }
+
+    @Benchmark
+    public OrderDto getOrderByIdCached(Dataset dataset) {
+        return cachedDao.getOrderById(params(dataset.randomOrderId()));
+    }
+
+    @Benchmark
+    public OrderDto getMissingOrderCached(Dataset dataset) {
+        return cachedDao.getOrderById(params(-dataset.randomOrderId()));
+    }
+
+    @Benchmark
+    public String getOrderService(Dataset dataset) {
+        return service.execute(params(dataset.randomOrderId()));
+    }
+
+    private static ParamsDto params(long orderId) {
+        ParamsDto paramsDto = new ParamsDto();
+        paramsDto.setOrderId(orderId);
+        return paramsDto;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.order.benchmark;
+
+import com.example.order.dao.InsertOrderDao;
+import com.example.order.dto.OrderDetailDto;
+import com.example.order.dto.OrderDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the insert path: one order at a time with a number of detail lines, and a batch of orders in one
+ * transaction
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InsertOrderBenchmark {
+    private static final int BATCH_ORDERS = 100;
+
+    @Param({"1", "10"})
+    public int lines;
+
+    private InsertOrderDao dao;
+
+    @Setup(Level.Trial)
+    public void setup(Dataset dataset) {
+        dao = new InsertOrderDao(dataset.getDatabase());
+    }
+
+    @Benchmark
+    public long insertOrder(Dataset dataset) {
+        return dao.insertOrder(order(dataset));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long[] insertOrders(Dataset dataset) {
+        List<OrderDto> orders = new ArrayList<>(BATCH_ORDERS);
+        for (int i = 0; i < BATCH_ORDERS; i++) {
+            orders.add(order(dataset));
+        }
+        return dao.insertOrders(orders);
+    }
+
+    /**
+     * Builds an order of a random customer with distinct products
+     */
+    private OrderDto order(Dataset dataset) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setCustomerId(dataset.randomCustomerId());
+
+        List<OrderDetailDto> details = new ArrayList<>(lines);
+        long firstProduct = dataset.randomProductId() - Dataset.FIRST_ID;
+        for (int i = 0; i < lines; i++) {
+            OrderDetailDto detail = new OrderDetailDto();
+            detail.setProductId(Dataset.FIRST_ID + (firstProduct + i) % Dataset.PRODUCTS);
+            detail.setQuantity(1 + i);
+            details.add(detail);
+        }
+        orderDto.setOrderDetail(Collections.unmodifiableList(details));
+        return orderDto;
+    }
+}
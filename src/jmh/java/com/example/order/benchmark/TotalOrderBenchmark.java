@@ -0,0 +1,107 @@
+package com.example.order.benchmark;
+
+import com.example.order.dao.TotalOrderDao;
+import com.example.order.dto.ParamsDto;
+import com.example.order.service.TotalOrderService;
+import com.example.order.util.H2StoredProcedures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the total of the paid orders of a customer: the incrementally maintained aggregate read by
+ * {@link TotalOrderDao}, the join it replaced and the older two-query/IN-list implementation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TotalOrderBenchmark {
+    private TotalOrderDao dao;
+    private TotalOrderService service;
+
+    @Setup(Level.Trial)
+    public void setup(Dataset dataset) {
+        dao = new TotalOrderDao(dataset.getDatabase());
+        service = new TotalOrderService();
+    }
+
+    @Benchmark
+    public BigDecimal aggregate(Dataset dataset) {
+        return dao.getTotalAllPaidOrders(params(dataset.randomCustomerId()));
+    }
+
+    @Benchmark
+    public BigDecimal join(Dataset dataset) throws SQLException {
+        try (Connection con = dataset.getDatabase().getConnection();
+             PreparedStatement ps = con.prepareStatement(H2StoredProcedures.PAID_ORDER_TOTAL_SQL)
+        ) {
+            ps.setLong(1, dataset.randomCustomerId());
+            try (ResultSet results = ps.executeQuery()) {
+                return results.next() ? results.getBigDecimal(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Old implementation of GET_PAID_ORDER_TOTAL_FROM_CUSTOMER: collect the IDs, then sum with a literal IN list
+     */
+    @Benchmark
+    public BigDecimal inList(Dataset dataset) throws SQLException {
+        long customerId = dataset.randomCustomerId();
+
+        try (Connection con = dataset.getDatabase().getConnection()) {
+            StringJoiner joiner = new StringJoiner(",");
+            try (PreparedStatement ps = con.prepareStatement("SELECT order_id FROM orders " +
+                    "WHERE order_status='paid' AND order_customer_id=" + customerId);
+                 ResultSet results = ps.executeQuery()
+            ) {
+                while (results.next()) {
+                    joiner.add(results.getString("order_id"));
+                }
+            }
+            if (joiner.length() == 0) {
+                return null;
+            }
+
+            try (PreparedStatement ps = con.prepareStatement(
+                    "SELECT SUM( MULT(product_price, order_detail_quantity) ) FROM order_details, products " +
+                            "WHERE order_detail_product_id = product_id " +
+                            "AND order_detail_order_id IN (" + joiner + ")");
+                 ResultSet results = ps.executeQuery()
+            ) {
+                return results.next() ? BigDecimal.valueOf(results.getDouble(1)).setScale(2, RoundingMode.HALF_UP) : null;
+            }
+        }
+    }
+
+    @Benchmark
+    public String totalOrderService(Dataset dataset) {
+        return service.execute(params(dataset.randomCustomerId()));
+    }
+
+    private static ParamsDto params(long customerId) {
+        ParamsDto paramsDto = new ParamsDto();
+        paramsDto.setCustomerId(customerId);
+        return paramsDto;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.order.benchmark;
+
+import com.example.order.dao.UpdateOrderDao;
+import com.example.order.dto.ParamsDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the status update, which also moves orders into and out of the paid totals
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpdateOrderBenchmark {
+    private static final String[] STATUSES = {"created", "paid", "canceled"};
+
+    private UpdateOrderDao dao;
+
+    @Setup(Level.Trial)
+    public void setup(Dataset dataset) {
+        dao = new UpdateOrderDao(dataset.getDatabase());
+    }
+
+    @Benchmark
+    public int updateOrderStatus(Dataset dataset) {
+        ParamsDto paramsDto = new ParamsDto();
+        paramsDto.setOrderId(dataset.randomOrderId());
+        paramsDto.setStatus(STATUSES[ThreadLocalRandom.current().nextInt(STATUSES.length)]);
+        return dao.updateOrderStatus(paramsDto);
+    }
+}
@@ -1,18 +1,25 @@
 package com.example.order;
 
+import com.example.order.dto.CommandDto;
 import com.example.order.dto.OrderDto;
 import com.example.order.dto.OrderDetailDto;
 import com.example.order.dto.ParamsDto;
 import com.example.order.service.OrderService;
 import com.example.order.service.ServiceFactory;
+import com.example.order.util.CommandParser;
 import com.example.order.util.Commands;
+import com.example.order.util.Metrics;
 import com.example.order.util.OrderStatus;
+import com.example.order.util.OutputFormat;
 import com.example.order.util.ValidationUtils;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -27,31 +34,63 @@ public class Main {
      */
     private static final String INITIAL_PROMPT = "Enter command: ";
 
+    /**
+     * Destination of the results of the commands (not closed, it writes to the standard output)
+     */
+    private static final PrintWriter OUT = new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+
+    /**
+     * Source of the commands, also given to the commands that read data from the standard input
+     */
+    private static final BufferedReader IN = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+
+    private static final CommandParser PARSER = new CommandParser();
+
     /**
      * Main method
      *
      * @param args Command and arguments to be interpreted by the application
      */
     public static void main(String[] args) {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
-        String command = "";
+        if (args.length > 0 && ScriptRunner.SCRIPT_OPTION.equals(args[0])) {
+            long failures = ScriptRunner.run(args.length > 1 ? args[1] : ScriptRunner.STDIN);
+            System.exit(failures > 0 ? 1 : 0);
+        }
+        if (args.length > 0 && OrderServer.SERVE_OPTION.equals(args[0])) {
+            if (args.length != 2 || !isPositiveInteger(args[1])) {
+                System.err.println("Error: the option " + OrderServer.SERVE_OPTION + " must be followed by a port number");
+                System.exit(1);
+            }
+            if (!OrderServer.run(Integer.parseInt(args[1]))) {
+                System.exit(1);
+            }
+            return;
+        }
+        if (args.length > 0 && OrderHttpServer.HTTP_OPTION.equals(args[0])) {
+            if (args.length != 2 || !isPositiveInteger(args[1])) {
+                System.err.println("Error: the option " + OrderHttpServer.HTTP_OPTION + " must be followed by a port number");
+                System.exit(1);
+            }
+            // The server threads keep the JVM running
+            if (!OrderHttpServer.run(Integer.parseInt(args[1]))) {
+                System.exit(1);
+            }
+            return;
+        }
 
         try {
-            while (!Commands.EXIT.getCmd().equalsIgnoreCase(command)) {
+            while (true) {
                 System.out.print(INITIAL_PROMPT);
-                String line = reader.readLine();
-                String[] tokens = line.split(" ");
-
-                if (tokens.length > 0) {
-                    command = tokens[0];
+                String line = IN.readLine();
+                if (line == null) {
+                    break;
+                }
 
-                    if (!Commands.EXIT.getCmd().equalsIgnoreCase(command)) {
-                        processCommand(tokens);
-                    }
-                } else {
-                    System.out.println("Invalid command, try again.");
-                    command = "";
+                CommandDto command = PARSER.parse(line);
+                if (command.getCommand() == Commands.EXIT) {
+                    break;
                 }
+                processCommand(command);
             }
         } catch (IOException ex) {
             throw new RuntimeException(ex);
@@ -61,56 +100,29 @@ public class Main {
     /**
      * Process the commands of the application
      *
-     * @param args Arguments given to the application
+     * @param command Parsed command line
      */
-    private static void processCommand(String[] args) {
-        String error = validateArgs(args);
-
-        if (isEmpty(error)) {
-            Commands cmdEnum = Commands.valueOf(args[0].toUpperCase());
+    private static void processCommand(@NotNull CommandDto command) {
+        if (command.isValid()) {
+            Commands cmdEnum = command.getCommand();
 
             if (cmdEnum.equals(Commands.HELP)) {
                 displayHelp(null);
             } else {
                 OrderService service = ServiceFactory.get(cmdEnum);
 
-                // Get parameters for the service from arguments (or ask for them in the case of inserting)
-                ParamsDto paramsDTO = getParameters(cmdEnum, args);
-                System.out.println(service.execute(paramsDTO));
-            }
-        } else {
-            displayHelp(error);
-        }
-    }
-
-    /**
-     * Given a command (ex. get), validate the arguments give to the program
-     *
-     * @param cmdEnum Command
-     * @param args    Arguments of the command
-     * @return Object with the information (arguments) to be processed
-     */
-    private static @NotNull ParamsDto getParameters(Commands cmdEnum, String[] args) {
-        ParamsDto paramsDTO = new ParamsDto();
-
-        if (cmdEnum == Commands.GET) {
-            paramsDTO.setOrderId(Long.parseLong(args[1]));
-        } else if (cmdEnum == Commands.UPDATE) {
-            paramsDTO.setOrderId(Long.parseLong(args[1]));
-            paramsDTO.setStatus(args[2]);
-        } else if (cmdEnum == Commands.DELETE) {
-            List<Long> orderIds = new ArrayList<>();
-            for (int i = 1; i < args.length; i++) {
-                orderIds.add(Long.parseLong(args[i]));
+                // The parameters come from the arguments (or are asked for in the case of inserting)
+                ParamsDto paramsDTO = command.getParams();
+                if (cmdEnum == Commands.INSERT && paramsDTO.getOrder() == null) {
+                    paramsDTO.setOrder(askForOrderDetails());
+                }
+                paramsDTO.setInput(IN);
+                service.execute(paramsDTO, OUT);
+                OUT.flush();
             }
-            paramsDTO.setOrderIds(orderIds);
-        } else if (cmdEnum == Commands.TOTAL) {
-            paramsDTO.setCustomerId(Long.parseLong(args[1]));
         } else {
-            paramsDTO.setOrder(askForOrderDetails());
+            displayHelp(command.getError());
         }
-
-        return paramsDTO;
     }
 
     /**
@@ -120,7 +132,7 @@ public class Main {
      */
     private static @NotNull OrderDto askForOrderDetails() {
         OrderDto orderDTO = new OrderDto();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in));
+        BufferedReader reader = IN;
 
         boolean invalidInput;
         try {
@@ -202,13 +214,47 @@ public class Main {
         if (!ValidationUtils.isEmpty(error)) {
             System.err.println("Error: " + error);
         }
-        System.out.println("Usage: " + INITIAL_PROMPT + " <command> [<args>]");
-        System.out.println("get      Displays information about an order. It takes the ID of the order to display as argument. Ex: get 1");
-        System.out.println("update   Updates the status of an order. It takes two arguments, the ID of the order to update and the status (" + OrderStatus.listOfValues() + "). Ex: update 1 PAID");
-        System.out.println("delete   Deletes an order. It takes a variable number of arguments, representing the IDs of the orders to delete. Ex: delete 20 35 41");
-        System.out.println("insert   Inserts a new order. It doesn't take more arguments, however, the application will prompt for all the information of the new order after issuing this command.");
-        System.out.println("total    Gives the total amount of all paid orders of a customer. It takes the ID of the customer as argument. Ex: total 2");
-        System.out.println("exit     Exits the application");
-        System.out.println("help     Displays usage instructions");
+        System.out.print(usage());
+    }
+
+    /**
+     * Gets the instructions about how to use the application
+     *
+     * @return Usage instructions
+     */
+    static @NotNull String usage() {
+        return "Usage: " + INITIAL_PROMPT + " <command> [<args>]" + System.lineSeparator() +
+                "get      Displays information about orders, with their detail lines. It takes the IDs of the orders to display as arguments. Ex: get 1 2 3" + System.lineSeparator() +
+                "list     Lists the orders in ID order, filtered by --customer <id>, --status <status>, --since <yyyy-mm-dd> and --before <yyyy-mm-dd>, starting --after <id>, " +
+                "up to --limit <n> orders. The orders are read in pages of --page <n> (default 10000) with a JDBC fetch size of --fetch <n> (default 500). " +
+                "Ex: list --customer 1 --status paid" + System.lineSeparator() +
+                "update   Updates the status of an order. It takes two arguments, the ID of the order to update and the status (" + OrderStatus.listOfValues() + "). Ex: update 1 PAID" + System.lineSeparator() +
+                "         Several orders can be given as a list of IDs or a range (--from <id> --to <id>), filtered by --customer <id>, --current <status> and --before <yyyy-mm-dd>, " +
+                "and are updated in transactions of --chunk orders (default 1000). Ex: update paid --current created --before 2024-01-01" + System.lineSeparator() +
+                "delete   Deletes an order. It takes a variable number of arguments, representing the IDs of the orders to delete. Ex: delete 20 35 41" + System.lineSeparator() +
+                "         The IDs can also be read from a file (or - for stdin) and deleted in chunks of --chunk IDs (default 1000), committing every --batch IDs (default 10000); " +
+                "--any binds each chunk as one array. Ex: delete --file ids.txt --chunk 500 --batch 50000" + System.lineSeparator() +
+                "insert   Inserts a new order. Without arguments, the application will prompt for all the information of the new order after issuing this command. " +
+                "The order can also be given inline as the customer ID followed by <productId>:<quantity> lines. Ex: insert 1 2:3 3:1" + System.lineSeparator() +
+                "ingest   Inserts the orders of a JSON-lines file (or - for stdin), committing them in batches. Bad records go to the reject file. " +
+                "Ex: ingest orders.jsonl --batch 500 --rejects rejects.txt" + System.lineSeparator() +
+                "load     Loads CSV files into the tables in parallel (header lines are skipped). " +
+                "Ex: load --customers c.csv --products p.csv --orders o.csv --details d.csv --batch 1000 --threads 4" + System.lineSeparator() +
+                "total    Gives the total amount of all paid orders of a customer. It takes the ID of the customer as argument. Ex: total 2" + System.lineSeparator() +
+                "totals   Checks the stored paid totals against the orders (verify) or recomputes them (rebuild). Ex: totals verify" + System.lineSeparator() +
+                "cache    Displays the statistics of the order cache (stats) or empties it (clear). Ex: cache stats" + System.lineSeparator() +
+                "loadtest Runs a mix of get/update/insert/delete/total operations from several threads and reports the throughput and latency percentiles " +
+                "(default: 10 s, get=60,update=15,insert=10,delete=5,total=10). Ex: loadtest --threads 8 --duration 30 --mix get=80,update=20" + System.lineSeparator() +
+                "stats    Displays the count, errors, rows and latency percentiles of every command and DAO call since the start, or resets them (reset). " +
+                "They are also exported through JMX as " + Metrics.OBJECT_NAME + ". Ex: stats" + System.lineSeparator() +
+                "slowlog  Displays the statements slower than the threshold with their parameters, calling DAO and rows, sets the threshold in ms " +
+                "(threshold <ms>), disables the log (off) or empties it (clear). Ex: slowlog threshold 50" + System.lineSeparator() +
+                "exit     Exits the application" + System.lineSeparator() +
+                "help     Displays usage instructions" + System.lineSeparator() +
+                "get, list and total also take " + OutputFormat.OPTION + " <format> (" + OutputFormat.listOfValues() + ") to write one JSON object or CSV line per record. " +
+                "Ex: list --status paid --output csv" + System.lineSeparator() +
+                "Run with " + ScriptRunner.SCRIPT_OPTION + " <file> (or - for stdin) to execute the commands of a file without prompts" + System.lineSeparator() +
+                "Run with " + OrderServer.SERVE_OPTION + " <port> to execute the commands of TCP clients on localhost" + System.lineSeparator() +
+                "Run with " + OrderHttpServer.HTTP_OPTION + " <port> to serve the HTTP/JSON API of the orders on localhost" + System.lineSeparator();
     }
 }
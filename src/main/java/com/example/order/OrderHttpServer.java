@@ -0,0 +1,390 @@
+package com.example.order;
+
+import com.example.order.dao.DeleteOrderDao;
+import com.example.order.dao.GetOrderDao;
+import com.example.order.dao.InsertOrderDao;
+import com.example.order.dao.TotalOrderDao;
+import com.example.order.dao.UpdateOrderDao;
+import com.example.order.dto.OrderDto;
+import com.example.order.dto.ParamsDto;
+import com.example.order.util.Database;
+import com.example.order.util.JsonWriter;
+import com.example.order.util.OrderCache;
+import com.example.order.util.OrderJsonParser;
+import com.example.order.util.OrderStatus;
+import com.example.order.util.ValidationUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP/JSON API of the orders, on the HTTP server of the JDK, for local services that don't want to start a process
+ * per request.
+ * <ul>
+ * <li>{@code GET /orders/{id}}: the order with its detail lines (and the name and price of their products)</li>
+ * <li>{@code POST /orders}: inserts an order with the same JSON as the ingest command, answers 201 with the order as
+ * stored</li>
+ * <li>{@code PATCH /orders/{id}}: changes the status, ex. {@code {"status": "paid"}}, answers with the order</li>
+ * <li>{@code DELETE /orders/{id}}: deletes the order, answers 204</li>
+ * <li>{@code GET /customers/{id}/total}: total of the paid orders of the customer</li>
+ * </ul>
+ * Errors are answered with a status code and {@code {"error": "<message>"}}. The server listens on localhost only and
+ * keeps the connections alive between requests. The requests are handled on a fixed pool of threads; each thread
+ * reuses its own JSON buffers. The size of the pool can be changed with the system property
+ * {@code orders.http.threads} (default the size of the connection pool).
+ */
+public class OrderHttpServer implements AutoCloseable {
+    /**
+     * Command line option that enables the HTTP server
+     */
+    static final String HTTP_OPTION = "--http";
+
+    /**
+     * Largest request body accepted
+     */
+    private static final int MAX_BODY_SIZE = 1024 * 1024;
+
+    private static final String ORDERS_PATH = "/orders";
+    private static final String CUSTOMERS_PATH = "/customers";
+    private static final String TOTAL_SUFFIX = "/total";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ThreadLocal<JsonWriter> writers = ThreadLocal.withInitial(JsonWriter::new);
+
+    private final GetOrderDao getOrderDao;
+    private final InsertOrderDao insertOrderDao;
+    private final UpdateOrderDao updateOrderDao;
+    private final DeleteOrderDao deleteOrderDao;
+    private final TotalOrderDao totalOrderDao;
+
+    /**
+     * Constructor. It binds the port but doesn't handle requests before {@link #start()}
+     *
+     * @param port    Port to listen to on the loopback interface, 0 for any free port
+     * @param threads Number of threads handling the requests
+     * @throws IOException In case the port can't be bound
+     */
+    OrderHttpServer(int port, int threads) throws IOException {
+        Database database = Database.getInstance();
+        OrderCache cache = OrderCache.getInstance();
+        this.getOrderDao = new GetOrderDao(database, cache);
+        this.insertOrderDao = new InsertOrderDao(database, cache);
+        this.updateOrderDao = new UpdateOrderDao(database, cache);
+        this.deleteOrderDao = new DeleteOrderDao(database, cache);
+        this.totalOrderDao = new TotalOrderDao(database);
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "order-http-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext(ORDERS_PATH, this::handleOrders);
+        this.server.createContext(CUSTOMERS_PATH, this::handleCustomers);
+    }
+
+    /**
+     * Runs the server until the JVM is stopped (ex. Ctrl+C)
+     *
+     * @param port Port to listen to on the loopback interface
+     * @return false if the server couldn't start
+     */
+    static boolean run(int port) {
+        OrderHttpServer server;
+        try {
+            server = new OrderHttpServer(port,
+                    Integer.getInteger("orders.http.threads", Database.getInstance().getPoolStats().getMaxSize()));
+        } catch (IOException ex) {
+            System.err.println("Error: the HTTP server couldn't listen to port " + port + ": " + ex.getMessage());
+            return false;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "order-http-shutdown"));
+        server.start();
+        System.err.println("Listening on http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort());
+        return true;
+    }
+
+    /**
+     * Starts handling requests
+     */
+    void start() {
+        server.start();
+    }
+
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, letting the requests being handled finish for up to a second
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Handles {@code /orders} and {@code /orders/{id}}
+     */
+    private void handleOrders(@NotNull HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+
+            if (path.equals(ORDERS_PATH) || path.equals(ORDERS_PATH + "/")) {
+                if ("POST".equals(method)) {
+                    insertOrder(exchange);
+                } else {
+                    methodNotAllowed(exchange, "POST");
+                }
+                return;
+            }
+
+            long orderId = parseId(path.substring(ORDERS_PATH.length() + 1));
+            if (orderId <= 0) {
+                error(exchange, 404, "Not found");
+            } else if ("GET".equals(method)) {
+                getOrder(exchange, orderId);
+            } else if ("PATCH".equals(method)) {
+                updateOrder(exchange, orderId);
+            } else if ("DELETE".equals(method)) {
+                deleteOrder(exchange, orderId);
+            } else {
+                methodNotAllowed(exchange, "GET, PATCH, DELETE");
+            }
+        } catch (RuntimeException ex) {
+            error(exchange, 500, ex.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Handles {@code /customers/{id}/total}
+     */
+    private void handleCustomers(@NotNull HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            long customerId = path.endsWith(TOTAL_SUFFIX) && path.length() > CUSTOMERS_PATH.length() + TOTAL_SUFFIX.length()
+                    ? parseId(path.substring(CUSTOMERS_PATH.length() + 1, path.length() - TOTAL_SUFFIX.length()))
+                    : -1;
+
+            if (customerId <= 0) {
+                error(exchange, 404, "Not found");
+            } else if (!"GET".equals(exchange.getRequestMethod())) {
+                methodNotAllowed(exchange, "GET");
+            } else {
+                ParamsDto paramsDto = new ParamsDto();
+                paramsDto.setCustomerId(customerId);
+                BigDecimal total = totalOrderDao.getPaidTotal(paramsDto);
+
+                if (total == null) {
+                    error(exchange, 500, "The total of the customer couldn't be read");
+                    return;
+                }
+                JsonWriter json = writers.get().reset();
+                json.beginObject()
+                        .name("customerId").value(customerId)
+                        .name("paidTotal").value(total)
+                        .endObject();
+                send(exchange, 200, json);
+            }
+        } catch (RuntimeException ex) {
+            error(exchange, 500, ex.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void getOrder(@NotNull HttpExchange exchange, long orderId) throws IOException {
+        List<OrderDto> orders = findOrder(orderId);
+
+        if (orders == null) {
+            error(exchange, 500, "The order with ID " + orderId + " couldn't be read");
+        } else if (orders.isEmpty()) {
+            error(exchange, 404, "Order with ID " + orderId + " was not found");
+        } else {
+            send(exchange, 200, writers.get().reset().order(orders.get(0)));
+        }
+    }
+
+    private void insertOrder(@NotNull HttpExchange exchange) throws IOException {
+        String body = readBody(exchange);
+        if (body == null) {
+            return;
+        }
+
+        OrderDto orderDto;
+        try {
+            orderDto = OrderJsonParser.parseOrder(body);
+        } catch (IllegalArgumentException ex) {
+            error(exchange, 400, ex.getMessage());
+            return;
+        }
+        String invalid = ValidationUtils.validateOrder(orderDto);
+        if (invalid != null) {
+            error(exchange, 400, invalid);
+            return;
+        }
+
+        long orderId = insertOrderDao.insertOrder(orderDto);
+        if (orderId <= 0) {
+            error(exchange, 422, "The order was not inserted, check the customer and product IDs");
+            return;
+        }
+
+        List<OrderDto> orders = findOrder(orderId);
+        OrderDto inserted;
+        if (orders != null && !orders.isEmpty()) {
+            inserted = orders.get(0);
+        } else {
+            // Deleted in between or not readable, the request is all there is to show
+            inserted = orderDto;
+            inserted.setOrderId(orderId);
+        }
+        exchange.getResponseHeaders().set("Location", ORDERS_PATH + "/" + orderId);
+        send(exchange, 201, writers.get().reset().order(inserted));
+    }
+
+    private void updateOrder(@NotNull HttpExchange exchange, long orderId) throws IOException {
+        String body = readBody(exchange);
+        if (body == null) {
+            return;
+        }
+
+        OrderStatus status;
+        try {
+            status = OrderStatus.fromStatus(OrderJsonParser.parseStatus(body));
+        } catch (IllegalArgumentException ex) {
+            error(exchange, 400, ex.getMessage());
+            return;
+        }
+        if (status == null) {
+            error(exchange, 400, "The status must be one of " + OrderStatus.listOfValues());
+            return;
+        }
+
+        ParamsDto paramsDto = new ParamsDto();
+        paramsDto.setOrderId(orderId);
+        paramsDto.setStatus(status.getStatus());
+        int updated = updateOrderDao.updateOrderStatus(paramsDto);
+        if (updated < 0) {
+            error(exchange, 500, "The order with ID " + orderId + " couldn't be updated");
+        } else if (updated == 0) {
+            error(exchange, 404, "Order with ID " + orderId + " was not found");
+        } else {
+            getOrder(exchange, orderId);
+        }
+    }
+
+    private void deleteOrder(@NotNull HttpExchange exchange, long orderId) throws IOException {
+        ParamsDto paramsDto = new ParamsDto();
+        paramsDto.setOrderIds(Collections.singletonList(orderId));
+
+        int deleted = deleteOrderDao.deleteOrdersById(paramsDto);
+        if (deleted < 0) {
+            error(exchange, 500, "The order with ID " + orderId + " couldn't be deleted");
+        } else if (deleted == 0) {
+            error(exchange, 404, "Order with ID " + orderId + " was not found");
+        } else {
+            exchange.sendResponseHeaders(204, -1);
+        }
+    }
+
+    /**
+     * Reads an order with its detail lines, through the cache
+     *
+     * @param orderId ID of the order
+     * @return A list with the order, empty if it doesn't exist, or null in case of an error
+     */
+    private List<OrderDto> findOrder(long orderId) {
+        return getOrderDao.getOrdersWithDetails(Collections.singletonList(orderId));
+    }
+
+    /**
+     * Reads the body of a request, answering 413 when it's too big
+     *
+     * @param exchange Request
+     * @return The body, or null if an error was answered
+     * @throws IOException In case the body can't be read
+     */
+    private static String readBody(@NotNull HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                body.write(buffer, 0, read);
+                if (body.size() > MAX_BODY_SIZE) {
+                    error(exchange, 413, "The request body is larger than " + MAX_BODY_SIZE + " bytes");
+                    return null;
+                }
+            }
+        }
+
+        return body.toString(StandardCharsets.UTF_8.name());
+    }
+
+    /**
+     * Parses the ID of a path segment
+     *
+     * @param segment Path segment
+     * @return The ID, or -1 if the segment isn't a positive integer
+     */
+    private static long parseId(@NotNull String segment) {
+        try {
+            return Long.parseLong(segment);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void methodNotAllowed(@NotNull HttpExchange exchange, @NotNull String allowed) throws IOException {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        error(exchange, 405, "Method not allowed");
+    }
+
+    private static void error(@NotNull HttpExchange exchange, int status, @NotNull String message) throws IOException {
+        JsonWriter json = new JsonWriter();
+        json.beginObject().name("error").value(message).endObject();
+        send(exchange, status, json);
+    }
+
+    /**
+     * Sends a JSON response with its length, so that the connection can be kept alive
+     */
+    private static void send(@NotNull HttpExchange exchange, int status, @NotNull JsonWriter json) throws IOException {
+        int length = json.encode();
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json.getBytes(), 0, length);
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.example.order;
+
+import com.example.order.dto.CommandDto;
+import com.example.order.dto.ParamsDto;
+import com.example.order.service.OrderService;
+import com.example.order.service.ServiceFactory;
+import com.example.order.util.CommandParser;
+import com.example.order.util.Commands;
+import com.example.order.util.Database;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves the commands of the application to TCP clients on localhost, so that several programs can share one JVM
+ * (and one database).
+ * <p>
+ * Each line a client sends holds one command with the same syntax as the script mode. A client can send many
+ * commands without waiting for the responses (pipelining): they are executed on a bounded pool of worker threads and
+ * the responses come back in the order of the commands. Every response starts with {@code OK <n>} followed by the
+ * {@code n} lines of the result, or is a single {@code ERR <message>} line. {@code exit} closes the connection.
+ * Since a response is built before its number of lines is sent, {@code list} needs a {@code --limit} of at most
+ * {@code orders.server.maxListRows} orders.
+ * <p>
+ * The number of commands read but not yet answered, over all the connections, is capped; when the cap is reached
+ * the server stops reading until a response is sent, which pushes back on the clients through TCP. On shutdown the
+ * server stops accepting connections and reading commands, answers the commands already read and closes the
+ * connections.
+ * <p>
+ * The server can be tuned with system properties: {@code orders.server.workers} (default the size of the connection
+ * pool), {@code orders.server.maxInFlight} (default 256), {@code orders.server.maxConnections} (default 100),
+ * {@code orders.server.maxListRows} (default 10000) and {@code orders.server.drainTimeoutMillis} (default 30000).
+ */
+public class OrderServer implements AutoCloseable {
+    /**
+     * Command line option that enables the server mode
+     */
+    static final String SERVE_OPTION = "--serve";
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Maximum number of orders of a {@code list} response, which is built in memory before it's sent
+     */
+    static final long MAX_LIST_ROWS = Long.getLong("orders.server.maxListRows", 10_000L);
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService workers;
+    private final ExecutorService connections;
+    private final Semaphore inFlight;
+    private final int maxConnections;
+    private final long drainTimeoutMillis;
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<Map<Commands, OrderService>> services =
+            ThreadLocal.withInitial(() -> new EnumMap<>(Commands.class));
+    private final AtomicLong served = new AtomicLong();
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private final Thread acceptor;
+
+    private volatile boolean closing;
+
+    /**
+     * Constructor. It binds the port but doesn't accept connections before {@link #start()}
+     *
+     * @param port               Port to listen to on the loopback interface, 0 for any free port
+     * @param workers            Number of threads executing the commands
+     * @param maxInFlight        Maximum number of commands read but not yet answered
+     * @param maxConnections     Maximum number of clients connected at the same time
+     * @param drainTimeoutMillis Maximum time to wait for the commands in flight on shutdown
+     * @throws IOException In case the port can't be bound
+     */
+    OrderServer(int port, int workers, int maxInFlight, int maxConnections, long drainTimeoutMillis) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.workers = Executors.newFixedThreadPool(workers, threadFactory("order-worker-"));
+        this.connections = Executors.newCachedThreadPool(threadFactory("order-connection-"));
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxConnections = maxConnections;
+        this.drainTimeoutMillis = drainTimeoutMillis;
+        this.acceptor = threadFactory("order-acceptor-").newThread(this::accept);
+    }
+
+    /**
+     * Runs the server until the JVM is stopped (ex. Ctrl+C), then drains it
+     *
+     * @param port Port to listen to on the loopback interface
+     * @return false if the server couldn't start
+     */
+    static boolean run(int port) {
+        OrderServer server;
+        try {
+            server = new OrderServer(port,
+                    Integer.getInteger("orders.server.workers", Database.getInstance().getPoolStats().getMaxSize()),
+                    Integer.getInteger("orders.server.maxInFlight", 256),
+                    Integer.getInteger("orders.server.maxConnections", 100),
+                    Long.getLong("orders.server.drainTimeoutMillis", 30_000L));
+        } catch (IOException ex) {
+            System.err.println("Error: the server couldn't listen to port " + port + ": " + ex.getMessage());
+            return false;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "order-server-shutdown"));
+        server.start();
+        System.err.println("Listening on " + server.serverSocket.getLocalSocketAddress());
+        server.awaitClosed();
+        System.err.println("Server stopped, " + server.getServed() + " commands served");
+        return true;
+    }
+
+    /**
+     * Starts accepting connections
+     */
+    void start() {
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    long getServed() {
+        return served.get();
+    }
+
+    /**
+     * Waits until the server is closed
+     */
+    void awaitClosed() {
+        try {
+            closed.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stops the server: no new connections or commands are accepted, the commands in flight are answered (up to the
+     * drain timeout) and the connections are closed
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closing) {
+                awaitClosed();
+                return;
+            }
+            closing = true;
+        }
+
+        try {
+            serverSocket.close();
+        } catch (IOException ex) {
+            // Nothing else to release
+        }
+        for (Socket socket : sockets) {
+            try {
+                // readLine() then returns null, the connection answers what it has read and closes
+                socket.shutdownInput();
+            } catch (IOException ex) {
+                // Already closed by the client
+            }
+        }
+
+        connections.shutdown();
+        try {
+            if (!connections.awaitTermination(drainTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                System.err.println("Error: the commands in flight didn't finish in " + drainTimeoutMillis + " ms");
+                for (Socket socket : sockets) {
+                    closeQuietly(socket);
+                }
+                connections.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            workers.shutdownNow();
+            closed.countDown();
+        }
+    }
+
+    /**
+     * Accepts connections until the server is closed
+     */
+    private void accept() {
+        while (!closing) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException ex) {
+                if (!closing) {
+                    System.err.println("Error: the server couldn't accept a connection: " + ex.getMessage());
+                }
+                continue;
+            }
+
+            if (sockets.size() >= maxConnections) {
+                reject(socket, "Too many connections");
+                continue;
+            }
+            sockets.add(socket);
+            try {
+                connections.execute(() -> serve(socket));
+            } catch (RejectedExecutionException ex) {
+                sockets.remove(socket);
+                reject(socket, "The server is shutting down");
+            }
+        }
+    }
+
+    /**
+     * Reads the commands of a connection and sends the responses back in order
+     *
+     * @param socket Connection of a client
+     */
+    private void serve(@NotNull Socket socket) {
+        try (Socket s = socket;
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8), BUFFER_SIZE)
+        ) {
+            Writer out = new BufferedWriter(new OutputStreamWriter(s.getOutputStream(), StandardCharsets.UTF_8),
+                    BUFFER_SIZE);
+            AtomicInteger pending = new AtomicInteger();
+            CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+            CommandParser parser = new CommandParser();
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                // Parsed on the connection thread, the workers get the command ready to execute
+                CommandDto command = parser.parse(line);
+                if (command.getCommand() == Commands.EXIT) {
+                    break;
+                }
+
+                inFlight.acquire();
+                pending.incrementAndGet();
+                CompletableFuture<String> response;
+                try {
+                    response = CompletableFuture.supplyAsync(() -> execute(command), workers);
+                } catch (RejectedExecutionException ex) {
+                    response = CompletableFuture.completedFuture(error("The server is shutting down"));
+                }
+
+                // Each response is written once the previous one is, whatever the order the commands finish in
+                tail = tail.thenCombine(response, (previous, text) -> text)
+                        .thenAccept(text -> write(out, text, pending))
+                        .whenComplete((v, ex) -> inFlight.release());
+            }
+
+            tail.exceptionally(ex -> null).join();
+        } catch (IOException ex) {
+            // The client went away, the responses in flight are dropped
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            sockets.remove(socket);
+        }
+    }
+
+    /**
+     * Executes one command
+     *
+     * @param command Parsed command line
+     * @return Response to send to the client
+     */
+    private @NotNull String execute(@NotNull CommandDto command) {
+        served.incrementAndGet();
+        if (!command.isValid()) {
+            return error(command.getError());
+        }
+
+        Commands cmdEnum = command.getCommand();
+        ParamsDto paramsDTO = command.getParams();
+        if (cmdEnum == Commands.HELP) {
+            return ok(Main.usage());
+        }
+        if (cmdEnum == Commands.INSERT && paramsDTO.getOrder() == null) {
+            return error("Inserts need the order inline: insert <customerId> <productId>:<quantity> ...");
+        }
+
+        try {
+            if (cmdEnum == Commands.INGEST && ScriptRunner.STDIN.equals(paramsDTO.getFile())) {
+                return error("The server can only ingest files, not the standard input");
+            }
+            if (cmdEnum == Commands.DELETE && ScriptRunner.STDIN.equals(paramsDTO.getFile())) {
+                return error("The server can only read order IDs from files, not from the standard input");
+            }
+            if (cmdEnum == Commands.LIST && (paramsDTO.getLimit() <= 0 || paramsDTO.getLimit() > MAX_LIST_ROWS)) {
+                return error("The server lists at most " + MAX_LIST_ROWS
+                        + " orders per command: add --limit <n>, and --after <id> for the next ones");
+            }
+            // The services aren't thread-safe (ex. the date format of get), each worker has its own
+            OrderService service = services.get().computeIfAbsent(cmdEnum, ServiceFactory::get);
+            return ok(service.execute(paramsDTO));
+        } catch (RuntimeException ex) {
+            return error(ex.toString());
+        }
+    }
+
+    /**
+     * Writes a response, flushing when no other response of the connection is waiting
+     */
+    private static void write(@NotNull Writer out, @NotNull String text, @NotNull AtomicInteger pending) {
+        int waiting = pending.decrementAndGet();
+        try {
+            out.write(text);
+            if (waiting == 0) {
+                out.flush();
+            }
+        } catch (IOException ex) {
+            // The client went away, the reader of the connection stops at the next line
+        }
+    }
+
+    /**
+     * Formats a successful response: {@code OK <n>} followed by the n lines of the result
+     *
+     * @param result Result of the command
+     * @return Response to send
+     */
+    static @NotNull String ok(@NotNull String result) {
+        String[] lines = result.split("\r?\n", -1);
+        int count = lines.length;
+        if (count > 0 && lines[count - 1].isEmpty()) {
+            count--;
+        }
+
+        StringBuilder sb = new StringBuilder(result.length() + 16);
+        sb.append("OK ").append(count).append('\n');
+        for (int i = 0; i < count; i++) {
+            sb.append(lines[i]).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Formats an error response: one line {@code ERR <message>}
+     *
+     * @param message Error message
+     * @return Response to send
+     */
+    static @NotNull String error(@NotNull String message) {
+        return "ERR " + message.replaceAll("\r?\n", " ") + '\n';
+    }
+
+    private static void reject(@NotNull Socket socket, @NotNull String message) {
+        try {
+            socket.getOutputStream().write(error(message).getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            // Closed below anyway
+        }
+        closeQuietly(socket);
+    }
+
+    private static void closeQuietly(@NotNull Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ex) {
+            // Nothing else to release
+        }
+    }
+
+    private static @NotNull ThreadFactory threadFactory(@NotNull String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
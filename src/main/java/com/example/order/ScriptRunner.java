@@ -0,0 +1,175 @@
+package com.example.order;
+
+import com.example.order.dto.CommandDto;
+import com.example.order.dto.ParamsDto;
+import com.example.order.service.OrderService;
+import com.example.order.service.ServiceFactory;
+import com.example.order.util.CommandParser;
+import com.example.order.util.Commands;
+import com.example.order.util.Metrics;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Runs the commands of a script (or of a pipe) one after the other, without prompts.
+ * <p>
+ * Each line holds one command with the same syntax as the interactive mode. Inserts must give the order inline
+ * ({@code insert <customerId> <productId>:<quantity> ...}). Empty lines and lines starting with {@code #} are
+ * ignored, and the script ends at the end of the input or at an {@code exit} command.
+ */
+public class ScriptRunner {
+    /**
+     * Command line option that enables the script mode
+     */
+    static final String SCRIPT_OPTION = "--script";
+
+    /**
+     * Script name that reads the commands from the standard input
+     */
+    static final String STDIN = "-";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BufferedReader reader;
+    private final BufferedReader input;
+    private final PrintWriter out;
+    private final Map<Commands, OrderService> services = new EnumMap<>(Commands.class);
+    private final CommandParser parser = new CommandParser();
+
+    private long executed;
+    private long failed;
+
+    /**
+     * Constructor
+     *
+     * @param reader Source of the commands
+     * @param out    Destination of the results
+     */
+    ScriptRunner(@NotNull BufferedReader reader, @NotNull PrintWriter out) {
+        this(reader, out, false);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param reader     Source of the commands
+     * @param out        Destination of the results
+     * @param readsStdin true if the commands come from the standard input: the commands that read data from it
+     *                   (file -) then read the lines that follow them from the same reader
+     */
+    ScriptRunner(@NotNull BufferedReader reader, @NotNull PrintWriter out, boolean readsStdin) {
+        this.reader = reader;
+        this.input = readsStdin ? reader : null;
+        this.out = out;
+    }
+
+    /**
+     * Runs a script and prints a summary on the standard error
+     *
+     * @param script Path of the script, or {@link #STDIN} to read the standard input
+     * @return Number of commands that failed
+     */
+    static long run(@NotNull String script) {
+        long start = System.nanoTime();
+        PrintWriter out = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8), BUFFER_SIZE), false);
+
+        try (BufferedReader reader = STDIN.equals(script)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), BUFFER_SIZE)
+                : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8)
+        ) {
+            ScriptRunner runner = new ScriptRunner(reader, out, STDIN.equals(script));
+            runner.execute();
+            out.flush();
+
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.err.printf("Executed %d commands in %.3f s (%.1f commands/s), %d failed%n",
+                    runner.executed, seconds, seconds > 0 ? runner.executed / seconds : 0, runner.failed);
+            return runner.failed;
+        } catch (IOException ex) {
+            out.flush();
+            System.err.println("Error: the script couldn't be read: " + ex.getMessage());
+            return 1;
+        }
+    }
+
+    /**
+     * Executes every command of the input
+     *
+     * @throws IOException In case the input can't be read
+     */
+    void execute() throws IOException {
+        String line;
+        long lineNumber = 0;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+
+            CommandDto command = parser.parse(line);
+            if (command.getCommand() == Commands.EXIT) {
+                break;
+            }
+
+            executed++;
+            String error = executeCommand(command);
+            if (error != null) {
+                failed++;
+                out.println("Error (line " + lineNumber + "): " + error);
+            }
+        }
+    }
+
+    /**
+     * Executes one command and writes its result
+     *
+     * @param command Parsed command line
+     * @return Null if the command was executed, error message otherwise
+     */
+    private String executeCommand(@NotNull CommandDto command) {
+        if (!command.isValid()) {
+            return command.getError();
+        }
+
+        Commands cmdEnum = command.getCommand();
+        ParamsDto paramsDTO = command.getParams();
+        if (cmdEnum == Commands.HELP) {
+            out.print(Main.usage());
+            return null;
+        }
+        if (cmdEnum == Commands.INSERT && paramsDTO.getOrder() == null) {
+            return "Inserts need the order inline in script mode: insert <customerId> <productId>:<quantity> ...";
+        }
+
+        try {
+            OrderService service = services.computeIfAbsent(cmdEnum, ServiceFactory::get);
+            paramsDTO.setInput(input);
+            service.execute(paramsDTO, out);
+            return Metrics.lastCommandFailed() ? "The command failed on the database, see the error output" : null;
+        } catch (RuntimeException ex) {
+            return ex.toString();
+        }
+    }
+
+    long getExecuted() {
+        return executed;
+    }
+
+    long getFailed() {
+        return failed;
+    }
+}
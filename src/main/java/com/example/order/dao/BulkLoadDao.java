@@ -0,0 +1,175 @@
+package com.example.order.dao;
+
+import com.example.order.dto.LoadResultDto;
+import com.example.order.util.CsvLine;
+import com.example.order.util.Database;
+import com.example.order.util.ExceptionHandler;
+import com.example.order.util.LatencyRecorder;
+import com.example.order.util.Metrics;
+import com.example.order.util.LoadTable;
+import com.example.order.util.MappedCsvFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DAO to insert the rows of a CSV file into a table, in batches. Each call loads one chunk of the file on its own
+ * connection, so several chunks can be loaded at the same time
+ */
+public class BulkLoadDao {
+    /**
+     * Maximum number of rejected lines printed for one load
+     */
+    private static final int MAX_REPORTED_REJECTS = 20;
+
+    private final Database database;
+    private final LatencyRecorder loadMetric = Metrics.getInstance().dao("BulkLoadDao.load");
+
+    /**
+     * Constructor
+     *
+     * @param database Database object
+     */
+    public BulkLoadDao(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Inserts the lines of a chunk, committing every batch. A header line at the beginning of the file is skipped
+     *
+     * @param table     Table to fill
+     * @param chunk     Part of the CSV file to load
+     * @param batchSize       Number of rows sent and committed together
+     * @param reportedRejects Number of rejected lines printed so far by the load, shared by all its chunks
+     * @return Number of rows inserted and rejected
+     * @throws IOException In case the file can't be read
+     */
+    public @NotNull LoadResultDto load(@NotNull LoadTable table, MappedCsvFile.@NotNull Chunk chunk, int batchSize,
+                                       @NotNull AtomicInteger reportedRejects) throws IOException {
+        long start = loadMetric.start();
+        LoadResultDto result = new LoadResultDto();
+
+        try (Connection con = database.getConnection();
+             PreparedStatement ps = con.prepareStatement(table.getInsertSql())
+        ) {
+            con.setAutoCommit(false);
+            Batch batch = new Batch(con, ps, table, batchSize, result, reportedRejects);
+
+            chunk.forEachLine((line, offset, error) -> {
+                if (line != null && offset == 0 && !line.isLong(0)) {
+                    return;
+                }
+                batch.add(line, offset, error);
+            });
+            batch.flush();
+        } catch (SQLException ex) {
+            ExceptionHandler.handleException(ex);
+        }
+
+        loadMetric.stop(start, result.getInserted());
+        return result;
+    }
+
+    /**
+     * Rows of a chunk waiting to be sent to the database
+     */
+    private final class Batch {
+        private final Connection con;
+        private final PreparedStatement ps;
+        private final LoadTable table;
+        private final LoadResultDto result;
+        private final AtomicInteger reportedRejects;
+        private final long[] offsets;
+        private int size;
+
+        private Batch(Connection con, PreparedStatement ps, LoadTable table, int batchSize, LoadResultDto result,
+                      AtomicInteger reportedRejects) {
+            this.con = con;
+            this.ps = ps;
+            this.table = table;
+            this.result = result;
+            this.reportedRejects = reportedRejects;
+            this.offsets = new long[batchSize];
+        }
+
+        /**
+         * Adds one line to the batch, sending the batch when it's full
+         *
+         * @param line   Parsed line, or null if it couldn't be parsed
+         * @param offset Position of the line in the file
+         * @param error  Reason why the line couldn't be parsed
+         */
+        private void add(CsvLine line, long offset, String error) {
+            if (line == null) {
+                reject(offset, error);
+                return;
+            }
+
+            try {
+                table.bind(ps, line);
+                ps.addBatch();
+                offsets[size++] = offset;
+            } catch (IllegalArgumentException | SQLException ex) {
+                reject(offset, ex.getMessage());
+                return;
+            }
+
+            if (size == offsets.length) {
+                flush();
+            }
+        }
+
+        /**
+         * Executes and commits the pending rows. Rows refused by the database are counted as rejected
+         */
+        private void flush() {
+            if (size == 0) {
+                return;
+            }
+
+            int[] counts;
+            try {
+                counts = ps.executeBatch();
+            } catch (BatchUpdateException ex) {
+                counts = ex.getUpdateCounts();
+                if (reportedRejects.get() < MAX_REPORTED_REJECTS) {
+                    System.err.println("Batch of " + table.getOption() + " partially rejected: " + ex.getMessage());
+                }
+            } catch (SQLException ex) {
+                ExceptionHandler.handleException(ex);
+                counts = null;
+            }
+
+            int inserted = 0;
+            for (int i = 0; i < size; i++) {
+                if (counts != null && i < counts.length && counts[i] != Statement.EXECUTE_FAILED) {
+                    inserted++;
+                } else {
+                    reject(offsets[i], "refused by the database");
+                }
+            }
+
+            try {
+                con.commit();
+                result.setInserted(result.getInserted() + inserted);
+            } catch (SQLException ex) {
+                ExceptionHandler.handleException(ex);
+                result.setRejected(result.getRejected() + inserted);
+            }
+            size = 0;
+        }
+
+        private void reject(long offset, String reason) {
+            result.setRejected(result.getRejected() + 1);
+            if (reportedRejects.getAndIncrement() < MAX_REPORTED_REJECTS) {
+                System.err.println("Rejected " + table.getOption() + " line at byte " + offset + ": " + reason);
+            }
+        }
+    }
+}
@@ -3,6 +3,9 @@ package com.example.order.dao;
 import com.example.order.dto.ParamsDto;
 import com.example.order.util.Database;
 import com.example.order.util.ExceptionHandler;
+import com.example.order.util.LatencyRecorder;
+import com.example.order.util.Metrics;
+import com.example.order.util.OrderCache;
 import org.jetbrains.annotations.NotNull;
 
 import java.sql.Connection;
@@ -15,7 +18,12 @@ import java.util.List;
  * DAO to delete an order
  */
 public class DeleteOrderDao {
+    private static final String DELETE_ANY_SQL = "DELETE FROM orders o WHERE o.order_id = ANY(?)";
+
     private final Database database;
+    private final OrderCache cache;
+    private final LatencyRecorder deleteMetric = Metrics.getInstance().dao("DeleteOrderDao.deleteOrdersById");
+    private final LatencyRecorder chunksMetric = Metrics.getInstance().dao("DeleteOrderDao.deleteOrdersInChunks");
 
     /**
      * Constructor
@@ -23,16 +31,28 @@ public class DeleteOrderDao {
      * @param database Database object
      */
     public DeleteOrderDao(Database database) {
+        this(database, OrderCache.getInstance());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param database Database object
+     * @param cache    Cache of orders to invalidate when an order changes
+     */
+    public DeleteOrderDao(Database database, OrderCache cache) {
         this.database = database;
+        this.cache = cache;
     }
 
     /**
      * Deletes one or more orders using their IDs
      *
      * @param paramsDto Object with the parameters for the operation
-     * @return Number of orders deleted
+     * @return Number of orders deleted, -1 in case of an error
      */
     public int deleteOrdersById(@NotNull ParamsDto paramsDto) {
+        long start = deleteMetric.start();
         int numberResults = 0;
 
         try (Connection con = database.getConnection();
@@ -42,8 +62,74 @@ public class DeleteOrderDao {
 
         } catch (SQLException ex) {
             ExceptionHandler.handleException(ex);
+            numberResults = -1;
+        } finally {
+            for (Long id : paramsDto.getOrderIds()) {
+                cache.invalidate(id);
+            }
         }
 
+        deleteMetric.stop(start, Math.max(numberResults, 0));
+        return numberResults;
+    }
+
+    /**
+     * Deletes orders in fixed-size chunks inside one transaction. Every chunk runs the same SQL text whatever the
+     * number of IDs, so the statement is parsed once per connection: with placeholders the last chunk is padded by
+     * repeating its last ID, with an array parameter ({@code = ANY(?)}) each chunk is bound as a single value.
+     *
+     * @param orderIds       IDs of the orders to delete
+     * @param count          Number of IDs to take from the beginning of the array
+     * @param chunkSize      Number of IDs deleted by each statement
+     * @param arrayParameter true to bind each chunk as an array, false to bind one placeholder per ID
+     * @return Number of orders deleted, -1 if the transaction failed and was rolled back
+     */
+    public int deleteOrdersInChunks(long @NotNull [] orderIds, int count, int chunkSize, boolean arrayParameter) {
+        long start = chunksMetric.start();
+        int numberResults = -1;
+
+        try (Connection con = database.getConnection();
+             PreparedStatement ps = con.prepareStatement(arrayParameter ? DELETE_ANY_SQL : buildDeleteSql(chunkSize))
+        ) {
+            con.setAutoCommit(false);
+
+            try {
+                int deleted = 0;
+                Long[] chunk = arrayParameter ? new Long[Math.min(chunkSize, count)] : null;
+
+                for (int from = 0; from < count; from += chunkSize) {
+                    int to = Math.min(from + chunkSize, count);
+                    if (arrayParameter) {
+                        if (chunk.length != to - from) {
+                            chunk = new Long[to - from];
+                        }
+                        for (int i = from; i < to; i++) {
+                            chunk[i - from] = orderIds[i];
+                        }
+                        ps.setObject(1, chunk);
+                    } else {
+                        for (int i = 0; i < chunkSize; i++) {
+                            ps.setLong(i + 1, orderIds[Math.min(from + i, to - 1)]);
+                        }
+                    }
+                    deleted += ps.executeUpdate();
+                }
+
+                con.commit();
+                numberResults = deleted;
+            } catch (SQLException ex) {
+                con.rollback();
+                ExceptionHandler.handleException(ex);
+            }
+        } catch (SQLException ex) {
+            ExceptionHandler.handleException(ex);
+        } finally {
+            for (int i = 0; i < count; i++) {
+                cache.invalidate(orderIds[i]);
+            }
+        }
+
+        chunksMetric.stop(start, Math.max(numberResults, 0));
         return numberResults;
     }
 
@@ -54,7 +140,17 @@ public class DeleteOrderDao {
      * @return Delete SQL statement
      */
     private @NotNull String buildDeleteSql(@NotNull List<Long> orderIds) {
-        String ids = String.join(",", Collections.nCopies(orderIds.size(), "?"));
+        return buildDeleteSql(orderIds.size());
+    }
+
+    /**
+     * Method to build the delete SQL statement
+     *
+     * @param placeholders Number of IDs the statement takes
+     * @return Delete SQL statement
+     */
+    private @NotNull String buildDeleteSql(int placeholders) {
+        String ids = String.join(",", Collections.nCopies(placeholders, "?"));
 
         return "DELETE FROM orders o WHERE o.order_id IN (" + ids + ")";
     }
@@ -1,23 +1,40 @@
 package com.example.order.dao;
 
+import com.example.order.dto.OrderDetailDto;
 import com.example.order.dto.OrderDto;
 import com.example.order.dto.ParamsDto;
 import com.example.order.util.Database;
 import com.example.order.util.ExceptionHandler;
+import com.example.order.util.LatencyRecorder;
+import com.example.order.util.Metrics;
+import com.example.order.util.OrderCache;
 import org.jetbrains.annotations.NotNull;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * DAO to get an order
  */
 public class GetOrderDao {
     private final String query = "SELECT * FROM orders o WHERE o.order_id = ?";
+    private final String ordersQuery = "SELECT o.order_id, o.order_customer_id, o.order_date, o.order_status " +
+            "FROM orders o WHERE o.order_id = ANY(?)";
+    private final String detailsQuery = "SELECT d.order_detail_order_id, d.order_detail_product_id, " +
+            "d.order_detail_quantity, p.product_name, p.product_price " +
+            "FROM order_details d JOIN products p ON p.product_id = d.order_detail_product_id " +
+            "WHERE d.order_detail_order_id = ANY(?) ORDER BY d.order_detail_order_id, d.order_detail_product_id";
     private final Database database;
+    private final OrderCache cache;
+    private final LatencyRecorder getMetric = Metrics.getInstance().dao("GetOrderDao.getOrderById");
+    private final LatencyRecorder detailsMetric = Metrics.getInstance().dao("GetOrderDao.getOrdersWithDetails");
 
     /**
      * Constructor
@@ -25,7 +42,18 @@ public class GetOrderDao {
      * @param database Database object
      */
     public GetOrderDao(Database database) {
+        this(database, null);
+    }
+
+    /**
+     * Constructor of a DAO that reads the orders through a cache
+     *
+     * @param database Database object
+     * @param cache    Cache of orders, or null to always read the database
+     */
+    public GetOrderDao(Database database, OrderCache cache) {
         this.database = database;
+        this.cache = cache;
     }
 
     /**
@@ -35,10 +63,114 @@ public class GetOrderDao {
      * @return Object with the main information of an order
      */
     public OrderDto getOrderById(ParamsDto paramsDto) {
+        long start = getMetric.start();
+        OrderDto orderDto = null;
+
+        try {
+            orderDto = cache == null
+                    ? loadOrder(paramsDto.getOrderId())
+                    : cache.get(paramsDto.getOrderId(), this::loadOrder);
+        } catch (SQLException ex) {
+            ExceptionHandler.handleException(ex);
+        }
+
+        getMetric.stop(start, orderDto == null ? 0 : 1);
+        return orderDto;
+    }
+
+    /**
+     * Gets several orders with their detail lines (and the name and price of their products). Whatever the number of
+     * orders, it runs two queries: one for the orders and one for all their details, both bound to the list of IDs
+     * as a single array parameter. With a cache, only the orders that aren't cached are read.
+     *
+     * @param orderIds IDs of the orders
+     * @return Orders found, in the order of the IDs (IDs that don't exist are skipped, repeated IDs give one order),
+     * or null in case of an error
+     */
+    public List<OrderDto> getOrdersWithDetails(@NotNull List<Long> orderIds) {
+        long start = detailsMetric.start();
+        Map<Long, OrderDto> orders;
+
+        try {
+            orders = cache == null
+                    ? loadOrdersWithDetails(orderIds)
+                    : cache.getAll(orderIds, this::loadOrdersWithDetails);
+        } catch (SQLException ex) {
+            ExceptionHandler.handleException(ex);
+            detailsMetric.stop(start, 0);
+            return null;
+        }
+
+        List<OrderDto> result = new ArrayList<>(orders.size());
+        for (Long id : orderIds) {
+            OrderDto orderDto = orders.remove(id);
+            if (orderDto != null) {
+                result.add(orderDto);
+            }
+        }
+        detailsMetric.stop(start, result.size());
+        return result;
+    }
+
+    /**
+     * Reads orders and their detail lines from the database
+     *
+     * @param orderIds IDs of the orders
+     * @return Orders found, by ID
+     * @throws SQLException In case of an error
+     */
+    private @NotNull Map<Long, OrderDto> loadOrdersWithDetails(@NotNull Collection<Long> orderIds) throws SQLException {
+        Long[] ids = orderIds.toArray(new Long[0]);
+        Map<Long, OrderDto> orders = new HashMap<>(ids.length * 2);
+
+        try (Connection con = database.getConnection();
+             PreparedStatement ordersPS = con.prepareStatement(ordersQuery);
+             PreparedStatement detailsPS = con.prepareStatement(detailsQuery)
+        ) {
+            ordersPS.setObject(1, ids);
+            try (ResultSet rs = ordersPS.executeQuery()) {
+                while (rs.next()) {
+                    OrderDto orderDto = new OrderDto();
+                    orderDto.setOrderId(rs.getLong(1));
+                    orderDto.setCustomerId(rs.getLong(2));
+                    orderDto.setDate(rs.getDate(3));
+                    orderDto.setStatus(rs.getString(4));
+                    orderDto.setOrderDetail(new ArrayList<>());
+                    orders.put(orderDto.getOrderId(), orderDto);
+                }
+            }
+
+            if (!orders.isEmpty()) {
+                detailsPS.setObject(1, ids);
+                try (ResultSet rs = detailsPS.executeQuery()) {
+                    while (rs.next()) {
+                        OrderDetailDto detail = new OrderDetailDto();
+                        detail.setOrderId(rs.getLong(1));
+                        detail.setProductId(rs.getLong(2));
+                        detail.setQuantity(rs.getInt(3));
+                        detail.setProductName(rs.getString(4));
+                        detail.setProductPrice(rs.getBigDecimal(5));
+                        orders.get(detail.getOrderId()).getOrderDetail().add(detail);
+                    }
+                }
+            }
+        }
+
+        return orders;
+    }
+
+    /**
+     * Reads an order from the database
+     *
+     * @param orderId ID of the order
+     * @return Object with the main information of an order, or null if it doesn't exist
+     * @throws SQLException In case of an error
+     */
+    private OrderDto loadOrder(long orderId) throws SQLException {
         OrderDto orderDto = null;
 
         try (Connection con = database.getConnection();
-             PreparedStatement ps = createPreparedStatement(con, paramsDto.getOrderId());
+             PreparedStatement ps = createPreparedStatement(con, orderId);
              ResultSet rs = createResultSet(ps)
         ) {
             if (rs.first()) {
@@ -52,9 +184,6 @@ public class GetOrderDao {
                 /* 'order_status' */
                 orderDto.setStatus(rs.getString(4));
             }
-
-        } catch (SQLException ex) {
-            ExceptionHandler.handleException(ex);
         }
 
         return orderDto;
@@ -4,24 +4,37 @@ import com.example.order.dto.OrderDto;
 import com.example.order.dto.OrderDetailDto;
 import com.example.order.util.Database;
 import com.example.order.util.ExceptionHandler;
+import com.example.order.util.LatencyRecorder;
+import com.example.order.util.Metrics;
+import com.example.order.util.OrderCache;
 import com.example.order.util.OrderStatus;
 import org.jetbrains.annotations.NotNull;
 
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * DAO to insert an order
  */
 public class InsertOrderDao {
+    /**
+     * Maximum number of detail lines sent to the database in one batch
+     */
+    private static final int DETAIL_BATCH_SIZE = 500;
+
     private final String sqlOrder = "INSERT INTO orders " +
             "(order_customer_id, order_date, order_status) " +
             "VALUES (?, ?, ?)";
-    String sqlOrderDetail =
+    private final String sqlOrderDetail =
             "INSERT INTO order_details "
                     + "(order_detail_order_id, order_detail_product_id, order_detail_quantity) "
                     + "VALUES (?, ?, ?)";
     private final Database database;
+    private final OrderCache cache;
+    private final LatencyRecorder insertMetric = Metrics.getInstance().dao("InsertOrderDao.insertOrder");
+    private final LatencyRecorder insertManyMetric = Metrics.getInstance().dao("InsertOrderDao.insertOrders");
 
     /**
      * Constructor
@@ -29,7 +42,18 @@ public class InsertOrderDao {
      * @param database Database object
      */
     public InsertOrderDao(Database database) {
+        this(database, OrderCache.getInstance());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param database Database object
+     * @param cache    Cache of orders to invalidate when an order changes
+     */
+    public InsertOrderDao(Database database, OrderCache cache) {
         this.database = database;
+        this.cache = cache;
     }
 
     /**
@@ -39,6 +63,7 @@ public class InsertOrderDao {
      * @return The ID of the order inserted
      */
     public long insertOrder(OrderDto orderDto) {
+        long start = insertMetric.start();
         long orderId = -1;
 
         try (Connection con = database.getConnection();
@@ -54,33 +79,109 @@ public class InsertOrderDao {
                     } else {
                         orderId = result.getLong(1);
 
-                        for (OrderDetailDto orderDetailDto : orderDto.getOrderDetail()) {
-                            orderDetailDto.setOrderId(orderId);
-
-                            try (PreparedStatement detailsPS =
-                                         createOrderDetailPreparedStatement(con, orderDetailDto)) {
-                                int count = detailsPS.executeUpdate();
+                        try (PreparedStatement detailsPS = createOrderDetailPreparedStatement(con)) {
+                            addOrderDetailBatch(detailsPS, orderId, orderDto.getOrderDetail());
 
-                                if (count != 1) {
-                                    con.rollback();
-                                    orderId = -1;
-                                }
+                            if (executeOrderDetailBatch(detailsPS, orderDto.getOrderDetail())) {
+                                con.commit();
+                            } else {
+                                con.rollback();
+                                orderId = -1;
                             }
                         }
-                        con.commit();
                     }
                 }
             } catch (SQLException ex) {
                 con.rollback();
+                orderId = -1;
                 ExceptionHandler.handleException(ex);
             }
         } catch (SQLException ex) {
             ExceptionHandler.handleException(ex);
         }
 
+        if (orderId > 0) {
+            // Drop a cached "not found" for the new ID
+            cache.invalidate(orderId);
+        }
+        insertMetric.stop(start, orderId > 0 ? 1 : 0);
         return orderId;
     }
 
+    /**
+     * Inserts several orders in one transaction. The order records reuse one statement and the detail lines of
+     * all the orders are sent in batches, so either every order is inserted or none is
+     *
+     * @param orders Orders to insert
+     * @return The IDs of the orders inserted, in the same order, or an empty array if nothing was inserted
+     */
+    public long[] insertOrders(@NotNull List<OrderDto> orders) {
+        long start = insertManyMetric.start();
+        long[] orderIds = new long[orders.size()];
+        boolean inserted = false;
+
+        try (Connection con = database.getConnection();
+             PreparedStatement ps = con.prepareStatement(sqlOrder, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement detailsPS = createOrderDetailPreparedStatement(con)
+        ) {
+            con.setAutoCommit(false);
+
+            try {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                List<OrderDetailDto> pending = new ArrayList<>();
+                boolean success = true;
+
+                for (int i = 0; i < orders.size() && success; i++) {
+                    OrderDto orderDto = orders.get(i);
+                    setOrderParameters(ps, orderDto, now);
+                    ps.executeUpdate();
+
+                    try (ResultSet result = ps.getGeneratedKeys()) {
+                        if (result == null || !result.next()) {
+                            success = false;
+                            continue;
+                        }
+                        orderIds[i] = result.getLong(1);
+                    }
+
+                    addOrderDetailBatch(detailsPS, orderIds[i], orderDto.getOrderDetail());
+                    pending.addAll(orderDto.getOrderDetail());
+
+                    if (pending.size() >= DETAIL_BATCH_SIZE) {
+                        success = executeOrderDetailBatch(detailsPS, pending);
+                        pending.clear();
+                    }
+                }
+
+                if (success && !pending.isEmpty()) {
+                    success = executeOrderDetailBatch(detailsPS, pending);
+                }
+
+                if (success) {
+                    con.commit();
+                    inserted = true;
+                } else {
+                    con.rollback();
+                }
+            } catch (SQLException ex) {
+                con.rollback();
+                ExceptionHandler.handleException(ex);
+            }
+        } catch (SQLException ex) {
+            ExceptionHandler.handleException(ex);
+        }
+
+        if (!inserted) {
+            insertManyMetric.stop(start, 0);
+            return new long[0];
+        }
+        for (long orderId : orderIds) {
+            cache.invalidate(orderId);
+        }
+        insertManyMetric.stop(start, orderIds.length);
+        return orderIds;
+    }
+
     /**
      * Creates a PreparedStatement object to insert the order record
      *
@@ -91,25 +192,110 @@ public class InsertOrderDao {
      */
     private @NotNull PreparedStatement createOrderPreparedStatement(@NotNull Connection con, @NotNull OrderDto orderDto) throws SQLException {
         PreparedStatement ps = con.prepareStatement(sqlOrder, Statement.RETURN_GENERATED_KEYS);
+        setOrderParameters(ps, orderDto, Timestamp.valueOf(LocalDateTime.now()));
+        return ps;
+    }
+
+    /**
+     * Sets the parameters of the order record on a PreparedStatement object
+     *
+     * @param ps       PreparedStatement object
+     * @param orderDto Object with the parameters to set on the PreparedStatement
+     * @param date     Date of the order
+     * @throws SQLException In case of an error
+     */
+    private void setOrderParameters(@NotNull PreparedStatement ps, @NotNull OrderDto orderDto, Timestamp date) throws SQLException {
         ps.setLong(1, orderDto.getCustomerId());
-        ps.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+        ps.setTimestamp(2, date);
         ps.setString(3, OrderStatus.CREATED.getStatus());
-        return ps;
     }
 
     /**
-     * Creates a PreparedStatement object to insert the details of the order
+     * Creates a PreparedStatement object to insert the details of the orders, one batch entry per line
      *
-     * @param con            Connection object
-     * @param orderDetailDto Object with the parameters to set on the PreparedStatement
+     * @param con Connection object
      * @return A PreparedStatement object
      * @throws SQLException In case of an error
      */
-    private @NotNull PreparedStatement createOrderDetailPreparedStatement(@NotNull Connection con, @NotNull OrderDetailDto orderDetailDto) throws SQLException {
-        PreparedStatement ps = con.prepareStatement(sqlOrderDetail);
+    private @NotNull PreparedStatement createOrderDetailPreparedStatement(@NotNull Connection con) throws SQLException {
+        return con.prepareStatement(sqlOrderDetail);
+    }
+
+    /**
+     * Sets the parameters of one detail line on a PreparedStatement object
+     *
+     * @param ps             PreparedStatement object
+     * @param orderDetailDto Object with the parameters to set on the PreparedStatement
+     * @throws SQLException In case of an error
+     */
+    private void setOrderDetailParameters(@NotNull PreparedStatement ps, @NotNull OrderDetailDto orderDetailDto) throws SQLException {
         ps.setLong(1, orderDetailDto.getOrderId());
         ps.setLong(2, orderDetailDto.getProductId());
         ps.setInt(3, orderDetailDto.getQuantity());
-        return ps;
+    }
+
+    /**
+     * Adds the detail lines of an order to the batch of a PreparedStatement object
+     *
+     * @param ps           PreparedStatement object
+     * @param orderId      ID of the order the lines belong to
+     * @param orderDetails Detail lines of the order
+     * @throws SQLException In case of an error
+     */
+    private void addOrderDetailBatch(@NotNull PreparedStatement ps, long orderId, @NotNull List<OrderDetailDto> orderDetails) throws SQLException {
+        for (OrderDetailDto orderDetailDto : orderDetails) {
+            orderDetailDto.setOrderId(orderId);
+            setOrderDetailParameters(ps, orderDetailDto);
+            ps.addBatch();
+        }
+    }
+
+    /**
+     * Executes the batch of detail lines and reports every line that wasn't inserted
+     *
+     * @param ps    PreparedStatement object with the batch
+     * @param lines Detail lines in the order they were added to the batch
+     * @return true if every line was inserted, false otherwise
+     */
+    private boolean executeOrderDetailBatch(@NotNull PreparedStatement ps, @NotNull List<OrderDetailDto> lines) {
+        int[] counts;
+
+        try {
+            counts = ps.executeBatch();
+        } catch (BatchUpdateException ex) {
+            ExceptionHandler.handleException(ex);
+            counts = ex.getUpdateCounts();
+            reportFailedLines(counts, lines);
+            return false;
+        } catch (SQLException ex) {
+            ExceptionHandler.handleException(ex);
+            return false;
+        }
+
+        return reportFailedLines(counts, lines) == 0;
+    }
+
+    /**
+     * Prints the detail lines whose update count shows they weren't inserted: the driver stopped before them, or it
+     * reported them as failed or as having inserted no rows
+     *
+     * @param counts Update counts returned by the batch (it may be shorter than the batch if the driver stopped)
+     * @param lines  Detail lines in the order they were added to the batch
+     * @return Number of lines that weren't inserted
+     */
+    private int reportFailedLines(int[] counts, @NotNull List<OrderDetailDto> lines) {
+        int failed = 0;
+
+        for (int i = 0; i < lines.size(); i++) {
+            // SUCCESS_NO_INFO (-2) means the line was inserted but the driver didn't count the rows
+            if (counts == null || i >= counts.length || counts[i] == Statement.EXECUTE_FAILED || counts[i] == 0) {
+                OrderDetailDto line = lines.get(i);
+                System.err.println("Order detail line " + (i + 1) + " wasn't inserted (order ID " + line.getOrderId()
+                        + ", product ID " + line.getProductId() + ", quantity " + line.getQuantity() + ")");
+                failed++;
+            }
+        }
+
+        return failed;
     }
 }
@@ -0,0 +1,154 @@
+package com.example.order.dao;
+
+import com.example.order.dto.OrderDto;
+import com.example.order.dto.ParamsDto;
+import com.example.order.util.Database;
+import com.example.order.util.ExceptionHandler;
+import com.example.order.util.LatencyRecorder;
+import com.example.order.util.Metrics;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+/**
+ * DAO to list the orders that match some filters.
+ * <p>
+ * The orders are read in pages with keyset pagination: every page is a query for the orders with an ID greater than
+ * the last one of the previous page, so each page starts with an index seek and no page is ever skipped or read
+ * twice. Only the current row is kept, the orders are handed to a consumer as they're read.
+ */
+public class ListOrderDao {
+    /**
+     * Number of orders read by each query when the parameters don't say otherwise
+     */
+    public static final int DEFAULT_PAGE_SIZE = 10_000;
+
+    /**
+     * Number of rows fetched at a time when the parameters don't say otherwise
+     */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    private final Database database;
+    private final LatencyRecorder listMetric = Metrics.getInstance().dao("ListOrderDao.listOrders");
+
+    /**
+     * Constructor
+     *
+     * @param database Database object
+     */
+    public ListOrderDao(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Reads the orders that match the filters of the parameters (customer, status, date range, first ID), in ID order
+     *
+     * @param paramsDto Object with the filters, the page size ({@code chunkSize}), the fetch size and the limit
+     * @param consumer  Receives every order as soon as it's read
+     * @return Number of orders read, -1 in case of an error
+     */
+    public long listOrders(@NotNull ParamsDto paramsDto, @NotNull Consumer<OrderDto> consumer) {
+        long start = listMetric.start();
+        int pageSize = paramsDto.getChunkSize() > 0 ? paramsDto.getChunkSize() : DEFAULT_PAGE_SIZE;
+        long limit = paramsDto.getLimit() > 0 ? paramsDto.getLimit() : Long.MAX_VALUE;
+        long count = 0;
+
+        try (Connection con = database.getConnection();
+             PreparedStatement ps = createPreparedStatement(con, paramsDto)
+        ) {
+            ps.setFetchSize(paramsDto.getFetchSize() > 0 ? paramsDto.getFetchSize() : DEFAULT_FETCH_SIZE);
+            long lastId = paramsDto.getRangeFrom() != null ? paramsDto.getRangeFrom() - 1 : Long.MIN_VALUE;
+            int rows;
+
+            do {
+                int size = (int) Math.min(pageSize, limit - count);
+                ps.setLong(1, lastId);
+                ps.setInt(setFilterParameters(ps, 2, paramsDto), size);
+                rows = 0;
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        OrderDto orderDto = new OrderDto();
+                        orderDto.setOrderId(rs.getLong(1));
+                        orderDto.setCustomerId(rs.getLong(2));
+                        orderDto.setDate(rs.getTimestamp(3));
+                        orderDto.setStatus(rs.getString(4));
+
+                        consumer.accept(orderDto);
+                        lastId = orderDto.getOrderId();
+                        rows++;
+                    }
+                }
+                count += rows;
+            } while (rows == pageSize && count < limit);
+        } catch (SQLException ex) {
+            ExceptionHandler.handleException(ex);
+            listMetric.stop(start, count);
+            return -1;
+        }
+
+        listMetric.stop(start, count);
+        return count;
+    }
+
+    /**
+     * Creates a PreparedStatement object to read a page of orders: the first parameter is the last ID of the previous
+     * page, then come the filters and the size of the page
+     *
+     * @param con       Connection object
+     * @param paramsDto Object with the filters
+     * @return A PreparedStatement object
+     * @throws SQLException In case of an error
+     */
+    private @NotNull PreparedStatement createPreparedStatement(@NotNull Connection con, @NotNull ParamsDto paramsDto)
+            throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT o.order_id, o.order_customer_id, o.order_date, o.order_status " +
+                "FROM orders o WHERE o.order_id > ?");
+        if (paramsDto.getCustomerId() > 0) {
+            sql.append(" AND o.order_customer_id = ?");
+        }
+        if (paramsDto.getCurrentStatus() != null) {
+            sql.append(" AND o.order_status = ?");
+        }
+        if (paramsDto.getSince() != null) {
+            sql.append(" AND o.order_date >= ?");
+        }
+        if (paramsDto.getBefore() != null) {
+            sql.append(" AND o.order_date < ?");
+        }
+        sql.append(" ORDER BY o.order_id LIMIT ?");
+
+        return con.prepareStatement(sql.toString());
+    }
+
+    /**
+     * Sets the parameters of the filters
+     *
+     * @param ps        PreparedStatement object of a page
+     * @param index     Index of the first parameter of the filters
+     * @param paramsDto Object with the filters
+     * @return Index of the next parameter
+     * @throws SQLException In case of an error
+     */
+    private int setFilterParameters(@NotNull PreparedStatement ps, int index, @NotNull ParamsDto paramsDto)
+            throws SQLException {
+        if (paramsDto.getCustomerId() > 0) {
+            ps.setLong(index++, paramsDto.getCustomerId());
+        }
+        if (paramsDto.getCurrentStatus() != null) {
+            ps.setString(index++, paramsDto.getCurrentStatus());
+        }
+        if (paramsDto.getSince() != null) {
+            ps.setTimestamp(index++, Timestamp.valueOf(paramsDto.getSince().atStartOfDay()));
+        }
+        if (paramsDto.getBefore() != null) {
+            ps.setTimestamp(index++, Timestamp.valueOf(paramsDto.getBefore().atStartOfDay()));
+        }
+        return index;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.order.dao;
+
+import com.example.order.dto.PaidTotalMismatchDto;
+import com.example.order.util.Database;
+import com.example.order.util.ExceptionHandler;
+import com.example.order.util.LatencyRecorder;
+import com.example.order.util.Metrics;
+import com.example.order.util.OrderStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DAO to check and rebuild the {@code customer_paid_totals} aggregate against the orders
+ */
+public class PaidTotalsDao {
+    /**
+     * Paid total and number of paid detail lines of every customer, computed from the orders
+     */
+    private static final String ACTUAL_TOTALS_SQL = "SELECT o.order_customer_id AS customer_id, " +
+            "SUM(p.product_price * d.order_detail_quantity) AS total, COUNT(*) AS lines " +
+            "FROM orders o " +
+            "JOIN order_details d ON d.order_detail_order_id = o.order_id " +
+            "JOIN products p ON p.product_id = d.order_detail_product_id " +
+            "WHERE o.order_status = '" + OrderStatus.PAID.getStatus() + "' " +
+            "GROUP BY o.order_customer_id";
+
+    private final String verifySql = "SELECT a.customer_id, t.paid_total, a.total " +
+            "FROM (" + ACTUAL_TOTALS_SQL + ") a " +
+            "LEFT JOIN customer_paid_totals t ON t.customer_id = a.customer_id " +
+            "WHERE t.customer_id IS NULL OR t.paid_total <> a.total OR t.paid_lines <> a.lines " +
+            "UNION ALL " +
+            "SELECT t.customer_id, t.paid_total, NULL " +
+            "FROM customer_paid_totals t " +
+            "WHERE (t.paid_lines <> 0 OR t.paid_total <> 0) " +
+            "AND t.customer_id NOT IN (SELECT customer_id FROM (" + ACTUAL_TOTALS_SQL + "))";
+    private final String deleteSql = "DELETE FROM customer_paid_totals";
+    private final String rebuildSql = "INSERT INTO customer_paid_totals (customer_id, paid_total, paid_lines) " +
+            "SELECT customer_id, total, lines FROM (" + ACTUAL_TOTALS_SQL + ")";
+    private final Database database;
+    private final LatencyRecorder verifyMetric = Metrics.getInstance().dao("PaidTotalsDao.verify");
+    private final LatencyRecorder rebuildMetric = Metrics.getInstance().dao("PaidTotalsDao.rebuild");
+
+    /**
+     * Constructor
+     *
+     * @param database Database object
+     */
+    public PaidTotalsDao(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Compares the aggregate with the totals computed from the orders
+     *
+     * @return Customers whose stored total is wrong, or null in case of a database error
+     */
+    public List<PaidTotalMismatchDto> verify() {
+        long start = verifyMetric.start();
+        List<PaidTotalMismatchDto> mismatches = new ArrayList<>();
+
+        try (Connection con = database.getConnection();
+             PreparedStatement ps = con.prepareStatement(verifySql);
+             ResultSet rs = ps.executeQuery()
+        ) {
+            while (rs.next()) {
+                mismatches.add(createMismatch(rs));
+            }
+        } catch (SQLException ex) {
+            ExceptionHandler.handleException(ex);
+            verifyMetric.stop(start, 0);
+            return null;
+        }
+
+        verifyMetric.stop(start, mismatches.size());
+        return mismatches;
+    }
+
+    /**
+     * Recomputes the whole aggregate from the orders, in one transaction. Writes of other connections wait for
+     * the rows the rebuild locks, but the aggregate should be rebuilt when nothing else writes orders
+     *
+     * @return Number of customers with paid orders, or -1 in case of a database error
+     */
+    public int rebuild() {
+        long start = rebuildMetric.start();
+        int customers = -1;
+
+        try (Connection con = database.getConnection();
+             PreparedStatement delete = con.prepareStatement(deleteSql);
+             PreparedStatement insert = con.prepareStatement(rebuildSql)
+        ) {
+            con.setAutoCommit(false);
+            try {
+                delete.executeUpdate();
+                customers = insert.executeUpdate();
+                con.commit();
+            } catch (SQLException ex) {
+                con.rollback();
+                customers = -1;
+                ExceptionHandler.handleException(ex);
+            }
+        } catch (SQLException ex) {
+            ExceptionHandler.handleException(ex);
+        }
+
+        rebuildMetric.stop(start, Math.max(customers, 0));
+        return customers;
+    }
+
+    /**
+     * Creates a DTO with the current row of the verification query
+     *
+     * @param rs ResultSet positioned on a row
+     * @return Object with the mismatch
+     * @throws SQLException In case of an error
+     */
+    private @NotNull PaidTotalMismatchDto createMismatch(@NotNull ResultSet rs) throws SQLException {
+        PaidTotalMismatchDto mismatch = new PaidTotalMismatchDto();
+        mismatch.setCustomerId(rs.getLong(1));
+        mismatch.setStoredTotal(rs.getBigDecimal(2));
+        mismatch.setActualTotal(rs.getBigDecimal(3));
+        return mismatch;
+    }
+}
@@ -3,17 +3,22 @@ package com.example.order.dao;
 import com.example.order.dto.ParamsDto;
 import com.example.order.util.Database;
 import com.example.order.util.ExceptionHandler;
+import com.example.order.util.LatencyRecorder;
+import com.example.order.util.Metrics;
+import com.example.order.util.PaidTotalTrigger;
 import org.jetbrains.annotations.NotNull;
 
 import java.math.BigDecimal;
 import java.sql.*;
 
 /**
- * DAO to get the total of all the paid orders of a customer
+ * DAO to get the total of all the paid orders of a customer. The total is read from the {@code customer_paid_totals}
+ * aggregate, which {@link PaidTotalTrigger} updates whenever orders, details or prices change
  */
 public class TotalOrderDao {
-    private final String query = "{call GET_PAID_ORDER_TOTAL_FROM_CUSTOMER(?)}";
+    private final String query = PaidTotalTrigger.SELECT_TOTAL_SQL;
     private final Database database;
+    private final LatencyRecorder totalMetric = Metrics.getInstance().dao("TotalOrderDao.getTotalAllPaidOrders");
 
     /**
      * Constructor
@@ -28,10 +33,33 @@ public class TotalOrderDao {
      * Gets the total of all paid orders of a customer
      *
      * @param paramsDto Object with the arguments of the operation
-     * @return Total of all paid orders
+     * @return Total of all paid orders, null if the customer has none or in case of an error
      */
     public BigDecimal getTotalAllPaidOrders(ParamsDto paramsDto) {
+        return readTotal(paramsDto, null);
+    }
+
+    /**
+     * Gets the total of all paid orders of a customer, telling a customer without paid orders apart from an error
+     *
+     * @param paramsDto Object with the arguments of the operation
+     * @return Total of all paid orders (0.00 if the customer has none), or null in case of an error
+     */
+    public BigDecimal getPaidTotal(ParamsDto paramsDto) {
+        return readTotal(paramsDto, BigDecimal.ZERO.setScale(2));
+    }
+
+    /**
+     * Reads the total of the paid orders of a customer
+     *
+     * @param paramsDto Object with the arguments of the operation
+     * @param noOrders  Value returned when the customer has no paid orders
+     * @return Total of all paid orders, {@code noOrders} if there are none, or null in case of an error
+     */
+    private BigDecimal readTotal(ParamsDto paramsDto, BigDecimal noOrders) {
+        long start = totalMetric.start();
         BigDecimal result = null;
+        boolean found = false;
 
         try (Connection con = database.getConnection();
              CallableStatement cs = createCallableStatement(con, paramsDto.getCustomerId())
@@ -41,13 +69,18 @@ public class TotalOrderDao {
             try (ResultSet resultSet = cs.getResultSet()) {
                 if (resultSet != null && resultSet.next()) {
                     result = resultSet.getBigDecimal(1);
+                    found = true;
                 }
             }
+            if (!found) {
+                result = noOrders;
+            }
 
         } catch (SQLException ex) {
             ExceptionHandler.handleException(ex);
         }
 
+        totalMetric.stop(start, found ? 1 : 0);
         return result;
     }
 
@@ -1,20 +1,36 @@
 package com.example.order.dao;
 
 import com.example.order.dto.ParamsDto;
+import com.example.order.dto.UpdateResultDto;
 import com.example.order.util.Database;
 import com.example.order.util.ExceptionHandler;
+import com.example.order.util.LatencyRecorder;
+import com.example.order.util.Metrics;
+import com.example.order.util.OrderCache;
 import org.jetbrains.annotations.NotNull;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * DAO to update an order
  */
 public class UpdateOrderDao {
+    /**
+     * Number of orders updated by each statement of a bulk update when the parameters don't say otherwise
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
     private final String query = "UPDATE orders o SET o.order_status = ? WHERE o.order_id = ?";
     private final Database database;
+    private final OrderCache cache;
+    private final LatencyRecorder updateMetric = Metrics.getInstance().dao("UpdateOrderDao.updateOrderStatus");
+    private final LatencyRecorder updateManyMetric = Metrics.getInstance().dao("UpdateOrderDao.updateOrdersStatus");
 
     /**
      * Constructor
@@ -22,16 +38,28 @@ public class UpdateOrderDao {
      * @param database Database object
      */
     public UpdateOrderDao(Database database) {
+        this(database, OrderCache.getInstance());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param database Database object
+     * @param cache    Cache of orders to invalidate when an order changes
+     */
+    public UpdateOrderDao(Database database, OrderCache cache) {
         this.database = database;
+        this.cache = cache;
     }
 
     /**
      * Updates the status of an order
      *
      * @param paramsDto Object with the parameters for the operation
-     * @return Number of affected rows
+     * @return Number of affected rows, -1 in case of an error
      */
     public int updateOrderStatus(ParamsDto paramsDto) {
+        long start = updateMetric.start();
         int numberResults = 0;
 
         try (Connection con = database.getConnection();
@@ -41,11 +69,173 @@ public class UpdateOrderDao {
 
         } catch (SQLException ex) {
             ExceptionHandler.handleException(ex);
+            numberResults = -1;
+        } finally {
+            cache.invalidate(paramsDto.getOrderId());
         }
 
+        updateMetric.stop(start, Math.max(numberResults, 0));
         return numberResults;
     }
 
+    /**
+     * Changes the status of many orders: the ones of a list of IDs, or the ones of a range of IDs
+     * ({@code rangeFrom}/{@code rangeTo}), optionally filtered by customer, current status and date.
+     * <p>
+     * The orders are updated in chunks of IDs, each chunk with one set-based statement ({@code order_id = ANY(?)}) in
+     * its own transaction, so the locks are held briefly and the work committed so far is kept if a chunk fails.
+     * Without a list, the IDs of each chunk are found by a keyset scan of the orders that match the filters.
+     *
+     * @param paramsDto Object with the new status, the orders to update and the filters
+     * @return Number of orders updated by the committed chunks, and whether a chunk failed and stopped the update
+     */
+    public @NotNull UpdateResultDto updateOrdersStatus(@NotNull ParamsDto paramsDto) {
+        long start = updateManyMetric.start();
+        int chunkSize = paramsDto.getChunkSize() > 0 ? paramsDto.getChunkSize() : DEFAULT_CHUNK_SIZE;
+        String filters = buildFilterSql(paramsDto);
+        long numberResults = 0;
+        UpdateResultDto result = new UpdateResultDto();
+
+        try (Connection con = database.getConnection();
+             PreparedStatement update = con.prepareStatement(
+                     "UPDATE orders o SET o.order_status = ? WHERE o.order_id = ANY(?)" + filters)
+        ) {
+            con.setAutoCommit(false);
+
+            List<Long> orderIds = paramsDto.getOrderIds();
+            if (orderIds != null && !orderIds.isEmpty()) {
+                for (int from = 0; from < orderIds.size(); from += chunkSize) {
+                    Long[] chunk = orderIds.subList(from, Math.min(from + chunkSize, orderIds.size())).toArray(new Long[0]);
+                    numberResults += updateChunk(con, update, paramsDto, chunk);
+                }
+            } else {
+                try (PreparedStatement scan = con.prepareStatement("SELECT o.order_id FROM orders o WHERE o.order_id > ?"
+                        + (paramsDto.getRangeTo() != null ? " AND o.order_id <= ?" : "")
+                        + filters + " ORDER BY o.order_id LIMIT ?")
+                ) {
+                    long lastId = paramsDto.getRangeFrom() != null ? paramsDto.getRangeFrom() - 1 : Long.MIN_VALUE;
+                    Long[] chunk;
+
+                    do {
+                        int i = 1;
+                        scan.setLong(i++, lastId);
+                        if (paramsDto.getRangeTo() != null) {
+                            scan.setLong(i++, paramsDto.getRangeTo());
+                        }
+                        i = setFilterParameters(scan, i, paramsDto);
+                        scan.setInt(i, chunkSize);
+
+                        chunk = readIds(scan, chunkSize);
+                        if (chunk.length > 0) {
+                            lastId = chunk[chunk.length - 1];
+                            numberResults += updateChunk(con, update, paramsDto, chunk);
+                        }
+                    } while (chunk.length == chunkSize);
+                }
+            }
+        } catch (SQLException ex) {
+            ExceptionHandler.handleException(ex);
+            result.setFailed(true);
+        }
+
+        updateManyMetric.stop(start, numberResults);
+        result.setUpdated(numberResults);
+        return result;
+    }
+
+    /**
+     * Updates the orders of a chunk in one transaction
+     *
+     * @param con       Connection object, in manual commit mode
+     * @param update    Statement of the update
+     * @param paramsDto Object with the new status and the filters
+     * @param chunk     IDs of the orders to update
+     * @return Number of orders updated
+     * @throws SQLException In case of an error (the chunk is rolled back)
+     */
+    private int updateChunk(@NotNull Connection con, @NotNull PreparedStatement update, @NotNull ParamsDto paramsDto,
+                            Long @NotNull [] chunk) throws SQLException {
+        try {
+            update.setString(1, paramsDto.getStatus());
+            update.setObject(2, chunk);
+            setFilterParameters(update, 3, paramsDto);
+            int numberResults = update.executeUpdate();
+            con.commit();
+            return numberResults;
+        } catch (SQLException ex) {
+            con.rollback();
+            throw ex;
+        } finally {
+            for (Long id : chunk) {
+                cache.invalidate(id);
+            }
+        }
+    }
+
+    /**
+     * Reads the IDs returned by a query
+     *
+     * @param ps       Statement of the query
+     * @param expected Maximum number of IDs
+     * @return IDs, in the order of the query
+     * @throws SQLException In case of an error
+     */
+    private Long @NotNull [] readIds(@NotNull PreparedStatement ps, int expected) throws SQLException {
+        Long[] ids = new Long[expected];
+        int count = 0;
+
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ids[count++] = rs.getLong(1);
+            }
+        }
+
+        return count == expected ? ids : Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Builds the conditions of the filters of a bulk update
+     *
+     * @param paramsDto Object with the filters
+     * @return SQL conditions, each one starting with AND (empty without filters)
+     */
+    private @NotNull String buildFilterSql(@NotNull ParamsDto paramsDto) {
+        StringBuilder sb = new StringBuilder();
+        if (paramsDto.getCustomerId() > 0) {
+            sb.append(" AND o.order_customer_id = ?");
+        }
+        if (paramsDto.getCurrentStatus() != null) {
+            sb.append(" AND o.order_status = ?");
+        }
+        if (paramsDto.getBefore() != null) {
+            sb.append(" AND o.order_date < ?");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Sets the parameters of the conditions built by {@link #buildFilterSql(ParamsDto)}
+     *
+     * @param ps        Statement with the conditions
+     * @param index     Index of the first parameter of the conditions
+     * @param paramsDto Object with the filters
+     * @return Index of the next parameter
+     * @throws SQLException In case of an error
+     */
+    private int setFilterParameters(@NotNull PreparedStatement ps, int index, @NotNull ParamsDto paramsDto)
+            throws SQLException {
+        if (paramsDto.getCustomerId() > 0) {
+            ps.setLong(index++, paramsDto.getCustomerId());
+        }
+        if (paramsDto.getCurrentStatus() != null) {
+            ps.setString(index++, paramsDto.getCurrentStatus());
+        }
+        if (paramsDto.getBefore() != null) {
+            ps.setTimestamp(index++, Timestamp.valueOf(paramsDto.getBefore().atStartOfDay()));
+        }
+        return index;
+    }
+
     /**
      * Creates a PreparedStatement object to update the order
      *
@@ -0,0 +1,91 @@
+package com.example.order.dao;
+
+import com.example.order.util.Database;
+import com.example.order.util.ExceptionHandler;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * DAO to read the IDs the load test picks its customers, products and orders from
+ */
+public class WorkloadDao {
+    private final String customerIdsSql = "SELECT customer_id FROM customers ORDER BY customer_id";
+    private final String productIdsSql = "SELECT product_id FROM products ORDER BY product_id";
+    private final String orderIdRangeSql = "SELECT MIN(order_id), MAX(order_id) FROM orders";
+    private final Database database;
+
+    /**
+     * Constructor
+     *
+     * @param database Database object
+     */
+    public WorkloadDao(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Gets the IDs of every customer
+     *
+     * @return IDs of the customers, or an empty array in case of a database error
+     */
+    public long @NotNull [] getCustomerIds() {
+        return getIds(customerIdsSql);
+    }
+
+    /**
+     * Gets the IDs of every product
+     *
+     * @return IDs of the products, or an empty array in case of a database error
+     */
+    public long @NotNull [] getProductIds() {
+        return getIds(productIdsSql);
+    }
+
+    /**
+     * Gets the lowest and highest order IDs
+     *
+     * @return Array with the lowest and the highest ID, or an empty array if there are no orders or in case of a
+     * database error
+     */
+    public long @NotNull [] getOrderIdRange() {
+        try (Connection con = database.getConnection();
+             PreparedStatement ps = con.prepareStatement(orderIdRangeSql);
+             ResultSet rs = ps.executeQuery()
+        ) {
+            if (rs.next() && rs.getObject(1) != null) {
+                return new long[]{rs.getLong(1), rs.getLong(2)};
+            }
+        } catch (SQLException ex) {
+            ExceptionHandler.handleException(ex);
+        }
+
+        return new long[0];
+    }
+
+    private long @NotNull [] getIds(@NotNull String sql) {
+        long[] ids = new long[16];
+        int size = 0;
+
+        try (Connection con = database.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()
+        ) {
+            while (rs.next()) {
+                if (size == ids.length) {
+                    ids = Arrays.copyOf(ids, size * 2);
+                }
+                ids[size++] = rs.getLong(1);
+            }
+        } catch (SQLException ex) {
+            ExceptionHandler.handleException(ex);
+            return new long[0];
+        }
+
+        return Arrays.copyOf(ids, size);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.order.dto;
+
+import com.example.order.util.Commands;
+
+/**
+ * DTO class with a parsed command line: the command and its parameters, or the reason the line is invalid.
+ * <p>
+ * Its fields can't be changed once built, the parameters are handed to the service of the command as they are.
+ */
+public final class CommandDto {
+
+    private final Commands command;
+
+    private final ParamsDto params;
+
+    private final String error;
+
+    /**
+     * Constructor
+     *
+     * @param command Command of the line, null if it isn't a command
+     * @param params  Parameters of the command, null if the line is invalid
+     * @param error   Error message, null if the line is valid
+     */
+    public CommandDto(Commands command, ParamsDto params, String error) {
+        this.command = command;
+        this.params = params;
+        this.error = error;
+    }
+
+    public Commands getCommand() {
+        return command;
+    }
+
+    public ParamsDto getParams() {
+        return params;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isValid() {
+        return error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "CommandDto{" +
+                "command=" + command +
+                ", params=" + params +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.order.dto;
+
+/**
+ * DTO class with the number of rows loaded from a CSV file (or part of it)
+ */
+public class LoadResultDto {
+
+    private long inserted;
+
+    private long rejected;
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(long inserted) {
+        this.inserted = inserted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * Adds the counts of another result to this one
+     *
+     * @param other Result to add
+     * @return This object
+     */
+    public LoadResultDto add(LoadResultDto other) {
+        inserted += other.inserted;
+        rejected += other.rejected;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadResultDto{" +
+                "inserted=" + inserted +
+                ", rejected=" + rejected +
+                '}';
+    }
+}
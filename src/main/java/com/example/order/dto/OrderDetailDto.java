@@ -1,7 +1,10 @@
 package com.example.order.dto;
 
+import java.math.BigDecimal;
+
 /**
- * DTO class to insert the details of an order
+ * DTO class to insert the details of an order. When the details are read, they also carry the name and the price of
+ * the product
  */
 public class OrderDetailDto {
 
@@ -11,6 +14,10 @@ public class OrderDetailDto {
 
     private int quantity;
 
+    private String productName;
+
+    private BigDecimal productPrice;
+
     public long getOrderId() {
         return orderId;
     }
@@ -35,12 +42,30 @@ public class OrderDetailDto {
         this.quantity = quantity;
     }
 
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public BigDecimal getProductPrice() {
+        return productPrice;
+    }
+
+    public void setProductPrice(BigDecimal productPrice) {
+        this.productPrice = productPrice;
+    }
+
     @Override
     public String toString() {
         return "OrderDetailDTO{" +
                 "orderId=" + orderId +
                 ", productId=" + productId +
                 ", quantity=" + quantity +
+                ", productName='" + productName + '\'' +
+                ", productPrice=" + productPrice +
                 '}';
     }
 }
@@ -0,0 +1,48 @@
+package com.example.order.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO class with a customer whose stored paid total doesn't match its orders
+ */
+public class PaidTotalMismatchDto {
+
+    private long customerId;
+
+    private BigDecimal storedTotal;
+
+    private BigDecimal actualTotal;
+
+    public long getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(long customerId) {
+        this.customerId = customerId;
+    }
+
+    public BigDecimal getStoredTotal() {
+        return storedTotal;
+    }
+
+    public void setStoredTotal(BigDecimal storedTotal) {
+        this.storedTotal = storedTotal;
+    }
+
+    public BigDecimal getActualTotal() {
+        return actualTotal;
+    }
+
+    public void setActualTotal(BigDecimal actualTotal) {
+        this.actualTotal = actualTotal;
+    }
+
+    @Override
+    public String toString() {
+        return "PaidTotalMismatchDto{" +
+                "customerId=" + customerId +
+                ", storedTotal=" + storedTotal +
+                ", actualTotal=" + actualTotal +
+                '}';
+    }
+}
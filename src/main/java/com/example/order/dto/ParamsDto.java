@@ -1,6 +1,14 @@
 package com.example.order.dto;
 
+import com.example.order.util.LoadTable;
+import com.example.order.util.LoadTestOperation;
+import com.example.order.util.OutputFormat;
+
+import java.io.BufferedReader;
+import java.time.LocalDate;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DTO class for service parameters
@@ -17,6 +25,48 @@ public class ParamsDto {
 
     private OrderDto order;
 
+    private String file;
+
+    private int batchSize;
+
+    private String rejectFile;
+
+    private Map<LoadTable, String> loadFiles = new EnumMap<>(LoadTable.class);
+
+    private int threads;
+
+    private String action;
+
+    private Map<LoadTestOperation, Integer> mix = new EnumMap<>(LoadTestOperation.class);
+
+    private int durationSeconds;
+
+    private long operations;
+
+    private int chunkSize;
+
+    private boolean arrayParameter;
+
+    private Long rangeFrom;
+
+    private Long rangeTo;
+
+    private String currentStatus;
+
+    private LocalDate before;
+
+    private LocalDate since;
+
+    private long limit;
+
+    private int fetchSize;
+
+    private long thresholdMillis;
+
+    private OutputFormat outputFormat = OutputFormat.TEXT;
+
+    private BufferedReader input;
+
     public long getOrderId() {
         return orderId;
     }
@@ -57,6 +107,180 @@ public class ParamsDto {
         this.order = order;
     }
 
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public String getRejectFile() {
+        return rejectFile;
+    }
+
+    public void setRejectFile(String rejectFile) {
+        this.rejectFile = rejectFile;
+    }
+
+    public Map<LoadTable, String> getLoadFiles() {
+        return loadFiles;
+    }
+
+    public void setLoadFiles(Map<LoadTable, String> loadFiles) {
+        this.loadFiles = loadFiles;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public Map<LoadTestOperation, Integer> getMix() {
+        return mix;
+    }
+
+    public void setMix(Map<LoadTestOperation, Integer> mix) {
+        this.mix = mix;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public long getOperations() {
+        return operations;
+    }
+
+    public void setOperations(long operations) {
+        this.operations = operations;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public boolean isArrayParameter() {
+        return arrayParameter;
+    }
+
+    public void setArrayParameter(boolean arrayParameter) {
+        this.arrayParameter = arrayParameter;
+    }
+
+    public Long getRangeFrom() {
+        return rangeFrom;
+    }
+
+    public void setRangeFrom(Long rangeFrom) {
+        this.rangeFrom = rangeFrom;
+    }
+
+    public Long getRangeTo() {
+        return rangeTo;
+    }
+
+    public void setRangeTo(Long rangeTo) {
+        this.rangeTo = rangeTo;
+    }
+
+    public String getCurrentStatus() {
+        return currentStatus;
+    }
+
+    public void setCurrentStatus(String currentStatus) {
+        this.currentStatus = currentStatus;
+    }
+
+    public LocalDate getBefore() {
+        return before;
+    }
+
+    public void setBefore(LocalDate before) {
+        this.before = before;
+    }
+
+    public LocalDate getSince() {
+        return since;
+    }
+
+    public void setSince(LocalDate since) {
+        this.since = since;
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public void setLimit(long limit) {
+        this.limit = limit;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
+    public long getThresholdMillis() {
+        return thresholdMillis;
+    }
+
+    public void setThresholdMillis(long thresholdMillis) {
+        this.thresholdMillis = thresholdMillis;
+    }
+
+    public OutputFormat getOutputFormat() {
+        return outputFormat;
+    }
+
+    public void setOutputFormat(OutputFormat outputFormat) {
+        this.outputFormat = outputFormat;
+    }
+
+    /**
+     * Gets the reader of the standard input when the caller already reads its commands from it, so that a command
+     * reading data from the standard input (file -) gets the lines that follow it instead of opening a second reader
+     *
+     * @return Reader of the standard input, or null if the standard input isn't being read
+     */
+    public BufferedReader getInput() {
+        return input;
+    }
+
+    public void setInput(BufferedReader input) {
+        this.input = input;
+    }
+
     @Override
     public String toString() {
         return "ParamsDTO{" +
@@ -65,6 +289,26 @@ public class ParamsDto {
                 ", customerId=" + customerId +
                 ", orderIds=" + orderIds +
                 ", order=" + order +
+                ", file='" + file + '\'' +
+                ", batchSize=" + batchSize +
+                ", rejectFile='" + rejectFile + '\'' +
+                ", loadFiles=" + loadFiles +
+                ", threads=" + threads +
+                ", action='" + action + '\'' +
+                ", mix=" + mix +
+                ", durationSeconds=" + durationSeconds +
+                ", operations=" + operations +
+                ", chunkSize=" + chunkSize +
+                ", arrayParameter=" + arrayParameter +
+                ", rangeFrom=" + rangeFrom +
+                ", rangeTo=" + rangeTo +
+                ", currentStatus='" + currentStatus + '\'' +
+                ", before=" + before +
+                ", since=" + since +
+                ", limit=" + limit +
+                ", fetchSize=" + fetchSize +
+                ", thresholdMillis=" + thresholdMillis +
+                ", outputFormat=" + outputFormat +
                 '}';
     }
 }
@@ -0,0 +1,92 @@
+package com.example.order.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO class with a statement that took longer than the threshold of the slow query log
+ */
+public class SlowQueryDto {
+
+    private LocalDateTime time;
+
+    private long elapsedNanos;
+
+    private String sql;
+
+    private String parameters;
+
+    private String caller;
+
+    private long rows;
+
+    private String error;
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public void setTime(LocalDateTime time) {
+        this.time = time;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+
+    public String getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(String parameters) {
+        this.parameters = parameters;
+    }
+
+    public String getCaller() {
+        return caller;
+    }
+
+    public void setCaller(String caller) {
+        this.caller = caller;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "SlowQueryDto{" +
+                "time=" + time +
+                ", elapsedNanos=" + elapsedNanos +
+                ", sql='" + sql + '\'' +
+                ", parameters='" + parameters + '\'' +
+                ", caller='" + caller + '\'' +
+                ", rows=" + rows +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
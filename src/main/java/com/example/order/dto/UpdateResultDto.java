@@ -0,0 +1,36 @@
+package com.example.order.dto;
+
+/**
+ * DTO class with the result of a bulk update: the number of orders updated by the chunks that were committed, and
+ * whether a chunk failed and stopped the update
+ */
+public class UpdateResultDto {
+
+    private long updated;
+
+    private boolean failed;
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public void setFailed(boolean failed) {
+        this.failed = failed;
+    }
+
+    @Override
+    public String toString() {
+        return "UpdateResultDto{" +
+                "updated=" + updated +
+                ", failed=" + failed +
+                '}';
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.order.service;
+
+import com.example.order.dao.DeleteOrderDao;
+import com.example.order.dao.GetOrderDao;
+import com.example.order.dao.InsertOrderDao;
+import com.example.order.dao.TotalOrderDao;
+import com.example.order.dao.UpdateOrderDao;
+import com.example.order.dto.OrderDto;
+import com.example.order.dto.ParamsDto;
+import com.example.order.util.Database;
+import com.example.order.util.OrderCache;
+import com.example.order.util.OrderStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous API of the orders, for applications that embed the library: every operation returns at once with a
+ * {@link CompletableFuture} of its typed result, and runs on a bounded pool of threads.
+ * <p>
+ * The pool has a fixed number of threads and a bounded queue. When the queue is full the {@link RejectionPolicy}
+ * decides: {@code ABORT} fails the future with a {@link RejectedExecutionException} so the caller can shed load, and
+ * {@code CALLER_RUNS} runs the operation in the calling thread, which slows the caller down to the pace of the
+ * database. The results follow the DAOs: an order that doesn't exist is {@code null}, a write that fails affects 0
+ * rows (or returns the ID -1).
+ * <p>
+ * The default instance can be tuned with system properties: {@code orders.async.threads} (default the size of the
+ * connection pool), {@code orders.async.queueSize} (default 1000) and {@code orders.async.rejectionPolicy}
+ * ({@code abort} or {@code caller_runs}, default abort).
+ */
+public class AsyncOrderService implements AutoCloseable {
+    /**
+     * What happens to an operation submitted when the queue is full
+     */
+    public enum RejectionPolicy {
+        ABORT,
+        CALLER_RUNS
+    }
+
+    private final GetOrderDao getOrderDao;
+    private final InsertOrderDao insertOrderDao;
+    private final UpdateOrderDao updateOrderDao;
+    private final DeleteOrderDao deleteOrderDao;
+    private final TotalOrderDao totalOrderDao;
+    private final ThreadPoolExecutor executor;
+    private final RejectionPolicy rejectionPolicy;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructor with the settings of the system properties
+     */
+    public AsyncOrderService() {
+        this(Database.getInstance(), OrderCache.getInstance(),
+                Integer.getInteger("orders.async.threads", Database.getInstance().getPoolStats().getMaxSize()),
+                Integer.getInteger("orders.async.queueSize", 1000),
+                RejectionPolicy.valueOf(System.getProperty("orders.async.rejectionPolicy", "abort").toUpperCase(Locale.ROOT)));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param database        Database object
+     * @param cache           Cache of orders
+     * @param threads         Number of threads running the operations
+     * @param queueSize       Maximum number of operations waiting for a thread
+     * @param rejectionPolicy What happens to an operation submitted when the queue is full
+     */
+    public AsyncOrderService(Database database, OrderCache cache, int threads, int queueSize,
+                             @NotNull RejectionPolicy rejectionPolicy) {
+        this.getOrderDao = new GetOrderDao(database, cache);
+        this.insertOrderDao = new InsertOrderDao(database, cache);
+        this.updateOrderDao = new UpdateOrderDao(database, cache);
+        this.deleteOrderDao = new DeleteOrderDao(database, cache);
+        this.totalOrderDao = new TotalOrderDao(database);
+        this.rejectionPolicy = rejectionPolicy;
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "order-async-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Gets an order by its ID
+     *
+     * @param orderId ID of the order
+     * @return Future of the order, null if it doesn't exist
+     */
+    public @NotNull CompletableFuture<OrderDto> getOrder(long orderId) {
+        return supply(() -> {
+            ParamsDto paramsDto = new ParamsDto();
+            paramsDto.setOrderId(orderId);
+            return getOrderDao.getOrderById(paramsDto);
+        });
+    }
+
+    /**
+     * Inserts an order with its detail lines
+     *
+     * @param orderDto Order to insert
+     * @return Future of the ID of the new order, -1 if it wasn't inserted
+     */
+    public @NotNull CompletableFuture<Long> insertOrder(@NotNull OrderDto orderDto) {
+        return supply(() -> insertOrderDao.insertOrder(orderDto));
+    }
+
+    /**
+     * Changes the status of an order
+     *
+     * @param orderId ID of the order
+     * @param status  New status
+     * @return Future of the number of orders updated (0 if the order doesn't exist, -1 in case of an error)
+     */
+    public @NotNull CompletableFuture<Integer> updateOrderStatus(long orderId, @NotNull OrderStatus status) {
+        return supply(() -> {
+            ParamsDto paramsDto = new ParamsDto();
+            paramsDto.setOrderId(orderId);
+            paramsDto.setStatus(status.getStatus());
+            return updateOrderDao.updateOrderStatus(paramsDto);
+        });
+    }
+
+    /**
+     * Deletes orders
+     *
+     * @param orderIds IDs of the orders
+     * @return Future of the number of orders deleted, -1 in case of an error
+     */
+    public @NotNull CompletableFuture<Integer> deleteOrders(@NotNull List<Long> orderIds) {
+        List<Long> ids = new ArrayList<>(orderIds);
+        return supply(() -> {
+            ParamsDto paramsDto = new ParamsDto();
+            paramsDto.setOrderIds(ids);
+            return deleteOrderDao.deleteOrdersById(paramsDto);
+        });
+    }
+
+    /**
+     * Gets the total of the paid orders of a customer
+     *
+     * @param customerId ID of the customer
+     * @return Future of the total, null if the customer has no paid orders
+     */
+    public @NotNull CompletableFuture<BigDecimal> getPaidTotal(long customerId) {
+        return supply(() -> {
+            ParamsDto paramsDto = new ParamsDto();
+            paramsDto.setCustomerId(customerId);
+            return totalOrderDao.getTotalAllPaidOrders(paramsDto);
+        });
+    }
+
+    /**
+     * Number of operations waiting for a thread
+     *
+     * @return Size of the queue
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Number of operations refused because the queue was full (with the {@code ABORT} policy)
+     *
+     * @return Operations rejected since the service was created
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Stops accepting operations and waits for the submitted ones to finish
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs an operation on the pool, applying the rejection policy when the queue is full
+     *
+     * @param operation Operation to run
+     * @param <T>       Type of the result
+     * @return Future of the result
+     */
+    private <T> @NotNull CompletableFuture<T> supply(@NotNull Supplier<T> operation) {
+        try {
+            return CompletableFuture.supplyAsync(operation, executor);
+        } catch (RejectedExecutionException ex) {
+            if (rejectionPolicy == RejectionPolicy.CALLER_RUNS && !executor.isShutdown()) {
+                try {
+                    return CompletableFuture.completedFuture(operation.get());
+                } catch (RuntimeException e) {
+                    CompletableFuture<T> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(e);
+                    return failed;
+                }
+            }
+
+            rejected.increment();
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(ex);
+            return failed;
+        }
+    }
+}
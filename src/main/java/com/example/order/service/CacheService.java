@@ -0,0 +1,43 @@
+package com.example.order.service;
+
+import com.example.order.dto.ParamsDto;
+import com.example.order.util.CacheStats;
+import com.example.order.util.OrderCache;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Service class to display the statistics of the order cache, or to empty it
+ */
+public class CacheService implements OrderService {
+    /**
+     * Action that empties the cache
+     */
+    public static final String CLEAR = "clear";
+
+    private final OrderCache cache = OrderCache.getInstance();
+
+    /**
+     * Method to execute the service operation
+     *
+     * @param paramsDTO Object with the parameters to execute the service
+     */
+    @Override
+    public String execute(@NotNull ParamsDto paramsDTO) {
+        if (CLEAR.equals(paramsDTO.getAction())) {
+            cache.invalidateAll();
+            return "The order cache was cleared";
+        }
+
+        CacheStats stats = cache.getStats();
+        return String.format("Entries: %d of %d (%d not found)%n" +
+                        "Hit rate: %.1f%% (%d hits, %d not found hits, %d misses)%n" +
+                        "Evictions: %d%n" +
+                        "Invalidations: %d%n" +
+                        "Estimated memory: %.1f KB",
+                stats.getSize(), stats.getMaxSize(), stats.getNegativeSize(),
+                stats.getHitRate() * 100, stats.getHits(), stats.getNegativeHits(), stats.getMisses(),
+                stats.getEvictions(),
+                stats.getInvalidations(),
+                stats.getEstimatedBytes() / 1024.0);
+    }
+}
@@ -3,11 +3,38 @@ package com.example.order.service;
 import com.example.order.dao.DeleteOrderDao;
 import com.example.order.dto.ParamsDto;
 import com.example.order.util.Database;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
 
 /**
- * Service class to delete one or more orders
+ * Service class to delete one or more orders.
+ * <p>
+ * A few IDs given on the command line are deleted with one statement, bound as a single array parameter
+ * ({@code order_id = ANY(?)}) so its SQL text is the same whatever the number of IDs. Long lists, and the IDs of a file
+ * or of the standard input (separated by spaces, commas or new lines), are read into a buffer of primitive longs and
+ * deleted in fixed-size chunks, one transaction per batch of IDs, reporting the progress as they go.
  */
 public class DeleteOrderService implements OrderService {
+    /**
+     * Number of IDs deleted by each statement when the command doesn't say otherwise
+     */
+    static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /**
+     * Number of IDs committed together when the command doesn't say otherwise
+     */
+    static final int DEFAULT_BATCH_SIZE = 10_000;
+
+    private static final String STDIN = "-";
+    private static final long PROGRESS_INTERVAL_NANOS = 1_000_000_000L;
+
     private final DeleteOrderDao deleteOrderDao = new DeleteOrderDao(Database.getInstance());
 
     /**
@@ -16,9 +43,57 @@ public class DeleteOrderService implements OrderService {
      * @param paramsDTO Object with the parameters to execute the service
      */
     @Override
-    public String execute(ParamsDto paramsDTO) {
+    public String execute(@NotNull ParamsDto paramsDTO) {
+        if (paramsDTO.getFile() == null && paramsDTO.getChunkSize() <= 0 && paramsDTO.getBatchSize() <= 0
+                && !paramsDTO.isArrayParameter() && paramsDTO.getOrderIds().size() <= DEFAULT_CHUNK_SIZE) {
+            return deleteOrders(paramsDTO);
+        }
+
+        int chunkSize = paramsDTO.getChunkSize() > 0 ? paramsDTO.getChunkSize() : DEFAULT_CHUNK_SIZE;
+        int batchSize = paramsDTO.getBatchSize() > 0 ? paramsDTO.getBatchSize() : DEFAULT_BATCH_SIZE;
+        BulkDelete bulkDelete = new BulkDelete(chunkSize, Math.max(batchSize, chunkSize), paramsDTO.isArrayParameter());
+
+        if (paramsDTO.getFile() == null) {
+            for (Long orderId : paramsDTO.getOrderIds()) {
+                bulkDelete.add(orderId);
+            }
+        } else if (STDIN.equals(paramsDTO.getFile())) {
+            // Don't close the standard input, the interactive mode still reads from it
+            String error = bulkDelete.read(paramsDTO.getInput() != null
+                    ? paramsDTO.getInput()
+                    : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+            if (error != null) {
+                return error;
+            }
+        } else {
+            try (BufferedReader reader = Files.newBufferedReader(Paths.get(paramsDTO.getFile()), StandardCharsets.UTF_8)) {
+                String error = bulkDelete.read(reader);
+                if (error != null) {
+                    return error;
+                }
+            } catch (IOException ex) {
+                return "The orders couldn't be deleted: " + ex;
+            }
+        }
+        bulkDelete.flush();
+
+        return bulkDelete.summary();
+    }
+
+    /**
+     * Deletes the orders given on the command line with one statement, the IDs bound as one array
+     *
+     * @param paramsDTO Object with the IDs of the orders
+     * @return Result of the operation
+     */
+    private @NotNull String deleteOrders(@NotNull ParamsDto paramsDTO) {
         String result;
-        int rowsAffected = deleteOrderDao.deleteOrdersById(paramsDTO);
+        List<Long> orderIds = paramsDTO.getOrderIds();
+        long[] ids = new long[orderIds.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = orderIds.get(i);
+        }
+        int rowsAffected = deleteOrderDao.deleteOrdersInChunks(ids, ids.length, Math.max(ids.length, 1), true);
 
         if (rowsAffected <= 0) {
             result = "No rows affected";
@@ -28,4 +103,115 @@ public class DeleteOrderService implements OrderService {
 
         return result;
     }
+
+    /**
+     * State of one bulk delete: the IDs of the current batch and the counters
+     */
+    private final class BulkDelete {
+        private final int chunkSize;
+        private final boolean arrayParameter;
+        private final long[] batch;
+        private final long start = System.nanoTime();
+
+        private int size;
+        private long lastProgress = start;
+        private long read;
+        private long deleted;
+        private boolean failed;
+
+        private BulkDelete(int chunkSize, int batchSize, boolean arrayParameter) {
+            this.chunkSize = chunkSize;
+            this.arrayParameter = arrayParameter;
+            this.batch = new long[batchSize];
+        }
+
+        /**
+         * Reads the IDs of a stream, deleting them batch by batch
+         *
+         * @param reader Stream with the IDs
+         * @return Null if the stream was read, error message otherwise
+         */
+        private String read(@NotNull BufferedReader reader) {
+            String line;
+            long lineNumber = 0;
+
+            try {
+                while (!failed && (line = reader.readLine()) != null) {
+                    lineNumber++;
+                    int length = line.length();
+                    int i = 0;
+
+                    while (i < length) {
+                        char c = line.charAt(i);
+                        if (c == ',' || Character.isWhitespace(c)) {
+                            i++;
+                            continue;
+                        }
+
+                        int end = i;
+                        while (end < length && line.charAt(end) != ',' && !Character.isWhitespace(line.charAt(end))) {
+                            end++;
+                        }
+                        try {
+                            add(Long.parseLong(line, i, end, 10));
+                        } catch (NumberFormatException ex) {
+                            return "Invalid order ID '" + line.substring(i, end) + "' on line " + lineNumber
+                                    + " (" + deleted + " orders deleted before)";
+                        }
+                        i = end;
+                    }
+                }
+            } catch (IOException ex) {
+                return "The orders couldn't be deleted: " + ex + " (" + deleted + " orders deleted before)";
+            }
+
+            return null;
+        }
+
+        private void add(long orderId) {
+            if (failed) {
+                return;
+            }
+            batch[size++] = orderId;
+            read++;
+            if (size == batch.length) {
+                flush();
+            }
+        }
+
+        /**
+         * Deletes the current batch in one transaction
+         */
+        private void flush() {
+            if (size == 0 || failed) {
+                return;
+            }
+
+            int result = deleteOrderDao.deleteOrdersInChunks(batch, size, chunkSize, arrayParameter);
+            if (result < 0) {
+                failed = true;
+            } else {
+                deleted += result;
+            }
+            size = 0;
+
+            long now = System.nanoTime();
+            if (now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                lastProgress = now;
+                System.err.printf("Deleted %d orders, %d IDs read (%.0f IDs/s)%n", deleted, read, idsPerSecond(now));
+            }
+        }
+
+        private double idsPerSecond(long now) {
+            double seconds = (now - start) / 1_000_000_000.0;
+            return seconds > 0 ? read / seconds : 0;
+        }
+
+        private @NotNull String summary() {
+            long now = System.nanoTime();
+            String summary = String.format("Deleted %d orders of %d IDs in %.3f s (%.0f IDs/s)",
+                    deleted, read, (now - start) / 1_000_000_000.0, idsPerSecond(now));
+            return failed ? summary + ", stopped because a batch failed and was rolled back" : summary;
+        }
+    }
 }
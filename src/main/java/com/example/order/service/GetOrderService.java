@@ -1,18 +1,30 @@
 package com.example.order.service;
 
 import com.example.order.dao.GetOrderDao;
+import com.example.order.dto.OrderDetailDto;
 import com.example.order.dto.OrderDto;
 import com.example.order.dto.ParamsDto;
 import com.example.order.util.Database;
+import com.example.order.util.OrderCache;
+import com.example.order.util.OutputFormat;
+import com.example.order.util.RecordWriter;
+import org.jetbrains.annotations.NotNull;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
- * Service class to get the main information of an order
+ * Service class to get the main information of one or more orders, with their detail lines
  */
 public class GetOrderService implements OrderService {
     private final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.S");
-    private final GetOrderDao getOrderDao = new GetOrderDao(Database.getInstance());
+    private final GetOrderDao getOrderDao = new GetOrderDao(Database.getInstance(), OrderCache.getInstance());
 
     /**
      * Method to execute the service operation
@@ -21,23 +33,107 @@ public class GetOrderService implements OrderService {
      */
     @Override
     public String execute(ParamsDto paramsDTO) {
-        OrderDto orderDto = getOrderDao.getOrderById(paramsDTO);
-        String result;
-
-        if (orderDto != null) {
-            result = String.format("Order ID: %d%n" +
-                            "CustomerID: %d%n" +
-                            "Status: %s%n" +
-                            "Date: %s",
-                    orderDto.getOrderId(),
-                    orderDto.getCustomerId(),
-                    orderDto.getStatus(),
-                    sdf.format(orderDto.getDate())
-            );
+        if (paramsDTO.getOutputFormat() != OutputFormat.TEXT) {
+            StringWriter sw = new StringWriter();
+            try (PrintWriter out = new PrintWriter(sw)) {
+                writeRecords(paramsDTO, out);
+            }
+            return sw.toString();
+        }
+
+        List<Long> orderIds = getOrderIds(paramsDTO);
+        List<OrderDto> orders = getOrderDao.getOrdersWithDetails(orderIds);
+        if (orders == null) {
+            return "The orders couldn't be read";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        Set<Long> found = new HashSet<>();
+        for (OrderDto orderDto : orders) {
+            if (sb.length() > 0) {
+                sb.append(System.lineSeparator()).append(System.lineSeparator());
+            }
+            appendOrder(sb, orderDto);
+            found.add(orderDto.getOrderId());
+        }
+        for (Long orderId : orderIds) {
+            if (found.add(orderId)) {
+                if (sb.length() > 0) {
+                    sb.append(System.lineSeparator()).append(System.lineSeparator());
+                }
+                sb.append("Order with ID ").append(orderId).append(" was not found");
+            }
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Method to execute the service operation, writing the orders as records when a machine-readable format is
+     * asked for
+     *
+     * @param paramsDTO Object with the parameters to execute the service
+     * @param out       Destination of the result
+     */
+    @Override
+    public void execute(ParamsDto paramsDTO, @NotNull PrintWriter out) {
+        if (paramsDTO.getOutputFormat() == OutputFormat.TEXT) {
+            out.println(execute(paramsDTO));
         } else {
-            result = "Order with ID " + paramsDTO.getOrderId() + " was not found";
+            writeRecords(paramsDTO, out);
+            out.flush();
+        }
+    }
+
+    /**
+     * Writes one record per order found, the orders that don't exist are left out
+     *
+     * @param paramsDTO Object with the order IDs and the format
+     * @param out       Destination of the records
+     */
+    private void writeRecords(@NotNull ParamsDto paramsDTO, @NotNull PrintWriter out) {
+        List<OrderDto> orders = getOrderDao.getOrdersWithDetails(getOrderIds(paramsDTO));
+        if (orders == null) {
+            return;
+        }
+
+        RecordWriter writer = RecordWriter.of(paramsDTO.getOutputFormat(), out);
+        for (OrderDto orderDto : orders) {
+            writer.orderWithDetails(orderDto);
         }
+    }
 
-        return result;
+    private static @NotNull List<Long> getOrderIds(@NotNull ParamsDto paramsDTO) {
+        return paramsDTO.getOrderIds() != null
+                ? paramsDTO.getOrderIds()
+                : Collections.singletonList(paramsDTO.getOrderId());
+    }
+
+    /**
+     * Writes an order and its detail lines
+     *
+     * @param sb       Destination of the text
+     * @param orderDto Order to write
+     */
+    private void appendOrder(@NotNull StringBuilder sb, @NotNull OrderDto orderDto) {
+        sb.append(String.format("Order ID: %d%n" +
+                        "CustomerID: %d%n" +
+                        "Status: %s%n" +
+                        "Date: %s",
+                orderDto.getOrderId(),
+                orderDto.getCustomerId(),
+                orderDto.getStatus(),
+                sdf.format(orderDto.getDate())
+        ));
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderDetailDto detail : orderDto.getOrderDetail()) {
+            BigDecimal amount = detail.getProductPrice().multiply(BigDecimal.valueOf(detail.getQuantity()));
+            total = total.add(amount);
+            sb.append(String.format("%n  %d x %s (product %d, %s each): %s",
+                    detail.getQuantity(), detail.getProductName(), detail.getProductId(),
+                    detail.getProductPrice().toPlainString(), amount.toPlainString()));
+        }
+        sb.append(String.format("%nTotal: %s", total.toPlainString()));
     }
 }
@@ -0,0 +1,191 @@
+package com.example.order.service;
+
+import com.example.order.dao.InsertOrderDao;
+import com.example.order.dto.OrderDto;
+import com.example.order.dto.ParamsDto;
+import com.example.order.util.Database;
+import com.example.order.util.OrderJsonParser;
+import com.example.order.util.ValidationUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service class to insert the orders of a JSON-lines stream (one order per line).
+ * <p>
+ * Lines are parsed one at a time and only the current batch is kept in memory. Each batch is inserted in one
+ * transaction; if the batch fails, its orders are inserted one by one so that only the bad ones are rejected.
+ */
+public class IngestOrderService implements OrderService {
+    /**
+     * Number of orders committed together when the command doesn't say otherwise
+     */
+    static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final String STDIN = "-";
+    private static final long PROGRESS_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final InsertOrderDao insertOrderDao = new InsertOrderDao(Database.getInstance());
+
+    /**
+     * Method to execute the service operation
+     *
+     * @param paramsDTO Object with the parameters to execute the service
+     */
+    @Override
+    public String execute(@NotNull ParamsDto paramsDTO) {
+        String file = paramsDTO.getFile() == null ? STDIN : paramsDTO.getFile();
+        int batchSize = paramsDTO.getBatchSize() > 0 ? paramsDTO.getBatchSize() : DEFAULT_BATCH_SIZE;
+
+        try (PrintWriter rejects = paramsDTO.getRejectFile() == null
+                ? null : new PrintWriter(Files.newBufferedWriter(Paths.get(paramsDTO.getRejectFile()), StandardCharsets.UTF_8))
+        ) {
+            Ingestion ingestion = new Ingestion(batchSize, rejects);
+
+            if (STDIN.equals(file)) {
+                // Don't close the standard input, the interactive mode still reads from it
+                ingestion.run(paramsDTO.getInput() != null
+                        ? paramsDTO.getInput()
+                        : new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+            } else {
+                try (BufferedReader reader = Files.newBufferedReader(Paths.get(file), StandardCharsets.UTF_8)) {
+                    ingestion.run(reader);
+                }
+            }
+
+            return ingestion.summary();
+        } catch (IOException ex) {
+            return "The orders couldn't be ingested: " + ex;
+        }
+    }
+
+    /**
+     * State of one run of the ingest command
+     */
+    private final class Ingestion {
+        private final int batchSize;
+        private final PrintWriter rejects;
+        private final List<Record> batch;
+        private final long start = System.nanoTime();
+
+        private long lastProgress = start;
+        private long orders;
+        private long lines;
+        private long rejected;
+
+        private Ingestion(int batchSize, PrintWriter rejects) {
+            this.batchSize = batchSize;
+            this.rejects = rejects;
+            this.batch = new ArrayList<>(batchSize);
+        }
+
+        private void run(@NotNull BufferedReader reader) throws IOException {
+            String line;
+            long lineNumber = 0;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    OrderDto orderDto = OrderJsonParser.parseOrder(line);
+                    String error = ValidationUtils.validateOrder(orderDto);
+                    if (error != null) {
+                        throw new IllegalArgumentException(error);
+                    }
+                    batch.add(new Record(lineNumber, line, orderDto));
+                } catch (IllegalArgumentException ex) {
+                    reject(lineNumber, line, ex.getMessage());
+                }
+
+                if (batch.size() >= batchSize) {
+                    flush();
+                }
+            }
+            flush();
+        }
+
+        /**
+         * Inserts the current batch, falling back to one order per transaction if the batch fails
+         */
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<OrderDto> orderDtos = new ArrayList<>(batch.size());
+            for (Record record : batch) {
+                orderDtos.add(record.orderDto);
+            }
+
+            if (insertOrderDao.insertOrders(orderDtos).length == batch.size()) {
+                for (Record record : batch) {
+                    inserted(record.orderDto);
+                }
+            } else {
+                for (Record record : batch) {
+                    if (insertOrderDao.insertOrder(record.orderDto) > 0) {
+                        inserted(record.orderDto);
+                    } else {
+                        reject(record.lineNumber, record.line, "The database rejected the order");
+                    }
+                }
+            }
+            batch.clear();
+
+            long now = System.nanoTime();
+            if (now - lastProgress >= PROGRESS_INTERVAL_NANOS) {
+                lastProgress = now;
+                System.err.printf("Ingested %d orders, %d rejected (%.0f rows/s)%n", orders, rejected, rowsPerSecond(now));
+            }
+        }
+
+        private void inserted(@NotNull OrderDto orderDto) {
+            orders++;
+            lines += orderDto.getOrderDetail().size();
+        }
+
+        private void reject(long lineNumber, String line, String reason) {
+            rejected++;
+            if (rejects != null) {
+                rejects.println(lineNumber + "\t" + reason + "\t" + line);
+            }
+        }
+
+        private double rowsPerSecond(long now) {
+            double seconds = (now - start) / 1_000_000_000.0;
+            return seconds > 0 ? (orders + lines) / seconds : 0;
+        }
+
+        private @NotNull String summary() {
+            long now = System.nanoTime();
+            return String.format("Ingested %d orders (%d detail lines) in %.3f s (%.0f rows/s), %d rejected",
+                    orders, lines, (now - start) / 1_000_000_000.0, rowsPerSecond(now), rejected);
+        }
+    }
+
+    /**
+     * Parsed line waiting to be inserted
+     */
+    private static final class Record {
+        private final long lineNumber;
+        private final String line;
+        private final OrderDto orderDto;
+
+        private Record(long lineNumber, String line, OrderDto orderDto) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+            this.orderDto = orderDto;
+        }
+    }
+}
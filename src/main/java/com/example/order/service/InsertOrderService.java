@@ -14,7 +14,7 @@ public class InsertOrderService implements OrderService {
     /**
      * Method to execute the service operation
      *
-     * @param paramsDTO Object with the parameters to execute the service
+     * @param paramsDTO Object with the parameters to execute the service; the order gets the ID it was given
      */
     @Override
     public String execute(@NotNull ParamsDto paramsDTO) {
@@ -22,6 +22,7 @@ public class InsertOrderService implements OrderService {
         long orderId = insertOrderDao.insertOrder(paramsDTO.getOrder());
 
         if (orderId > 0) {
+            paramsDTO.getOrder().setOrderId(orderId);
             result = "A new order with the ID " + orderId + " was inserted";
         } else {
             result = "No order was inserted";
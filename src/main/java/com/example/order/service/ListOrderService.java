@@ -0,0 +1,137 @@
+package com.example.order.service;
+
+import com.example.order.dao.ListOrderDao;
+import com.example.order.dto.OrderDto;
+import com.example.order.dto.ParamsDto;
+import com.example.order.util.Database;
+import com.example.order.util.OutputFormat;
+import com.example.order.util.RecordWriter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.text.SimpleDateFormat;
+import java.util.function.Consumer;
+
+/**
+ * Service class to list the orders that match some filters, one line per order.
+ * <p>
+ * {@link #execute(ParamsDto, PrintWriter)} writes every order as soon as it's read from the database, so the memory
+ * used doesn't depend on the number of orders. {@link #execute(ParamsDto)} has to build the whole listing, it's meant
+ * for the server mode where the size of a response is sent first, and where the server caps the number of orders.
+ */
+public class ListOrderService implements OrderService {
+    private static final String HEADER = "Order ID\tCustomer ID\tStatus\tDate";
+
+    /**
+     * The output is flushed every time this number of orders is written, so that a long listing shows up as it goes
+     */
+    private static final int FLUSH_INTERVAL = 1000;
+
+    private final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.S");
+    private final ListOrderDao listOrderDao = new ListOrderDao(Database.getInstance());
+
+    /**
+     * Method to execute the service operation
+     *
+     * @param paramsDTO Object with the parameters to execute the service
+     */
+    @Override
+    public String execute(ParamsDto paramsDTO) {
+        StringWriter sw = new StringWriter();
+        try (PrintWriter out = new PrintWriter(sw)) {
+            list(paramsDTO, out);
+        }
+        return sw.toString();
+    }
+
+    /**
+     * Method to execute the service operation, writing the orders as they're read
+     *
+     * @param paramsDTO Object with the parameters to execute the service
+     * @param out       Destination of the listing
+     */
+    @Override
+    public void execute(ParamsDto paramsDTO, @NotNull PrintWriter out) {
+        list(paramsDTO, out);
+        if (paramsDTO.getOutputFormat() == OutputFormat.TEXT) {
+            out.println();
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the header, the orders and the number of orders listed (without a line separator at the end), or only
+     * the records of the orders in a machine-readable format
+     *
+     * @param paramsDTO Object with the filters
+     * @param out       Destination of the listing
+     */
+    private void list(@NotNull ParamsDto paramsDTO, @NotNull PrintWriter out) {
+        if (paramsDTO.getOutputFormat() != OutputFormat.TEXT) {
+            // Only the records, the errors are already reported on the standard error
+            listOrderDao.listOrders(paramsDTO, new RecordConsumer(RecordWriter.of(paramsDTO.getOutputFormat(), out)));
+            return;
+        }
+
+        out.println(HEADER);
+
+        long count = listOrderDao.listOrders(paramsDTO, new RowWriter(out));
+
+        if (count < 0) {
+            out.print("The orders couldn't be listed");
+        } else if (count == 0) {
+            out.print("No orders found");
+        } else {
+            out.print("Orders listed: " + count);
+        }
+    }
+
+    /**
+     * Writes one line per order
+     */
+    private final class RowWriter implements Consumer<OrderDto> {
+        private final PrintWriter out;
+        private long rows;
+
+        private RowWriter(PrintWriter out) {
+            this.out = out;
+        }
+
+        @Override
+        public void accept(@NotNull OrderDto orderDto) {
+            out.print(orderDto.getOrderId());
+            out.print('\t');
+            out.print(orderDto.getCustomerId());
+            out.print('\t');
+            out.print(orderDto.getStatus());
+            out.print('\t');
+            out.println(sdf.format(orderDto.getDate()));
+
+            if (++rows % FLUSH_INTERVAL == 0) {
+                out.flush();
+            }
+        }
+    }
+
+    /**
+     * Writes one record per order
+     */
+    private static final class RecordConsumer implements Consumer<OrderDto> {
+        private final RecordWriter writer;
+        private long rows;
+
+        private RecordConsumer(RecordWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void accept(@NotNull OrderDto orderDto) {
+            writer.order(orderDto);
+
+            if (++rows % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+    }
+}
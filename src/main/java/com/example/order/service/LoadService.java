@@ -0,0 +1,150 @@
+package com.example.order.service;
+
+import com.example.order.dao.BulkLoadDao;
+import com.example.order.dto.LoadResultDto;
+import com.example.order.dto.ParamsDto;
+import com.example.order.util.Database;
+import com.example.order.util.LoadTable;
+import com.example.order.util.MappedCsvFile;
+import com.example.order.util.OrderCache;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service class to load CSV files into the tables of the database.
+ * <p>
+ * The tables are loaded one after the other, in the order of {@link LoadTable} so that foreign keys are satisfied.
+ * Each file is memory-mapped and split into chunks at line boundaries; the chunks are parsed and inserted in parallel
+ * on a fork-join pool, every worker using its own pooled connection and committing in batches.
+ */
+public class LoadService implements OrderService {
+    /**
+     * Number of rows committed together when the command doesn't say otherwise
+     */
+    static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * Chunks per worker thread, so that a slow chunk doesn't leave the other threads idle
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final Database database = Database.getInstance();
+    private final BulkLoadDao bulkLoadDao = new BulkLoadDao(database);
+
+    /**
+     * Method to execute the service operation
+     *
+     * @param paramsDTO Object with the parameters to execute the service
+     */
+    @Override
+    public String execute(@NotNull ParamsDto paramsDTO) {
+        int batchSize = paramsDTO.getBatchSize() > 0 ? paramsDTO.getBatchSize() : DEFAULT_BATCH_SIZE;
+        // More workers than pooled connections would only wait for a connection
+        int threads = Math.min(paramsDTO.getThreads() > 0 ? paramsDTO.getThreads() : defaultThreads(),
+                database.getPoolStats().getMaxSize());
+        Map<LoadTable, String> files = paramsDTO.getLoadFiles();
+
+        StringBuilder sb = new StringBuilder();
+        LoadResultDto total = new LoadResultDto();
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        // Each load prints its own first rejected lines, whatever the loads before it rejected
+        AtomicInteger reportedRejects = new AtomicInteger();
+
+        try {
+            for (LoadTable table : LoadTable.values()) {
+                String file = files.get(table);
+                if (file == null) {
+                    continue;
+                }
+
+                long tableStart = System.nanoTime();
+                MappedCsvFile csv = new MappedCsvFile(Paths.get(file));
+                List<MappedCsvFile.Chunk> chunks = csv.split(threads * CHUNKS_PER_THREAD);
+                LoadResultDto result = pool.invoke(new LoadTask(table, chunks, 0, chunks.size(), batchSize,
+                        reportedRejects));
+                total.add(result);
+                if (result.getInserted() > 0) {
+                    // The loaded orders may be cached as "not found", the loaded detail lines change cached orders
+                    OrderCache.getInstance().invalidateAll();
+                }
+
+                sb.append(String.format("Loaded %d %s rows in %.3f s, %d rejected%n", result.getInserted(),
+                        table.getOption(), (System.nanoTime() - tableStart) / 1_000_000_000.0, result.getRejected()));
+            }
+        } catch (IOException ex) {
+            return sb + "The files couldn't be loaded: " + ex;
+        } catch (UncheckedIOException ex) {
+            return sb + "The files couldn't be loaded: " + ex.getCause();
+        } finally {
+            pool.shutdown();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        sb.append(String.format("Loaded %d rows in %.3f s (%.0f rows/s) on %d threads, %d rejected",
+                total.getInserted(), seconds, seconds > 0 ? total.getInserted() / seconds : 0, threads,
+                total.getRejected()));
+        return sb.toString();
+    }
+
+    /**
+     * Number of worker threads when the command doesn't say otherwise
+     *
+     * @return One thread per processor, at most 8
+     */
+    private static int defaultThreads() {
+        return Math.min(Runtime.getRuntime().availableProcessors(), 8);
+    }
+
+    /**
+     * Task that loads a range of chunks, splitting it in halves until there's only one chunk left
+     */
+    private final class LoadTask extends RecursiveTask<LoadResultDto> {
+        private static final long serialVersionUID = 1L;
+
+        private final LoadTable table;
+        private final List<MappedCsvFile.Chunk> chunks;
+        private final int from;
+        private final int to;
+        private final int batchSize;
+        private final AtomicInteger reportedRejects;
+
+        private LoadTask(LoadTable table, List<MappedCsvFile.Chunk> chunks, int from, int to, int batchSize,
+                         AtomicInteger reportedRejects) {
+            this.table = table;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.batchSize = batchSize;
+            this.reportedRejects = reportedRejects;
+        }
+
+        @Override
+        protected LoadResultDto compute() {
+            if (to - from == 0) {
+                return new LoadResultDto();
+            }
+            if (to - from == 1) {
+                try {
+                    return bulkLoadDao.load(table, chunks.get(from), batchSize, reportedRejects);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+
+            int middle = (from + to) >>> 1;
+            LoadTask left = new LoadTask(table, chunks, from, middle, batchSize, reportedRejects);
+            left.fork();
+            LoadResultDto result = new LoadTask(table, chunks, middle, to, batchSize, reportedRejects).compute();
+            return result.add(left.join());
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.order.service;
+
+import com.example.order.dao.GetOrderDao;
+import com.example.order.dao.WorkloadDao;
+import com.example.order.dto.OrderDetailDto;
+import com.example.order.dto.OrderDto;
+import com.example.order.dto.ParamsDto;
+import com.example.order.util.Commands;
+import com.example.order.util.Database;
+import com.example.order.util.LatencyHistogram;
+import com.example.order.util.LoadTestOperation;
+import com.example.order.util.Metrics;
+import com.example.order.util.OrderCache;
+import com.example.order.util.OrderStatus;
+import com.example.order.util.PoolStats;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class to run a mix of operations from several threads and report their throughput and latency.
+ * <p>
+ * Every worker thread has its own instances of the services, so the operations go through the same code as the
+ * commands (including the order cache and the connection pool). An operation the database fails counts as an error,
+ * not as a latency. The workers read random orders and customers, insert orders of random customers, and update and
+ * delete only the orders they inserted, so the existing orders and paid totals are left as they were; the orders
+ * still there at the end are deleted, outside the measurements. The test stops after the given number of operations
+ * or the given duration, whichever comes first.
+ */
+public class LoadTestService implements OrderService {
+    /**
+     * Duration of the test when the command gives neither a duration nor a number of operations
+     */
+    static final int DEFAULT_DURATION_SECONDS = 10;
+
+    /**
+     * Maximum number of IDs deleted with one command when the workers clean up
+     */
+    private static final int CLEANUP_CHUNK = 1000;
+
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    private final Database database = Database.getInstance();
+    private final WorkloadDao workloadDao = new WorkloadDao(database);
+
+    /**
+     * Method to execute the service operation
+     *
+     * @param paramsDTO Object with the parameters to execute the service
+     */
+    @Override
+    public String execute(@NotNull ParamsDto paramsDTO) {
+        Workload workload = new Workload(workloadDao.getCustomerIds(), workloadDao.getProductIds(),
+                workloadDao.getOrderIdRange());
+        if (workload.customerIds.length == 0 || workload.productIds.length == 0 || workload.orderIdRange.length == 0) {
+            return "The load test needs customers, products and orders in the database";
+        }
+
+        Map<LoadTestOperation, Integer> mix = paramsDTO.getMix().isEmpty()
+                ? LoadTestOperation.defaultMix() : paramsDTO.getMix();
+        int threads = paramsDTO.getThreads() > 0 ? paramsDTO.getThreads() : defaultThreads();
+        long operations = paramsDTO.getOperations() > 0 ? paramsDTO.getOperations() : Long.MAX_VALUE;
+        int durationSeconds = paramsDTO.getDurationSeconds() > 0 || paramsDTO.getOperations() > 0
+                ? paramsDTO.getDurationSeconds() : DEFAULT_DURATION_SECONDS;
+
+        AtomicLong remaining = new AtomicLong(operations);
+        PoolStats poolBefore = database.getPoolStats();
+        long start = System.nanoTime();
+        long deadline = durationSeconds > 0 ? start + TimeUnit.SECONDS.toNanos(durationSeconds) : Long.MAX_VALUE;
+
+        List<Worker> workers = new ArrayList<>(threads);
+        List<Future<?>> futures = new ArrayList<>(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < threads; i++) {
+                Worker worker = new Worker(workload, mix, remaining, deadline);
+                workers.add(worker);
+                futures.add(executor.submit(worker));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return "The load test was interrupted";
+        } catch (ExecutionException ex) {
+            return "The load test failed: " + ex.getCause();
+        } finally {
+            executor.shutdownNow();
+        }
+        double seconds = Math.max(1, workers.stream().mapToLong(w -> w.end).max().orElse(start) - start) / 1e9;
+
+        for (Worker worker : workers) {
+            worker.cleanUp();
+        }
+
+        return report(workers, mix, threads, seconds, poolBefore, database.getPoolStats());
+    }
+
+    /**
+     * Formats the throughput and latency percentiles of every operation, and of all of them together
+     */
+    private static @NotNull String report(@NotNull List<Worker> workers, @NotNull Map<LoadTestOperation, Integer> mix,
+                                          int threads, double seconds, @NotNull PoolStats poolBefore,
+                                          @NotNull PoolStats poolAfter) {
+        Map<LoadTestOperation, LatencyHistogram> histograms = new EnumMap<>(LoadTestOperation.class);
+        Map<LoadTestOperation, Long> errors = new EnumMap<>(LoadTestOperation.class);
+        LatencyHistogram all = new LatencyHistogram();
+        long allErrors = 0;
+        for (Worker worker : workers) {
+            for (LoadTestOperation operation : LoadTestOperation.values()) {
+                histograms.computeIfAbsent(operation, o -> new LatencyHistogram())
+                        .add(worker.histograms.get(operation));
+                errors.merge(operation, worker.errors[operation.ordinal()], Long::sum);
+                all.add(worker.histograms.get(operation));
+                allErrors += worker.errors[operation.ordinal()];
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d operations in %.3f s on %d threads (%.0f ops/s), %d errors%n",
+                all.getCount(), seconds, threads, all.getCount() / seconds, allErrors));
+        sb.append(String.format("%-10s %10s %10s %10s %10s %10s %10s %8s%n",
+                "operation", "count", "ops/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "errors"));
+        for (LoadTestOperation operation : LoadTestOperation.values()) {
+            if (mix.getOrDefault(operation, 0) > 0) {
+                appendRow(sb, operation.getOption(), histograms.get(operation), errors.get(operation), seconds);
+            }
+        }
+        appendRow(sb, "all", all, allErrors, seconds);
+
+        long acquired = poolAfter.getAcquired() - poolBefore.getAcquired();
+        long waitNanos = poolAfter.getTotalWaitNanos() - poolBefore.getTotalWaitNanos();
+        long statementHits = poolAfter.getStatementHits() - poolBefore.getStatementHits();
+        long statements = statementHits + poolAfter.getStatementMisses() - poolBefore.getStatementMisses();
+        sb.append(String.format("Connection pool: %d connections, average wait %.3f ms, %d timeouts, "
+                        + "statement cache hit rate %.1f%%",
+                poolAfter.getMaxSize(), acquired == 0 ? 0 : waitNanos / 1e6 / acquired,
+                poolAfter.getTimeouts() - poolBefore.getTimeouts(),
+                statements == 0 ? 0 : 100.0 * statementHits / statements));
+        return sb.toString();
+    }
+
+    private static void appendRow(@NotNull StringBuilder sb, @NotNull String name,
+                                  @NotNull LatencyHistogram histogram, long errors, double seconds) {
+        sb.append(String.format("%-10s %10d %10.0f", name, histogram.getCount(), histogram.getCount() / seconds));
+        for (double percentile : PERCENTILES) {
+            sb.append(String.format(" %10.3f", histogram.getValueAtPercentile(percentile) / 1e6));
+        }
+        sb.append(String.format(" %10.3f %8d%n", histogram.getMax() / 1e6, errors));
+    }
+
+    /**
+     * Number of worker threads when the command doesn't say otherwise
+     *
+     * @return One thread per processor, at most 8
+     */
+    private static int defaultThreads() {
+        return Math.min(Runtime.getRuntime().availableProcessors(), 8);
+    }
+
+    /**
+     * IDs the workers pick from, read once before the test starts
+     */
+    private static final class Workload {
+        private final long[] customerIds;
+        private final long[] productIds;
+        private final long[] orderIdRange;
+
+        private Workload(long[] customerIds, long[] productIds, long[] orderIdRange) {
+            this.customerIds = customerIds;
+            this.productIds = productIds;
+            this.orderIdRange = orderIdRange;
+        }
+    }
+
+    /**
+     * Thread of the load test, with its own services, histograms and inserted orders
+     */
+    private static final class Worker implements Runnable {
+        // Same lookup as the get command: the order with its detail lines, through the order cache
+        private final GetOrderDao getOrderDao = new GetOrderDao(Database.getInstance(), OrderCache.getInstance());
+        // Timed like the commands, so that the SQL errors the DAOs handle show up as failed commands
+        private final OrderService updateOrderService = ServiceFactory.get(Commands.UPDATE);
+        private final OrderService insertOrderService = ServiceFactory.get(Commands.INSERT);
+        private final OrderService deleteOrderService = ServiceFactory.get(Commands.DELETE);
+        private final OrderService totalOrderService = ServiceFactory.get(Commands.TOTAL);
+
+        private final Workload workload;
+        private final LoadTestOperation[] operations;
+        private final int[] cumulativeWeights;
+        private final AtomicLong remaining;
+        private final long deadline;
+
+        private final Map<LoadTestOperation, LatencyHistogram> histograms = new EnumMap<>(LoadTestOperation.class);
+        private final long[] errors = new long[LoadTestOperation.values().length];
+        private final List<Long> insertedIds = new ArrayList<>();
+        private long end;
+
+        private Worker(@NotNull Workload workload, @NotNull Map<LoadTestOperation, Integer> mix,
+                       @NotNull AtomicLong remaining, long deadline) {
+            this.workload = workload;
+            this.remaining = remaining;
+            this.deadline = deadline;
+
+            List<LoadTestOperation> operations = new ArrayList<>();
+            List<Integer> weights = new ArrayList<>();
+            int total = 0;
+            for (Map.Entry<LoadTestOperation, Integer> entry : mix.entrySet()) {
+                if (entry.getValue() > 0) {
+                    total += entry.getValue();
+                    operations.add(entry.getKey());
+                    weights.add(total);
+                }
+            }
+            this.operations = operations.toArray(new LoadTestOperation[0]);
+            this.cumulativeWeights = weights.stream().mapToInt(Integer::intValue).toArray();
+
+            for (LoadTestOperation operation : LoadTestOperation.values()) {
+                histograms.put(operation, new LatencyHistogram());
+            }
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int totalWeight = cumulativeWeights[cumulativeWeights.length - 1];
+
+            while (remaining.getAndDecrement() > 0 && System.nanoTime() < deadline) {
+                int pick = random.nextInt(totalWeight);
+                int i = 0;
+                while (cumulativeWeights[i] <= pick) {
+                    i++;
+                }
+                LoadTestOperation operation = operations[i];
+
+                // Updates and deletes need an order of this worker, inserted outside the measurement
+                if ((operation == LoadTestOperation.UPDATE || operation == LoadTestOperation.DELETE)
+                        && insertedIds.isEmpty()) {
+                    insert(random);
+                }
+
+                long start = System.nanoTime();
+                boolean failed;
+                try {
+                    failed = run(operation, random);
+                } catch (RuntimeException ex) {
+                    failed = true;
+                }
+                if (failed) {
+                    errors[operation.ordinal()]++;
+                } else {
+                    histograms.get(operation).record(System.nanoTime() - start);
+                }
+            }
+            end = System.nanoTime();
+        }
+
+        /**
+         * Runs one operation
+         *
+         * @return Whether the operation failed
+         */
+        private boolean run(@NotNull LoadTestOperation operation, @NotNull ThreadLocalRandom random) {
+            ParamsDto paramsDto = new ParamsDto();
+
+            switch (operation) {
+                case GET:
+                    return getOrderDao.getOrdersWithDetails(Collections.singletonList(randomOrderId(random))) == null;
+                case UPDATE:
+                    OrderStatus[] statuses = OrderStatus.values();
+                    paramsDto.setOrderId(insertedIds.get(random.nextInt(insertedIds.size())));
+                    paramsDto.setStatus(statuses[random.nextInt(statuses.length)].getStatus());
+                    updateOrderService.execute(paramsDto);
+                    break;
+                case INSERT:
+                    insert(random);
+                    break;
+                case DELETE:
+                    paramsDto.setOrderIds(Collections.singletonList(insertedIds.remove(insertedIds.size() - 1)));
+                    deleteOrderService.execute(paramsDto);
+                    break;
+                case TOTAL:
+                    paramsDto.setCustomerId(workload.customerIds[random.nextInt(workload.customerIds.length)]);
+                    totalOrderService.execute(paramsDto);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation " + operation);
+            }
+            return Metrics.lastCommandFailed();
+        }
+
+        /**
+         * Inserts an order of a random customer with one to three lines, remembering its ID
+         */
+        private void insert(@NotNull ThreadLocalRandom random) {
+            OrderDto orderDto = new OrderDto();
+            orderDto.setCustomerId(workload.customerIds[random.nextInt(workload.customerIds.length)]);
+
+            int lines = 1 + random.nextInt(3);
+            List<OrderDetailDto> details = new ArrayList<>(lines);
+            int firstProduct = random.nextInt(workload.productIds.length);
+            for (int i = 0; i < lines && i < workload.productIds.length; i++) {
+                OrderDetailDto detail = new OrderDetailDto();
+                detail.setProductId(workload.productIds[(firstProduct + i) % workload.productIds.length]);
+                detail.setQuantity(1 + random.nextInt(5));
+                details.add(detail);
+            }
+            orderDto.setOrderDetail(details);
+
+            ParamsDto paramsDto = new ParamsDto();
+            paramsDto.setOrder(orderDto);
+            insertOrderService.execute(paramsDto);
+            if (orderDto.getOrderId() > 0) {
+                insertedIds.add(orderDto.getOrderId());
+            }
+        }
+
+        private long randomOrderId(@NotNull ThreadLocalRandom random) {
+            return random.nextLong(workload.orderIdRange[0], workload.orderIdRange[1] + 1);
+        }
+
+        /**
+         * Deletes the orders this worker inserted and didn't delete
+         */
+        private void cleanUp() {
+            for (int from = 0; from < insertedIds.size(); from += CLEANUP_CHUNK) {
+                ParamsDto paramsDto = new ParamsDto();
+                paramsDto.setOrderIds(new ArrayList<>(
+                        insertedIds.subList(from, Math.min(from + CLEANUP_CHUNK, insertedIds.size()))));
+                deleteOrderService.execute(paramsDto);
+            }
+            insertedIds.clear();
+        }
+    }
+}
@@ -1,10 +1,24 @@
 package com.example.order.service;
 
 import com.example.order.dto.ParamsDto;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintWriter;
 
 /**
  * Interface for service classes
  */
 public interface OrderService {
     String execute(ParamsDto paramsDTO);
+
+    /**
+     * Executes the service operation and writes its result. Services with results of any size override it to write
+     * them as they're produced
+     *
+     * @param paramsDTO Object with the parameters to execute the service
+     * @param out       Destination of the result
+     */
+    default void execute(ParamsDto paramsDTO, @NotNull PrintWriter out) {
+        out.println(execute(paramsDTO));
+    }
 }
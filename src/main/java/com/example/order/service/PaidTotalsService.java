@@ -0,0 +1,65 @@
+package com.example.order.service;
+
+import com.example.order.dao.PaidTotalsDao;
+import com.example.order.dto.PaidTotalMismatchDto;
+import com.example.order.dto.ParamsDto;
+import com.example.order.util.Database;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Service class to verify or rebuild the paid totals that the total command reads
+ */
+public class PaidTotalsService implements OrderService {
+    /**
+     * Action that compares the stored totals with the orders
+     */
+    public static final String VERIFY = "verify";
+
+    /**
+     * Action that recomputes the stored totals from the orders
+     */
+    public static final String REBUILD = "rebuild";
+
+    /**
+     * Maximum number of mismatches listed in the result
+     */
+    private static final int MAX_LISTED = 20;
+
+    private final PaidTotalsDao paidTotalsDao = new PaidTotalsDao(Database.getInstance());
+
+    /**
+     * Method to execute the service operation
+     *
+     * @param paramsDTO Object with the parameters to execute the service
+     */
+    @Override
+    public String execute(@NotNull ParamsDto paramsDTO) {
+        if (REBUILD.equals(paramsDTO.getAction())) {
+            int customers = paidTotalsDao.rebuild();
+            return customers < 0
+                    ? "The paid totals couldn't be rebuilt"
+                    : "Paid totals rebuilt for " + customers + " customers";
+        }
+
+        List<PaidTotalMismatchDto> mismatches = paidTotalsDao.verify();
+        if (mismatches == null) {
+            return "The paid totals couldn't be verified";
+        }
+        if (mismatches.isEmpty()) {
+            return "The paid totals match the orders";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(mismatches.size()).append(" customers have a wrong paid total (run 'totals rebuild' to fix them)");
+        for (int i = 0; i < mismatches.size() && i < MAX_LISTED; i++) {
+            PaidTotalMismatchDto mismatch = mismatches.get(i);
+            sb.append(System.lineSeparator())
+                    .append("Customer ID: ").append(mismatch.getCustomerId())
+                    .append(", stored: ").append(mismatch.getStoredTotal())
+                    .append(", actual: ").append(mismatch.getActualTotal());
+        }
+        return sb.toString();
+    }
+}
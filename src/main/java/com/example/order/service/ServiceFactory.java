@@ -9,7 +9,7 @@ import org.jetbrains.annotations.NotNull;
 public class ServiceFactory {
 
     /**
-     * Gets the correct service class according to the give command
+     * Gets the correct service class according to the give command, timed in the metrics of the command
      *
      * @param cmdEnum Command
      * @return Service class
@@ -21,6 +21,9 @@ public class ServiceFactory {
             case GET:
                 service = new GetOrderService();
                 break;
+            case LIST:
+                service = new ListOrderService();
+                break;
             case UPDATE:
                 service = new UpdateOrderService();
                 break;
@@ -33,10 +36,31 @@ public class ServiceFactory {
             case TOTAL:
                 service = new TotalOrderService();
                 break;
+            case TOTALS:
+                service = new PaidTotalsService();
+                break;
+            case INGEST:
+                service = new IngestOrderService();
+                break;
+            case CACHE:
+                service = new CacheService();
+                break;
+            case LOAD:
+                service = new LoadService();
+                break;
+            case LOADTEST:
+                service = new LoadTestService();
+                break;
+            case STATS:
+                service = new StatsService();
+                break;
+            case SLOWLOG:
+                service = new SlowLogService();
+                break;
             default:
                 throw new RuntimeException("Invalid command received");
         }
 
-        return service;
+        return new TimedOrderService(cmdEnum.getCmd(), service);
     }
 }
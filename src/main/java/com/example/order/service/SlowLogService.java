@@ -0,0 +1,76 @@
+package com.example.order.service;
+
+import com.example.order.dto.ParamsDto;
+import com.example.order.dto.SlowQueryDto;
+import com.example.order.util.Database;
+import com.example.order.util.SlowQueryLog;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Service class to display the slow query log, change its threshold or empty it
+ */
+public class SlowLogService implements OrderService {
+    /**
+     * Action that empties the log
+     */
+    public static final String CLEAR = "clear";
+
+    /**
+     * Action that disables the log
+     */
+    public static final String OFF = "off";
+
+    /**
+     * Action that sets the threshold (and enables the log)
+     */
+    public static final String THRESHOLD = "threshold";
+
+    private static final int MAX_SQL_LENGTH = 200;
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private final SlowQueryLog log = Database.getInstance().getSlowQueryLog();
+
+    /**
+     * Method to execute the service operation
+     *
+     * @param paramsDTO Object with the parameters to execute the service
+     */
+    @Override
+    public String execute(@NotNull ParamsDto paramsDTO) {
+        if (CLEAR.equals(paramsDTO.getAction())) {
+            log.clear();
+            return "The slow query log was cleared";
+        }
+        if (OFF.equals(paramsDTO.getAction())) {
+            log.setThresholdMillis(-1);
+            return "The slow query log is disabled";
+        }
+        if (THRESHOLD.equals(paramsDTO.getAction())) {
+            log.setThresholdMillis(paramsDTO.getThresholdMillis());
+            return "Statements of " + paramsDTO.getThresholdMillis() + " ms or more are logged";
+        }
+
+        List<SlowQueryDto> entries = log.getEntries();
+        StringBuilder sb = new StringBuilder();
+        sb.append(log.isEnabled()
+                ? "Statements of " + log.getThresholdMillis() + " ms or more are logged"
+                : "The slow query log is disabled, enable it with: slowlog threshold <ms>");
+        sb.append(String.format(", %d logged (%d shown)", log.getLogged(), entries.size()));
+
+        for (SlowQueryDto entry : entries) {
+            String sql = entry.getSql().length() > MAX_SQL_LENGTH
+                    ? entry.getSql().substring(0, MAX_SQL_LENGTH) + "..." : entry.getSql();
+            sb.append(String.format("%n%s %10.3f ms %8s rows  %s%n  %s%n  %s",
+                    TIME_FORMAT.format(entry.getTime()), entry.getElapsedNanos() / 1e6,
+                    entry.getRows() < 0 ? "-" : String.valueOf(entry.getRows()), entry.getCaller(),
+                    sql, entry.getParameters()));
+            if (entry.getError() != null) {
+                sb.append(String.format("%n  failed: %s", entry.getError()));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.order.service;
+
+import com.example.order.dto.ParamsDto;
+import com.example.order.util.ErrorReporter;
+import com.example.order.util.MetricStats;
+import com.example.order.util.Metrics;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service class to display the latencies, errors and rows of the commands and the DAO calls and the SQL errors by
+ * state, or to reset them
+ */
+public class StatsService implements OrderService {
+    /**
+     * Action that resets the metrics
+     */
+    public static final String RESET = "reset";
+
+    private final Metrics metrics = Metrics.getInstance();
+
+    /**
+     * Method to execute the service operation
+     *
+     * @param paramsDTO Object with the parameters to execute the service
+     */
+    @Override
+    public String execute(@NotNull ParamsDto paramsDTO) {
+        if (RESET.equals(paramsDTO.getAction())) {
+            metrics.reset();
+            return "The statistics were reset";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        appendTable(sb, "command", metrics.getCommands());
+        sb.append(System.lineSeparator());
+        appendTable(sb, "DAO call", metrics.getDaoCalls());
+
+        Map<String, Long> errors = metrics.getErrorsBySqlState();
+        if (!errors.isEmpty()) {
+            sb.append(System.lineSeparator());
+            sb.append(String.format("%-38s %9s%n", "SQL state", "errors"));
+            errors.forEach((state, count) -> sb.append(String.format("%-38s %9d%n", state, count)));
+            long dropped = ErrorReporter.getInstance().getDropped();
+            if (dropped > 0) {
+                sb.append(String.format("(%d error records dropped, the reporter was behind)%n", dropped));
+            }
+        }
+        sb.setLength(sb.length() - System.lineSeparator().length());
+        return sb.toString();
+    }
+
+    /**
+     * Formats the statistics of a group of metrics, one row per metric
+     */
+    private static void appendTable(@NotNull StringBuilder sb, @NotNull String title, @NotNull List<MetricStats> stats) {
+        sb.append(String.format("%-38s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+                title, "count", "errors", "rows", "mean ms", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        if (stats.isEmpty()) {
+            sb.append(String.format("(none yet)%n"));
+        }
+        for (MetricStats metric : stats) {
+            sb.append(String.format("%-38s %9d %7d %10d %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                    metric.getName(), metric.getCount(), metric.getErrors(), metric.getRows(),
+                    metric.getMeanNanos() / 1e6, metric.getP50Nanos() / 1e6, metric.getP95Nanos() / 1e6,
+                    metric.getP99Nanos() / 1e6, metric.getMaxNanos() / 1e6));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.order.service;
+
+import com.example.order.dto.ParamsDto;
+import com.example.order.util.CommandEvent;
+import com.example.order.util.LatencyRecorder;
+import com.example.order.util.Metrics;
+import jdk.jfr.EventType;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintWriter;
+
+/**
+ * Service that records the latency, the errors and the rows of the service it wraps into the metrics of a command,
+ * and emits a {@link CommandEvent} when a flight recording is running
+ */
+class TimedOrderService implements OrderService {
+    /**
+     * Type of the {@link CommandEvent}s, whose flag says if a recording wants them before any event is allocated
+     */
+    private static final EventType COMMAND_EVENT = EventType.getEventType(CommandEvent.class);
+
+    private final String command;
+    private final OrderService service;
+    private final LatencyRecorder recorder;
+
+    /**
+     * Constructor
+     *
+     * @param command Name of the command
+     * @param service Service to time
+     */
+    TimedOrderService(@NotNull String command, @NotNull OrderService service) {
+        this.command = command;
+        this.service = service;
+        this.recorder = Metrics.getInstance().command(command);
+    }
+
+    @Override
+    public String execute(ParamsDto paramsDTO) {
+        CommandEvent event = begin();
+        long start = Metrics.startCommand();
+        boolean failed = true;
+        try {
+            String result = service.execute(paramsDTO);
+            failed = false;
+            return result;
+        } finally {
+            commit(event, paramsDTO, Metrics.stopCommand(recorder, start, failed));
+        }
+    }
+
+    @Override
+    public void execute(ParamsDto paramsDTO, @NotNull PrintWriter out) {
+        CommandEvent event = begin();
+        long start = Metrics.startCommand();
+        boolean failed = true;
+        try {
+            service.execute(paramsDTO, out);
+            failed = false;
+        } finally {
+            commit(event, paramsDTO, Metrics.stopCommand(recorder, start, failed));
+        }
+    }
+
+    /**
+     * Starts the event of the command
+     *
+     * @return The event, or null if no recording wants it
+     */
+    private static CommandEvent begin() {
+        if (!COMMAND_EVENT.isEnabled()) {
+            return null;
+        }
+        CommandEvent event = new CommandEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Fills and commits the event of the command, if the recording keeps it
+     */
+    private void commit(CommandEvent event, ParamsDto paramsDTO, boolean failed) {
+        if (event != null && event.shouldCommit()) {
+            event.command = command;
+            if (paramsDTO != null) {
+                event.orderId = paramsDTO.getOrderId();
+                event.orderCount = paramsDTO.getOrderIds() != null ? paramsDTO.getOrderIds().size() : 0;
+                event.customerId = paramsDTO.getCustomerId();
+            }
+            event.failed = failed;
+            event.commit();
+        }
+    }
+}
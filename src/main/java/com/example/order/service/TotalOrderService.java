@@ -3,7 +3,12 @@ package com.example.order.service;
 import com.example.order.dao.TotalOrderDao;
 import com.example.order.dto.ParamsDto;
 import com.example.order.util.Database;
+import com.example.order.util.OutputFormat;
+import com.example.order.util.RecordWriter;
+import org.jetbrains.annotations.NotNull;
 
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.math.BigDecimal;
 
 /**
@@ -22,11 +27,35 @@ public class TotalOrderService implements OrderService {
         String result;
         BigDecimal total = totalOrderDao.getTotalAllPaidOrders(paramsDTO);
 
-        if (total != null) {
+        if (paramsDTO.getOutputFormat() != OutputFormat.TEXT) {
+            StringWriter sw = new StringWriter();
+            try (PrintWriter out = new PrintWriter(sw)) {
+                RecordWriter.of(paramsDTO.getOutputFormat(), out).total(paramsDTO.getCustomerId(), total);
+            }
+            result = sw.toString();
+        } else if (total != null) {
             result = "Total: " + total.toString();
         } else {
             result = "No paid orders for the customer with ID " + paramsDTO.getCustomerId() + " found";
         }
         return result;
     }
+
+    /**
+     * Method to execute the service operation, writing the total as a record when a machine-readable format is
+     * asked for
+     *
+     * @param paramsDTO Object with the parameters to execute the service
+     * @param out       Destination of the result
+     */
+    @Override
+    public void execute(ParamsDto paramsDTO, @NotNull PrintWriter out) {
+        if (paramsDTO.getOutputFormat() == OutputFormat.TEXT) {
+            out.println(execute(paramsDTO));
+        } else {
+            BigDecimal total = totalOrderDao.getTotalAllPaidOrders(paramsDTO);
+            RecordWriter.of(paramsDTO.getOutputFormat(), out).total(paramsDTO.getCustomerId(), total);
+            out.flush();
+        }
+    }
 }
@@ -2,10 +2,12 @@ package com.example.order.service;
 
 import com.example.order.dao.UpdateOrderDao;
 import com.example.order.dto.ParamsDto;
+import com.example.order.dto.UpdateResultDto;
 import com.example.order.util.Database;
+import org.jetbrains.annotations.NotNull;
 
 /**
- * Service class to update an order
+ * Service class to update the status of one or more orders
  */
 public class UpdateOrderService implements OrderService {
     private final UpdateOrderDao updateOrderDao = new UpdateOrderDao(Database.getInstance());
@@ -17,15 +19,33 @@ public class UpdateOrderService implements OrderService {
      */
     @Override
     public String execute(ParamsDto paramsDTO) {
-        String result;
-        int rowsAffected = updateOrderDao.updateOrderStatus(paramsDTO);
-
-        if (rowsAffected <= 0) {
-            result = "No rows affected";
-        } else {
-            result = "Rows affected: " + rowsAffected;
+        if (isSingleOrder(paramsDTO)) {
+            return summary(updateOrderDao.updateOrderStatus(paramsDTO));
         }
 
-        return result;
+        UpdateResultDto result = updateOrderDao.updateOrdersStatus(paramsDTO);
+        String summary = summary(result.getUpdated());
+        return result.isFailed() ? summary + ", stopped because a chunk failed and was rolled back" : summary;
+    }
+
+    /**
+     * Describes the number of orders updated
+     *
+     * @param rowsAffected Number of orders updated
+     * @return Summary of the update
+     */
+    private @NotNull String summary(long rowsAffected) {
+        return rowsAffected <= 0 ? "No rows affected" : "Rows affected: " + rowsAffected;
+    }
+
+    /**
+     * Checks if the parameters designate exactly one order, without filters
+     *
+     * @param paramsDTO Object with the parameters of the update
+     * @return true if only the order of {@code orderId} is updated
+     */
+    private boolean isSingleOrder(@NotNull ParamsDto paramsDTO) {
+        return paramsDTO.getOrderIds() == null && paramsDTO.getRangeFrom() == null && paramsDTO.getRangeTo() == null
+                && paramsDTO.getCustomerId() <= 0 && paramsDTO.getCurrentStatus() == null && paramsDTO.getBefore() == null;
     }
 }
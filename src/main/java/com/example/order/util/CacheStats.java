@@ -0,0 +1,113 @@
+package com.example.order.util;
+
+/**
+ * Snapshot of the statistics of the order cache
+ */
+public class CacheStats {
+
+    private final int size;
+
+    private final int negativeSize;
+
+    private final int maxSize;
+
+    private final long hits;
+
+    private final long negativeHits;
+
+    private final long misses;
+
+    private final long evictions;
+
+    private final long invalidations;
+
+    private final long estimatedBytes;
+
+    /**
+     * Constructor
+     *
+     * @param size           Entries in the cache, including the negative ones
+     * @param negativeSize   Entries that remember a missing order
+     * @param maxSize        Maximum number of entries
+     * @param hits           Lookups answered by the cache with an order
+     * @param negativeHits   Lookups answered by the cache with "not found"
+     * @param misses         Lookups that went to the database
+     * @param evictions      Entries dropped to make room or because they expired
+     * @param invalidations  Entries dropped because the order changed
+     * @param estimatedBytes Estimated heap used by the entries
+     */
+    public CacheStats(int size, int negativeSize, int maxSize, long hits, long negativeHits, long misses,
+                      long evictions, long invalidations, long estimatedBytes) {
+        this.size = size;
+        this.negativeSize = negativeSize;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.negativeHits = negativeHits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.invalidations = invalidations;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getNegativeSize() {
+        return negativeSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getNegativeHits() {
+        return negativeHits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public long getInvalidations() {
+        return invalidations;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    /**
+     * Share of the lookups answered without going to the database
+     *
+     * @return Hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long requests = hits + negativeHits + misses;
+        return requests == 0 ? 0 : (double) (hits + negativeHits) / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "size=" + size +
+                ", negativeSize=" + negativeSize +
+                ", maxSize=" + maxSize +
+                ", hits=" + hits +
+                ", negativeHits=" + negativeHits +
+                ", misses=" + misses +
+                ", hitRate=" + String.format("%.3f", getHitRate()) +
+                ", evictions=" + evictions +
+                ", invalidations=" + invalidations +
+                ", estimatedBytes=" + estimatedBytes +
+                '}';
+    }
+}
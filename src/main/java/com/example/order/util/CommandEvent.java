@@ -0,0 +1,39 @@
+package com.example.order.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a command executed by an {@code OrderService}, with the IDs it was given.
+ * The DAO calls, SQL statements and connection acquisitions of the command are recorded on the same thread, inside
+ * its duration
+ */
+@Name("com.example.order.Command")
+@Label("Command")
+@Description("Execution of a command of the application")
+@Category({"Orders", "Commands"})
+@StackTrace(false)
+public class CommandEvent extends jdk.jfr.Event {
+
+    @Label("Command")
+    public String command;
+
+    @Label("Order ID")
+    @Description("Order given to the command, 0 if none")
+    public long orderId;
+
+    @Label("Order IDs")
+    @Description("Number of orders given as a list")
+    public int orderCount;
+
+    @Label("Customer ID")
+    @Description("Customer given to the command, 0 if none")
+    public long customerId;
+
+    @Label("Failed")
+    @Description("Whether the command or one of its DAO calls failed")
+    public boolean failed;
+}
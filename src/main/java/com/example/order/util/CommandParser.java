@@ -0,0 +1,664 @@
+package com.example.order.util;
+
+import com.example.order.dto.CommandDto;
+import com.example.order.dto.OrderDetailDto;
+import com.example.order.dto.OrderDto;
+import com.example.order.dto.ParamsDto;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parser of command lines. A line is split into tokens once, kept as offsets into the line, and every token is
+ * validated and converted while the parameters of the command are filled, so numbers are read a single time and
+ * straight from the line. Strings are only built for the values that are strings (file names, dates) and for error
+ * messages.
+ * <p>
+ * The offsets are kept in buffers that are reused for every line, so a parser isn't thread-safe: each thread must use
+ * its own.
+ */
+public class CommandParser {
+    private static final String STDIN = "-";
+    private static final String OPTION_PREFIX = "--";
+
+    private static final Commands[] COMMANDS = Commands.values();
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final LoadTable[] LOAD_TABLES = LoadTable.values();
+    private static final OutputFormat[] OUTPUT_FORMATS = OutputFormat.values();
+
+    private String line;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int count;
+
+    /**
+     * Parses a command line
+     *
+     * @param line Command and its arguments, separated by white spaces
+     * @return Command with its parameters, or with the error message if the line isn't valid
+     */
+    public @NotNull CommandDto parse(@NotNull String line) {
+        tokenize(line);
+
+        Commands command = count > 0 ? findCommand() : null;
+        if (command == null) {
+            return new CommandDto(null, null, "Invalid command");
+        }
+
+        ParamsDto params = new ParamsDto();
+        String error;
+        switch (command) {
+            case GET:
+                error = parseGet(params);
+                break;
+            case LIST:
+                error = parseList(params);
+                break;
+            case UPDATE:
+                error = parseUpdate(params);
+                break;
+            case DELETE:
+                error = parseDelete(params);
+                break;
+            case INSERT:
+                error = parseInsert(params);
+                break;
+            case INGEST:
+                error = parseIngest(params);
+                break;
+            case LOAD:
+                error = parseLoad(params);
+                break;
+            case LOADTEST:
+                error = parseLoadTest(params);
+                break;
+            case CACHE:
+                error = parseAction(params, "The command takes one argument, stats or clear", "stats", "clear");
+                break;
+            case TOTALS:
+                error = parseAction(params, "The command takes one argument, verify or rebuild", "verify", "rebuild");
+                break;
+            case STATS:
+                error = count == 1 ? null : parseAction(params, "The command takes no argument, or reset", "reset");
+                break;
+            case SLOWLOG:
+                error = parseSlowLog(params);
+                break;
+            case TOTAL:
+                error = parseTotal(params);
+                break;
+            default:
+                error = null;
+        }
+
+        return error == null ? new CommandDto(command, params, null) : new CommandDto(command, null, error);
+    }
+
+    /**
+     * Finds the boundaries of the tokens of a line
+     */
+    private void tokenize(@NotNull String line) {
+        this.line = line;
+        count = 0;
+
+        int length = line.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && line.charAt(i) <= ' ') {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+            starts[count] = i;
+            while (i < length && line.charAt(i) > ' ') {
+                i++;
+            }
+            ends[count++] = i;
+        }
+    }
+
+    private @Nullable Commands findCommand() {
+        for (Commands command : COMMANDS) {
+            if (equalsIgnoreCase(0, command.getCmd())) {
+                return command;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@code get <id>... [--output <format>]}
+     */
+    private @Nullable String parseGet(@NotNull ParamsDto params) {
+        List<Long> orderIds = new ArrayList<>(count - 1);
+        for (int i = 1; i < count; i++) {
+            if (is(i, OutputFormat.OPTION)) {
+                String error = parseOutputFormat(params, ++i);
+                if (error != null) {
+                    return error;
+                }
+            } else if (isLong(i)) {
+                orderIds.add(longAt(i));
+            } else {
+                return "The arguments of the command must be integers representing order IDs";
+            }
+        }
+        if (orderIds.isEmpty()) {
+            return "The program didn't receive the ID of the order to get";
+        }
+
+        params.setOrderId(orderIds.get(0));
+        params.setOrderIds(orderIds);
+        return null;
+    }
+
+    /**
+     * {@code list [--customer <id>] [--status <status>] [--since <yyyy-mm-dd>] [--before <yyyy-mm-dd>] [--after <id>]
+     * [--limit <n>] [--page <n>] [--fetch <n>] [--output <format>]}
+     */
+    private @Nullable String parseList(@NotNull ParamsDto params) {
+        for (int i = 1; i < count; i++) {
+            if (is(i, "--customer") || is(i, "--after") || is(i, "--limit")) {
+                // A limit of 0 would mean no limit to the DAO
+                long min = is(i, "--limit") ? 1 : 0;
+                if (++i >= count || !isLong(i) || longAt(i) < min || longAt(i) == Long.MAX_VALUE) {
+                    return "The option " + text(i - 1) + " must be followed by a positive integer";
+                }
+                if (is(i - 1, "--customer")) {
+                    params.setCustomerId(longAt(i));
+                } else if (is(i - 1, "--after")) {
+                    params.setRangeFrom(longAt(i) + 1);
+                } else {
+                    params.setLimit(longAt(i));
+                }
+            } else if (is(i, "--page") || is(i, "--fetch")) {
+                if (++i >= count || !isPositiveInt(i)) {
+                    return "The option " + text(i - 1) + " must be followed by a positive integer";
+                }
+                if (is(i - 1, "--page")) {
+                    params.setChunkSize(intAt(i));
+                } else {
+                    params.setFetchSize(intAt(i));
+                }
+            } else if (is(i, "--status")) {
+                OrderStatus status = ++i < count ? statusAt(i) : null;
+                if (status == null) {
+                    return "The option --status must be followed by an order status: " + OrderStatus.listOfValues();
+                }
+                params.setCurrentStatus(status.getStatus());
+            } else if (is(i, "--since") || is(i, "--before")) {
+                LocalDate date = ++i < count ? dateAt(i) : null;
+                if (date == null) {
+                    return "The option " + text(i - 1) + " must be followed by a date (yyyy-mm-dd)";
+                }
+                if (is(i - 1, "--since")) {
+                    params.setSince(date);
+                } else {
+                    params.setBefore(date);
+                }
+            } else if (is(i, OutputFormat.OPTION)) {
+                String error = parseOutputFormat(params, ++i);
+                if (error != null) {
+                    return error;
+                }
+            } else {
+                return "Unknown option " + text(i);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * {@code update <id> <status>}, or a bulk update: {@code update [<id>...] [--from <id>] [--to <id>]
+     * [--customer <id>] [--current <status>] [--before <yyyy-mm-dd>] [--chunk <size>] <status>}
+     */
+    private @Nullable String parseUpdate(@NotNull ParamsDto params) {
+        if (count == 1) {
+            return "The program didn't receive the order ID and the status to update";
+        }
+        if (count == 3 && isLong(1)) {
+            OrderStatus status = statusAt(2);
+            if (status == null) {
+                return "The third argument must be a valid new order status: " + OrderStatus.listOfValues();
+            }
+            params.setOrderId(longAt(1));
+            params.setStatus(status.getStatus());
+            return null;
+        }
+
+        List<Long> orderIds = new ArrayList<>();
+        boolean hasRange = false;
+        boolean hasFilter = false;
+        int statuses = 0;
+
+        for (int i = 1; i < count; i++) {
+            if (is(i, "--from") || is(i, "--to") || is(i, "--customer")) {
+                if (++i >= count || !isLong(i) || longAt(i) <= 0) {
+                    return "The option " + text(i - 1) + " must be followed by a positive integer";
+                }
+                if (is(i - 1, "--customer")) {
+                    params.setCustomerId(longAt(i));
+                    hasFilter = true;
+                } else if (is(i - 1, "--from")) {
+                    params.setRangeFrom(longAt(i));
+                    hasRange = true;
+                } else {
+                    params.setRangeTo(longAt(i));
+                    hasRange = true;
+                }
+            } else if (is(i, "--chunk")) {
+                if (++i >= count || !isPositiveInt(i)) {
+                    return "The option --chunk must be followed by a positive integer";
+                }
+                params.setChunkSize(intAt(i));
+            } else if (is(i, "--current")) {
+                OrderStatus status = ++i < count ? statusAt(i) : null;
+                if (status == null) {
+                    return "The option --current must be followed by an order status: " + OrderStatus.listOfValues();
+                }
+                params.setCurrentStatus(status.getStatus());
+                hasFilter = true;
+            } else if (is(i, "--before")) {
+                LocalDate date = ++i < count ? dateAt(i) : null;
+                if (date == null) {
+                    return "The option --before must be followed by a date (yyyy-mm-dd)";
+                }
+                params.setBefore(date);
+                hasFilter = true;
+            } else if (isOption(i)) {
+                return "Unknown option " + text(i);
+            } else if (isLong(i)) {
+                orderIds.add(longAt(i));
+            } else {
+                OrderStatus status = statusAt(i);
+                if (status == null) {
+                    return "Invalid order ID or status " + text(i) + ", the statuses are: " + OrderStatus.listOfValues();
+                }
+                params.setStatus(status.getStatus());
+                statuses++;
+            }
+        }
+
+        if (statuses != 1) {
+            return "The program must receive exactly one new order status: " + OrderStatus.listOfValues();
+        }
+        if (!orderIds.isEmpty() && hasRange) {
+            return "The program received order IDs and a range of order IDs, give only one of them";
+        }
+        if (orderIds.isEmpty() && !hasRange && !hasFilter) {
+            return "The program didn't receive the orders to update (IDs, a range or filters)";
+        }
+        if (!orderIds.isEmpty()) {
+            params.setOrderIds(orderIds);
+        }
+        return null;
+    }
+
+    /**
+     * {@code delete (<id>... | --file <file>|-) [--chunk <size>] [--batch <size>] [--any]}
+     */
+    private @Nullable String parseDelete(@NotNull ParamsDto params) {
+        List<Long> orderIds = new ArrayList<>();
+        boolean hasFile = false;
+
+        for (int i = 1; i < count; i++) {
+            if (is(i, "--chunk") || is(i, "--batch")) {
+                if (++i >= count || !isPositiveInt(i)) {
+                    return "The option " + text(i - 1) + " must be followed by a positive integer";
+                }
+                if (is(i - 1, "--chunk")) {
+                    params.setChunkSize(intAt(i));
+                } else {
+                    params.setBatchSize(intAt(i));
+                }
+            } else if (is(i, "--file")) {
+                if (++i >= count) {
+                    return "The option --file must be followed by the path of a file with order IDs (or - for stdin)";
+                }
+                params.setFile(text(i));
+                hasFile = true;
+            } else if (is(i, "--any")) {
+                params.setArrayParameter(true);
+            } else if (isOption(i)) {
+                return "Unknown option " + text(i);
+            } else if (isLong(i)) {
+                orderIds.add(longAt(i));
+            } else {
+                return "The arguments of the command must be integers representing order IDs";
+            }
+        }
+
+        if (!orderIds.isEmpty() && hasFile) {
+            return "The program received order IDs and a file of order IDs, give only one of them";
+        }
+        if (orderIds.isEmpty() && !hasFile) {
+            return "The program didn't receive the ID(s) of the order(s) to delete";
+        }
+        params.setOrderIds(orderIds);
+        return null;
+    }
+
+    /**
+     * {@code insert}, the order is then asked interactively, or {@code insert <customerId> <productId>:<quantity>...}
+     */
+    private @Nullable String parseInsert(@NotNull ParamsDto params) {
+        if (count == 1) {
+            return null;
+        }
+        if (count == 2) {
+            return "The program didn't receive the lines of the order (<productId>:<quantity>)";
+        }
+        if (!isLong(1)) {
+            return "The second argument must be an integer representing the customer ID";
+        }
+
+        OrderDto order = new OrderDto();
+        order.setCustomerId(longAt(1));
+        List<OrderDetailDto> details = new ArrayList<>(count - 2);
+        for (int i = 2; i < count; i++) {
+            int separator = line.indexOf(':', starts[i]);
+            if (separator <= starts[i] || separator >= ends[i]
+                    || !isLong(starts[i], separator) || parseLong(starts[i], separator) <= 0
+                    || !isInt(separator + 1, ends[i]) || parseInt(separator + 1, ends[i]) <= 0) {
+                return "Invalid order line '" + text(i) + "', the format is <productId>:<quantity> with positive integers";
+            }
+            OrderDetailDto detail = new OrderDetailDto();
+            detail.setProductId(parseLong(starts[i], separator));
+            detail.setQuantity(parseInt(separator + 1, ends[i]));
+            details.add(detail);
+        }
+        order.setOrderDetail(details);
+
+        params.setOrder(order);
+        return null;
+    }
+
+    /**
+     * {@code ingest [<file>|-] [--batch <size>] [--rejects <file>]}
+     */
+    private @Nullable String parseIngest(@NotNull ParamsDto params) {
+        params.setFile(STDIN);
+        int positional = 0;
+
+        for (int i = 1; i < count; i++) {
+            if (is(i, "--batch")) {
+                if (++i >= count || !isPositiveInt(i)) {
+                    return "The option --batch must be followed by a positive integer";
+                }
+                params.setBatchSize(intAt(i));
+            } else if (is(i, "--rejects")) {
+                if (++i >= count) {
+                    return "The option --rejects must be followed by the path of the reject file";
+                }
+                params.setRejectFile(text(i));
+            } else if (isOption(i)) {
+                return "Unknown option " + text(i);
+            } else if (++positional > 1) {
+                return "The program received more than one file to ingest";
+            } else {
+                params.setFile(text(i));
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * {@code load [--customers <file>] [--products <file>] [--orders <file>] [--details <file>] [--batch <size>]
+     * [--threads <n>]}
+     */
+    private @Nullable String parseLoad(@NotNull ParamsDto params) {
+        for (int i = 1; i < count; i++) {
+            LoadTable table;
+            if (is(i, "--batch") || is(i, "--threads")) {
+                if (++i >= count || !isPositiveInt(i)) {
+                    return "The option " + text(i - 1) + " must be followed by a positive integer";
+                }
+                if (is(i - 1, "--batch")) {
+                    params.setBatchSize(intAt(i));
+                } else {
+                    params.setThreads(intAt(i));
+                }
+            } else if ((table = loadTableAt(i)) != null) {
+                if (++i >= count) {
+                    return "The option " + text(i - 1) + " must be followed by the path of a CSV file";
+                }
+                params.getLoadFiles().put(table, text(i));
+            } else {
+                return "Unknown option " + text(i);
+            }
+        }
+
+        return params.getLoadFiles().isEmpty()
+                ? "The program didn't receive any file to load (--customers, --products, --orders, --details)" : null;
+    }
+
+    /**
+     * {@code loadtest [--threads <n>] [--duration <seconds>] [--ops <n>] [--mix <operation>=<weight>,...]}
+     */
+    private @Nullable String parseLoadTest(@NotNull ParamsDto params) {
+        for (int i = 1; i < count; i++) {
+            if (is(i, "--threads") || is(i, "--duration") || is(i, "--ops")) {
+                if (++i >= count || !isPositiveInt(i)) {
+                    return "The option " + text(i - 1) + " must be followed by a positive integer";
+                }
+                if (is(i - 1, "--threads")) {
+                    params.setThreads(intAt(i));
+                } else if (is(i - 1, "--duration")) {
+                    params.setDurationSeconds(intAt(i));
+                } else {
+                    params.setOperations(intAt(i));
+                }
+            } else if (is(i, "--mix")) {
+                if (++i >= count) {
+                    return "The option --mix must be followed by <operation>=<weight> pairs separated by commas";
+                }
+                try {
+                    params.setMix(LoadTestOperation.parseMix(text(i)));
+                } catch (IllegalArgumentException e) {
+                    return e.getMessage();
+                }
+            } else {
+                return "Unknown option " + text(i);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * {@code slowlog [clear | off | threshold <ms>]}
+     */
+    private @Nullable String parseSlowLog(@NotNull ParamsDto params) {
+        if (count == 1) {
+            return null;
+        }
+        if (count == 2 && (is(1, "clear") || is(1, "off"))) {
+            params.setAction(is(1, "clear") ? "clear" : "off");
+            return null;
+        }
+        if (count == 3 && is(1, "threshold")) {
+            if (!isLong(2) || longAt(2) < 0) {
+                return "The threshold must be a number of milliseconds (0 or more)";
+            }
+            params.setAction("threshold");
+            params.setThresholdMillis(longAt(2));
+            return null;
+        }
+        return "The command takes no argument, clear, off or threshold <ms>";
+    }
+
+    /**
+     * {@code total <customerId> [--output <format>]}
+     */
+    private @Nullable String parseTotal(@NotNull ParamsDto params) {
+        int customerIds = 0;
+        for (int i = 1; i < count; i++) {
+            if (is(i, OutputFormat.OPTION)) {
+                String error = parseOutputFormat(params, ++i);
+                if (error != null) {
+                    return error;
+                }
+            } else if (++customerIds > 1) {
+                return "The program receive more than one customer ID";
+            } else if (isInt(starts[i], ends[i])) {
+                params.setCustomerId(intAt(i));
+            } else {
+                return "The second argument must be an integer representing the customer ID";
+            }
+        }
+
+        return customerIds == 0 ? "The program didn't receive the customer's ID" : null;
+    }
+
+    /**
+     * Commands that take exactly one action among a few
+     */
+    private @Nullable String parseAction(@NotNull ParamsDto params, @NotNull String error, String @NotNull ... actions) {
+        if (count == 2) {
+            for (String action : actions) {
+                if (is(1, action)) {
+                    params.setAction(action);
+                    return null;
+                }
+            }
+        }
+        return error;
+    }
+
+    private @Nullable String parseOutputFormat(@NotNull ParamsDto params, int token) {
+        if (token < count) {
+            for (OutputFormat format : OUTPUT_FORMATS) {
+                if (equalsIgnoreCase(token, format.getOption())) {
+                    params.setOutputFormat(format);
+                    return null;
+                }
+            }
+        }
+        return "The option " + OutputFormat.OPTION + " must be followed by an output format: "
+                + OutputFormat.listOfValues();
+    }
+
+    private boolean is(int token, @NotNull String value) {
+        int length = ends[token] - starts[token];
+        return length == value.length() && line.regionMatches(starts[token], value, 0, length);
+    }
+
+    private boolean equalsIgnoreCase(int token, @NotNull String value) {
+        int length = ends[token] - starts[token];
+        return length == value.length() && line.regionMatches(true, starts[token], value, 0, length);
+    }
+
+    private boolean isOption(int token) {
+        return line.startsWith(OPTION_PREFIX, starts[token]);
+    }
+
+    private @NotNull String text(int token) {
+        return line.substring(starts[token], ends[token]);
+    }
+
+    private @Nullable OrderStatus statusAt(int token) {
+        for (OrderStatus status : STATUSES) {
+            if (equalsIgnoreCase(token, status.getStatus())) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    private @Nullable LoadTable loadTableAt(int token) {
+        if (!isOption(token)) {
+            return null;
+        }
+        int length = ends[token] - starts[token] - OPTION_PREFIX.length();
+        for (LoadTable table : LOAD_TABLES) {
+            if (length == table.getOption().length()
+                    && line.regionMatches(starts[token] + OPTION_PREFIX.length(), table.getOption(), 0, length)) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    private @Nullable LocalDate dateAt(int token) {
+        try {
+            return LocalDate.parse(line.subSequence(starts[token], ends[token]));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private boolean isLong(int token) {
+        return isLong(starts[token], ends[token]);
+    }
+
+    private long longAt(int token) {
+        return parseLong(starts[token], ends[token]);
+    }
+
+    private boolean isPositiveInt(int token) {
+        return isInt(starts[token], ends[token]) && intAt(token) > 0;
+    }
+
+    private int intAt(int token) {
+        return parseInt(starts[token], ends[token]);
+    }
+
+    private boolean isLong(int start, int end) {
+        return isInteger(start, end, 18);
+    }
+
+    private boolean isInt(int start, int end) {
+        return isInteger(start, end, 9);
+    }
+
+    /**
+     * Checks that a part of the line is an integer (with an optional sign). Only the numbers with more digits than
+     * the type always holds are actually parsed, so invalid input doesn't cost an exception in the common case
+     */
+    private boolean isInteger(int start, int end, int safeDigits) {
+        int digits = start < end && (line.charAt(start) == '-' || line.charAt(start) == '+') ? start + 1 : start;
+        if (digits == end) {
+            return false;
+        }
+        for (int i = digits; i < end; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        if (end - digits <= safeDigits) {
+            return true;
+        }
+
+        try {
+            if (safeDigits > 9) {
+                parseLong(start, end);
+            } else {
+                parseInt(start, end);
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private long parseLong(int start, int end) {
+        return Long.parseLong(line, start, end, 10);
+    }
+
+    private int parseInt(int start, int end) {
+        return Integer.parseInt(line, start, end, 10);
+    }
+}
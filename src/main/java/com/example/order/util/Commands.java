@@ -5,10 +5,18 @@ package com.example.order.util;
  */
 public enum Commands {
     GET("get"),
+    LIST("list"),
     UPDATE("update"),
     DELETE("delete"),
     TOTAL("total"),
+    TOTALS("totals"),
     INSERT("insert"),
+    INGEST("ingest"),
+    LOAD("load"),
+    CACHE("cache"),
+    LOADTEST("loadtest"),
+    STATS("stats"),
+    SLOWLOG("slowlog"),
     HELP("help"),
     EXIT("exit")
     ;
@@ -0,0 +1,30 @@
+package com.example.order.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of the acquisition of a connection from the {@link ConnectionPool}: the wait for a free
+ * connection and, if none was idle, the opening of a new one
+ */
+@Name("com.example.order.ConnectionAcquire")
+@Label("Connection Acquisition")
+@Description("Borrowing of a database connection from the pool")
+@Category({"Orders", "JDBC"})
+@StackTrace(false)
+public class ConnectionEvent extends jdk.jfr.Event {
+
+    @Label("Borrowed")
+    @Description("Connections in use after the acquisition")
+    public int borrowed;
+
+    @Label("Created")
+    @Description("Whether a new physical connection was opened")
+    public boolean created;
+
+    @Label("Timed Out")
+    public boolean timedOut;
+}
@@ -0,0 +1,702 @@
+package com.example.order.util;
+
+import jdk.jfr.EventType;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of physical database connections.
+ * <p>
+ * Connections handed out by {@link #getConnection()} are proxies: calling {@code close()} on them returns the
+ * physical connection to the pool instead of closing it.
+ * <p>
+ * Each physical connection can also keep its prepared statements open for reuse, up to a number of statements per
+ * connection (least recently used evicted first), keyed by SQL text. The statements handed out are proxies too:
+ * closing one clears its parameters and batch and puts it back in the cache of its connection, so DAOs that prepare
+ * the same SQL on every call only parse it once per connection.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Type of the {@link SqlEvent}s, whose flag says if a recording wants them before any event is allocated
+     */
+    private static final EventType SQL_EVENT = EventType.getEventType(SqlEvent.class);
+
+    /**
+     * Type of the {@link ConnectionEvent}s, checked the same way
+     */
+    private static final EventType CONNECTION_EVENT = EventType.getEventType(ConnectionEvent.class);
+
+    /**
+     * Opens new physical connections for the pool
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakDetectionThresholdMillis;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger total = new AtomicInteger();
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder statementEvictions = new LongAdder();
+
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    /**
+     * Constructor
+     *
+     * @param factory                      Object that opens the physical connections
+     * @param minSize                      Number of connections kept open even when idle
+     * @param maxSize                      Maximum number of connections open at the same time
+     * @param acquireTimeoutMillis         Maximum time to wait for a free connection
+     * @param idleTimeoutMillis            Time after which an idle connection above the minimum size is closed
+     * @param leakDetectionThresholdMillis Time after which a borrowed connection is reported as leaked (0 disables it)
+     */
+    public ConnectionPool(@NotNull ConnectionFactory factory, int minSize, int maxSize, long acquireTimeoutMillis,
+                          long idleTimeoutMillis, long leakDetectionThresholdMillis) {
+        this(factory, minSize, maxSize, acquireTimeoutMillis, idleTimeoutMillis, leakDetectionThresholdMillis, 0);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param factory                      Object that opens the physical connections
+     * @param minSize                      Number of connections kept open even when idle
+     * @param maxSize                      Maximum number of connections open at the same time
+     * @param acquireTimeoutMillis         Maximum time to wait for a free connection
+     * @param idleTimeoutMillis            Time after which an idle connection above the minimum size is closed
+     * @param leakDetectionThresholdMillis Time after which a borrowed connection is reported as leaked (0 disables it)
+     * @param statementCacheSize           Prepared statements kept open per connection (0 disables the cache)
+     */
+    public ConnectionPool(@NotNull ConnectionFactory factory, int minSize, int maxSize, long acquireTimeoutMillis,
+                          long idleTimeoutMillis, long leakDetectionThresholdMillis, int statementCacheSize) {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.factory = factory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "orders-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(idleTimeoutMillis,
+                leakDetectionThresholdMillis > 0 ? leakDetectionThresholdMillis : Long.MAX_VALUE) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Opens connections until the pool holds its minimum size
+     *
+     * @throws SQLException In case a connection can't be opened
+     */
+    public void fill() throws SQLException {
+        while (total.get() < minSize) {
+            idle.offerLast(create());
+        }
+    }
+
+    /**
+     * Borrows a connection from the pool, waiting up to the acquisition timeout for one to be free
+     *
+     * @return A connection that goes back to the pool when closed
+     * @throws SQLException In case of a timeout or a database error
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("The connection pool is closed");
+        }
+
+        ConnectionEvent event = CONNECTION_EVENT.isEnabled() ? new ConnectionEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                if (event != null) {
+                    event.timedOut = true;
+                    event.commit();
+                }
+                throw new SQLTimeoutException("Timed out after " + acquireTimeoutMillis
+                        + " ms waiting for a database connection (" + getStats() + ")");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", ex);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled = idle.pollFirst();
+            while (pooled != null && !pooled.isUsable()) {
+                discard(pooled);
+                pooled = idle.pollFirst();
+            }
+            boolean created = pooled == null;
+            if (created) {
+                pooled = create();
+            }
+
+            pooled.borrow(leakDetectionThresholdMillis > 0);
+            borrowed.add(pooled);
+            acquired.increment();
+            if (event != null && event.shouldCommit()) {
+                event.created = created;
+                event.borrowed = borrowed.size();
+                event.commit();
+            }
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Gets a snapshot of the pool statistics
+     *
+     * @return Pool statistics
+     */
+    public PoolStats getStats() {
+        return new PoolStats(borrowed.size(), idle.size(), total.get(), maxSize, permits.getQueueLength(),
+                acquired.sum(), totalWaitNanos.sum(), maxWaitNanos.get(), timeouts.sum(), leaks.sum(), evicted.sum(),
+                statementHits.sum(), statementMisses.sum(), statementEvictions.sum());
+    }
+
+    /**
+     * Closes every idle connection and stops the housekeeping thread
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    /**
+     * Returns a borrowed connection to the pool
+     *
+     * @param pooled Connection to return
+     */
+    private void release(@NotNull PooledConnection pooled) {
+        borrowed.remove(pooled);
+        try {
+            if (pooled.reset() && !closed) {
+                idle.offerFirst(pooled);
+            } else {
+                discard(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Opens a new physical connection
+     *
+     * @return Pooled connection
+     * @throws SQLException In case of a database error
+     */
+    private @NotNull PooledConnection create() throws SQLException {
+        PooledConnection pooled = new PooledConnection(factory.create());
+        total.incrementAndGet();
+        return pooled;
+    }
+
+    /**
+     * Closes a physical connection and removes it from the pool
+     *
+     * @param pooled Connection to discard
+     */
+    private void discard(@NotNull PooledConnection pooled) {
+        total.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException ex) {
+            // The connection is being thrown away, nothing else to do
+        }
+    }
+
+    /**
+     * Records the time a caller waited for a connection
+     *
+     * @param nanos Wait time in nanoseconds
+     */
+    private void recordWait(long nanos) {
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Evicts connections idle for too long and reports borrowed connections that look leaked
+     */
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+
+        Iterator<PooledConnection> it = idle.descendingIterator();
+        while (it.hasNext() && total.get() > minSize) {
+            PooledConnection pooled = it.next();
+            if (now - pooled.lastUsed > idleTimeoutMillis && idle.remove(pooled)) {
+                evicted.increment();
+                discard(pooled);
+            }
+        }
+
+        if (leakDetectionThresholdMillis > 0) {
+            for (PooledConnection pooled : borrowed) {
+                if (!pooled.leakReported && now - pooled.borrowedAt > leakDetectionThresholdMillis) {
+                    pooled.leakReported = true;
+                    leaks.increment();
+                    System.err.println("Possible connection leak: connection borrowed "
+                            + (now - pooled.borrowedAt) + " ms ago was not returned to the pool");
+                    if (pooled.borrowSite != null) {
+                        pooled.borrowSite.printStackTrace();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Physical connection managed by the pool
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final StatementCache statements = new StatementCache();
+        private volatile long lastUsed = System.currentTimeMillis();
+        private volatile long borrowedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        private boolean isUsable() {
+            try {
+                return !physical.isClosed();
+            } catch (SQLException ex) {
+                return false;
+            }
+        }
+
+        private void borrow(boolean recordSite) {
+            borrowedAt = System.currentTimeMillis();
+            borrowSite = recordSite ? new Throwable("Connection borrowed here") : null;
+            leakReported = false;
+        }
+
+        /**
+         * Rolls back any pending work and restores the default state of the connection
+         *
+         * @return true if the connection can be reused, false otherwise
+         */
+        private boolean reset() {
+            lastUsed = System.currentTimeMillis();
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                return true;
+            } catch (SQLException ex) {
+                return false;
+            }
+        }
+
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Handle(this));
+        }
+    }
+
+    /**
+     * Proxy handler of a borrowed connection: one per borrow, so a closed handle can't touch the connection again
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed;
+
+        private Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, @NotNull Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + pooled.physical + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("The connection is closed");
+                    }
+                    if (statementCacheSize > 0 && isCacheable(method)) {
+                        return prepare((Connection) proxy, method, args);
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(pooled.physical, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                    if (result instanceof PreparedStatement && SQL_EVENT.isEnabled()) {
+                        // Not cached, but its executions are still recorded
+                        return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                                new Class<?>[]{result instanceof CallableStatement
+                                        ? CallableStatement.class : PreparedStatement.class},
+                                new TracedStatement((Connection) proxy, (String) args[0], (PreparedStatement) result));
+                    }
+                    return result;
+            }
+        }
+
+        /**
+         * Checks if a method prepares a statement the cache can hold: {@code prepareStatement} or {@code prepareCall}
+         * with the SQL text and optionally int options (generated keys, result set type and concurrency)
+         */
+        private boolean isCacheable(@NotNull Method method) {
+            String name = method.getName();
+            if (!"prepareStatement".equals(name) && !"prepareCall".equals(name)) {
+                return false;
+            }
+            Class<?>[] types = method.getParameterTypes();
+            for (int i = 1; i < types.length; i++) {
+                if (types[i] != int.class) {
+                    return false;
+                }
+            }
+            return types.length <= 3;
+        }
+
+        /**
+         * Takes a statement from the cache of the connection, or prepares it on a miss
+         */
+        private @NotNull Object prepare(@NotNull Connection proxy, @NotNull Method method, Object @NotNull [] args)
+                throws Throwable {
+            boolean call = "prepareCall".equals(method.getName());
+            StatementKey key = new StatementKey((String) args[0], call, args.length,
+                    args.length > 1 ? (Integer) args[1] : 0, args.length > 2 ? (Integer) args[2] : 0);
+
+            PreparedStatement statement = pooled.statements.take(key);
+            if (statement != null) {
+                statementHits.increment();
+            } else {
+                statementMisses.increment();
+                try {
+                    statement = (PreparedStatement) method.invoke(pooled.physical, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            }
+
+            return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{call ? CallableStatement.class : PreparedStatement.class},
+                    new StatementHandle(this, proxy, key, statement));
+        }
+    }
+
+    /**
+     * Proxy handler of a cached statement: closing it puts the statement back in the cache of its connection
+     */
+    private final class StatementHandle implements InvocationHandler {
+        private final Handle connection;
+        private final Connection connectionProxy;
+        private final StatementKey key;
+        private final PreparedStatement physical;
+        private boolean closed;
+
+        private StatementHandle(Handle connection, Connection connectionProxy, StatementKey key,
+                                PreparedStatement physical) {
+            this.connection = connection;
+            this.connectionProxy = connectionProxy;
+            this.key = key;
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, @NotNull Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        recycle();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "getConnection":
+                    return connectionProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached[" + physical + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("The statement is closed");
+                    }
+                    return invokeTraced(physical, key.sql, method, args);
+            }
+        }
+
+        /**
+         * Puts the statement back in the cache with the driver defaults (no parameters, fetch size, row limit or
+         * timeout), or closes it if the connection went back to the pool in between (the connection may already be
+         * used by another thread) or the cache has one for the same SQL
+         */
+        private void recycle() throws SQLException {
+            boolean cached = false;
+            try {
+                if (!connection.closed && !physical.isClosed()) {
+                    physical.clearParameters();
+                    physical.clearBatch();
+                    physical.clearWarnings();
+                    physical.setFetchSize(0);
+                    physical.setMaxRows(0);
+                    physical.setQueryTimeout(0);
+                    cached = connection.pooled.statements.offer(key, physical);
+                }
+            } catch (SQLException ex) {
+                // Not reusable, closed below
+            } finally {
+                if (!cached) {
+                    physical.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Proxy handler of a statement that isn't cached, handed out while a recording wants the {@link SqlEvent}s:
+     * it only records the executions, closing it closes the statement
+     */
+    private static final class TracedStatement implements InvocationHandler {
+        private final Connection connectionProxy;
+        private final String sql;
+        private final PreparedStatement physical;
+
+        private TracedStatement(Connection connectionProxy, String sql, PreparedStatement physical) {
+            this.connectionProxy = connectionProxy;
+            this.sql = sql;
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, @NotNull Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection":
+                    return connectionProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Traced[" + physical + "]";
+                default:
+                    return invokeTraced(physical, sql, method, args);
+            }
+        }
+    }
+
+    /**
+     * Invokes a method of a statement; the executions are recorded in an {@link SqlEvent} if a recording wants it
+     */
+    private static Object invokeTraced(@NotNull PreparedStatement physical, @NotNull String sql,
+                                       @NotNull Method method, Object[] args) throws Throwable {
+        if (!method.getName().startsWith("execute") || !SQL_EVENT.isEnabled()) {
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+        }
+
+        SqlEvent event = new SqlEvent();
+        event.begin();
+        Object result = null;
+        try {
+            result = method.invoke(physical, args);
+            return result;
+        } catch (InvocationTargetException ex) {
+            event.failed = true;
+            throw ex.getCause();
+        } finally {
+            if (event.shouldCommit()) {
+                event.sql = sql;
+                event.method = method.getName();
+                event.rows = rows(result);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Rows affected according to the result of an execute method, -1 for a query
+     */
+    private static long rows(Object result) {
+        if (result instanceof Number) {
+            return ((Number) result).longValue();
+        }
+        if (result instanceof int[]) {
+            long rows = 0;
+            for (int count : (int[]) result) {
+                rows += Math.max(count, 0);
+            }
+            return rows;
+        }
+        return -1;
+    }
+
+    /**
+     * Prepared statements of a physical connection, least recently used first
+     */
+    private final class StatementCache {
+        private final LinkedHashMap<StatementKey, PreparedStatement> statements = new LinkedHashMap<>();
+
+        /**
+         * Removes a statement from the cache, for the time it's in use
+         *
+         * @param key SQL text and options of the statement
+         * @return The statement, or null if it's not cached
+         */
+        private synchronized PreparedStatement take(@NotNull StatementKey key) {
+            return statements.remove(key);
+        }
+
+        /**
+         * Puts a statement in the cache, evicting the least recently used one when the cache is full
+         *
+         * @param key       SQL text and options of the statement
+         * @param statement Statement to cache
+         * @return false if the cache already holds a statement for the key (the caller closes this one)
+         * @throws SQLException In case an evicted statement can't be closed
+         */
+        private boolean offer(@NotNull StatementKey key, @NotNull PreparedStatement statement) throws SQLException {
+            PreparedStatement evicted = null;
+            synchronized (this) {
+                if (statements.putIfAbsent(key, statement) != null) {
+                    return false;
+                }
+                if (statements.size() > statementCacheSize) {
+                    Iterator<Map.Entry<StatementKey, PreparedStatement>> it = statements.entrySet().iterator();
+                    evicted = it.next().getValue();
+                    it.remove();
+                }
+            }
+
+            if (evicted != null) {
+                statementEvictions.increment();
+                evicted.close();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Key of a cached statement: the SQL text and the arguments given to prepare it
+     */
+    private static final class StatementKey {
+        private final String sql;
+        private final boolean call;
+        private final int arguments;
+        private final int option1;
+        private final int option2;
+        private final int hash;
+
+        private StatementKey(String sql, boolean call, int arguments, int option1, int option2) {
+            this.sql = sql;
+            this.call = call;
+            this.arguments = arguments;
+            this.option1 = option1;
+            this.option2 = option2;
+            this.hash = ((sql.hashCode() * 31 + arguments) * 31 + option1) * 31 + option2 + (call ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StatementKey)) {
+                return false;
+            }
+            StatementKey other = (StatementKey) o;
+            return hash == other.hash && call == other.call && arguments == other.arguments
+                    && option1 == other.option1 && option2 == other.option2 && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.order.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * One line of a CSV file, split into fields. The object is reused for every line of a chunk: the bytes of the line
+ * are copied into an internal buffer and fields are only decoded when they're read.
+ * <p>
+ * Fields are separated by commas and may be quoted with {@code "}, a quote inside a quoted field is written twice.
+ */
+public class CsvLine {
+    private byte[] bytes = new byte[256];
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private boolean[] quoted = new boolean[8];
+    private int length;
+    private int fieldCount;
+
+    /**
+     * Replaces the content of this object with a new line
+     *
+     * @param source Buffer positioned at the first byte of the line
+     * @param len    Length of the line, without the line terminator
+     * @throws IllegalArgumentException In case a quoted field isn't closed
+     */
+    public void set(@NotNull ByteBuffer source, int len) {
+        if (bytes.length < len) {
+            bytes = new byte[Math.max(len, bytes.length * 2)];
+        }
+        source.get(bytes, 0, len);
+        length = len > 0 && bytes[len - 1] == '\r' ? len - 1 : len;
+        split();
+    }
+
+    /**
+     * Finds the boundaries of the fields of the current line
+     */
+    private void split() {
+        fieldCount = 0;
+        int pos = 0;
+
+        while (true) {
+            ensureFieldCapacity();
+            if (pos < length && bytes[pos] == '"') {
+                int start = ++pos;
+                while (true) {
+                    if (pos >= length) {
+                        throw new IllegalArgumentException("Unterminated quoted field");
+                    }
+                    if (bytes[pos] == '"') {
+                        if (pos + 1 < length && bytes[pos + 1] == '"') {
+                            pos += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    pos++;
+                }
+                starts[fieldCount] = start;
+                ends[fieldCount] = pos;
+                quoted[fieldCount++] = true;
+                pos++;
+                if (pos < length && bytes[pos] != ',') {
+                    throw new IllegalArgumentException("Unexpected character after a quoted field");
+                }
+            } else {
+                int start = pos;
+                while (pos < length && bytes[pos] != ',') {
+                    pos++;
+                }
+                starts[fieldCount] = start;
+                ends[fieldCount] = pos;
+                quoted[fieldCount++] = false;
+            }
+
+            if (pos >= length) {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private void ensureFieldCapacity() {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+            quoted = Arrays.copyOf(quoted, fieldCount * 2);
+        }
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Checks if the line is empty (or only has blanks)
+     *
+     * @return true if the line has no content
+     */
+    public boolean isBlank() {
+        for (int i = 0; i < length; i++) {
+            if (bytes[i] != ' ' && bytes[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses a field as an integer, without decoding it as a string
+     *
+     * @param field Index of the field
+     * @return Value of the field
+     * @throws IllegalArgumentException In case the field isn't an integer
+     */
+    public long getLong(int field) {
+        int pos = starts[field];
+        int end = ends[field];
+        while (pos < end && bytes[pos] == ' ') {
+            pos++;
+        }
+        while (end > pos && bytes[end - 1] == ' ') {
+            end--;
+        }
+
+        boolean negative = pos < end && bytes[pos] == '-';
+        if (negative) {
+            pos++;
+        }
+        if (pos == end) {
+            throw new IllegalArgumentException("Field " + (field + 1) + " is not an integer");
+        }
+
+        long value = 0;
+        for (; pos < end; pos++) {
+            int digit = bytes[pos] - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                throw new IllegalArgumentException("Field " + (field + 1) + " is not an integer");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Checks if a field is an integer (used to detect header lines)
+     *
+     * @param field Index of the field
+     * @return true if the field is an integer
+     */
+    public boolean isLong(int field) {
+        try {
+            getLong(field);
+            return true;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Decodes a field as a string
+     *
+     * @param field Index of the field
+     * @return Value of the field
+     */
+    public @NotNull String getString(int field) {
+        String value = new String(bytes, starts[field], ends[field] - starts[field], StandardCharsets.UTF_8);
+        return quoted[field] ? value.replace("\"\"", "\"") : value.trim();
+    }
+
+    @Override
+    public String toString() {
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
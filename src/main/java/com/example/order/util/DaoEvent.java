@@ -0,0 +1,29 @@
+package com.example.order.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of a call to a DAO method, emitted by its {@link LatencyRecorder}
+ */
+@Name("com.example.order.Dao")
+@Label("DAO Call")
+@Description("Call to a public method of a DAO")
+@Category({"Orders", "DAO"})
+@StackTrace(false)
+public class DaoEvent extends jdk.jfr.Event {
+
+    @Label("Method")
+    public String method;
+
+    @Label("Rows")
+    @Description("Rows read or affected by the call")
+    public long rows;
+
+    @Label("Failed")
+    @Description("Whether an SQL exception was handled during the call")
+    public boolean failed;
+}
@@ -1,9 +1,5 @@
 package com.example.order.util;
 
-import org.h2.tools.RunScript;
-
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -12,17 +8,41 @@ import java.sql.SQLException;
  * Singleton class to get database connections
  */
 public class Database {
-    private static Database instance = null;
-    private static boolean isInitialized = false;
+    private static volatile Database instance = null;
 
     private final String url = "jdbc:h2:mem:orders;DB_CLOSE_DELAY=-1";
     private final String user = "sa";
     private final String password = "";
 
+    private final ConnectionPool pool;
+    private final SlowQueryLog slowQueryLog = new SlowQueryLog(
+            Long.getLong("orders.slowlog.thresholdMillis", -1L),
+            Integer.getInteger("orders.slowlog.size", SlowQueryLog.DEFAULT_CAPACITY));
+
     /**
      * Private constructor
      */
     private Database() {
+        // Register the driver with this class loader, DriverManager ignores drivers loaded by other ones
+        org.h2.Driver.load();
+
+        pool = new ConnectionPool(this::openConnection,
+                Integer.getInteger("orders.pool.minSize", 2),
+                Integer.getInteger("orders.pool.maxSize", 10),
+                Long.getLong("orders.pool.acquireTimeoutMillis", 30_000L),
+                Long.getLong("orders.pool.idleTimeoutMillis", 60_000L),
+                Long.getLong("orders.pool.leakDetectionMillis", 0L),
+                Integer.getInteger("orders.pool.statementCacheSize", 64));
+
+        try {
+            try (Connection connection = openConnection()) {
+                initializeDatabase(connection);
+            }
+            pool.fill();
+        } catch (SQLException ex) {
+            pool.close();
+            throw new RuntimeException("Database couldn't be initialized", ex);
+        }
     }
 
     /**
@@ -31,41 +51,71 @@ public class Database {
      * @return Instance of the class
      */
     public static Database getInstance() {
-        if (instance == null) {
-            instance = new Database();
+        Database result = instance;
+        if (result == null) {
+            synchronized (Database.class) {
+                result = instance;
+                if (result == null) {
+                    result = new Database();
+                    instance = result;
+                }
+            }
         }
-        return instance;
+        return result;
     }
 
     /**
-     * Run the script to initialize the database
+     * Brings the schema to the last version. The in-memory database outlives this class when it's loaded by
+     * several class loaders of the same JVM (ex. in tests), so the applied versions are read from the database itself
      *
      * @param connection Object that represents a connection to the database
      */
     private static void initializeDatabase(Connection connection) {
         try {
-            InputStream is = Database.class.getResourceAsStream("/db.sql");
-            assert is != null;
-            RunScript.execute(connection, new InputStreamReader(is));
+            new SchemaMigrator().migrate(connection);
         } catch (Exception ex) {
             throw new RuntimeException("Database couldn't be initialized", ex);
         }
     }
 
     /**
-     * Method to get a connection to the database
+     * Opens a new physical connection to the database
+     *
+     * @return A connection object
+     * @throws SQLException In case of a database error
+     */
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    /**
+     * Method to get a connection to the database. The connection is borrowed from a pool and goes back to it
+     * when it's closed. While the slow query log is enabled, its statements are timed
      *
      * @return A connection object
      * @throws SQLException In case of a database error
      */
     public Connection getConnection() throws SQLException {
-        Connection connection = DriverManager.getConnection(url, user, password);
+        Connection connection = pool.getConnection();
+        return slowQueryLog.isEnabled() ? slowQueryLog.wrap(connection) : connection;
+    }
 
-        if (!isInitialized && connection != null) {
-            initializeDatabase(connection);
-            isInitialized = true;
-        }
+    /**
+     * Gets the log of the slow statements
+     *
+     * @return Slow query log, disabled unless the {@code orders.slowlog.thresholdMillis} property or the
+     * {@code slowlog} command sets a threshold
+     */
+    public SlowQueryLog getSlowQueryLog() {
+        return slowQueryLog;
+    }
 
-        return connection;
+    /**
+     * Gets the statistics of the connection pool
+     *
+     * @return Pool statistics
+     */
+    public PoolStats getPoolStats() {
+        return pool.getStats();
     }
 }
@@ -0,0 +1,303 @@
+package com.example.order.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintStream;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reporter of the SQL errors of the application, written as JSON lines by a background thread.
+ * <p>
+ * {@link #report(SQLException)} only counts the error and puts a record in a bounded queue, so the thread that got
+ * the error never waits for the output (the first frames of the stack trace are read by the writer thread); when the
+ * queue is full the record is dropped (and counted). Errors of the same kind (same SQL state and error code) are
+ * rate-limited: one record per kind and time window, the repeats in the window are only counted and written as a
+ * {@code repeated} record when the window is over.
+ * <p>
+ * The number of errors per SQL state is kept for the whole run, see {@link #getCounts()}.
+ */
+public class ErrorReporter implements AutoCloseable {
+    /**
+     * Number of records waiting to be written by default
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Time window of the rate limit by default
+     */
+    public static final long DEFAULT_WINDOW_MILLIS = 10_000;
+
+    /**
+     * Frames of the stack trace written in the record of the first error of a kind
+     */
+    static final int STACK_FRAMES = 10;
+
+    private static final long SWEEP_MILLIS = 1_000;
+    private static final String UNKNOWN_STATE = "unknown";
+
+    private static volatile ErrorReporter instance = null;
+
+    private final PrintStream out;
+    private final long windowNanos;
+    private final BlockingQueue<ErrorRecord> queue;
+    private final Map<String, ErrorKind> kinds = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final JsonWriter json = new JsonWriter();
+    private final Thread writer;
+
+    /**
+     * A kind of error and its current window
+     */
+    private static final class ErrorKind {
+        private static final long NO_WINDOW = Long.MIN_VALUE;
+
+        private final String sqlState;
+        private final int errorCode;
+        private final AtomicLong windowStart = new AtomicLong(NO_WINDOW);
+        private final AtomicLong repeats = new AtomicLong();
+        private volatile String lastMessage;
+
+        private ErrorKind(String sqlState, int errorCode) {
+            this.sqlState = sqlState;
+            this.errorCode = errorCode;
+        }
+
+        /**
+         * Starts a new window if there's none or the current one is over
+         */
+        private boolean tryStartWindow(long now, long windowNanos) {
+            long start = windowStart.get();
+            if (start != NO_WINDOW && now - start < windowNanos) {
+                return false;
+            }
+            return windowStart.compareAndSet(start, now);
+        }
+    }
+
+    /**
+     * An error to write: a first occurrence, or the number of repeats of a kind at the end of its window
+     */
+    private static final class ErrorRecord {
+        private final Instant time;
+        private final ErrorKind kind;
+        private final String message;
+        private final String thread;
+        private final long repeated;
+        private final Throwable error;
+
+        private ErrorRecord(Instant time, ErrorKind kind, String message, String thread, long repeated,
+                            Throwable error) {
+            this.time = time;
+            this.kind = kind;
+            this.message = message;
+            this.thread = thread;
+            this.repeated = repeated;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Constructor, starts the thread that writes the records
+     *
+     * @param out          Stream the records are written to
+     * @param capacity     Number of records that can wait to be written, the ones over it are dropped
+     * @param windowMillis Time window of the rate limit of each kind of error
+     */
+    public ErrorReporter(@NotNull PrintStream out, int capacity, long windowMillis) {
+        this.out = out;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.writer = new Thread(this::writeRecords, "error-reporter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Gets the reporter of the application, writing to the standard error. The queue and the window can be set with
+     * the system properties {@code orders.errors.bufferSize} and {@code orders.errors.windowMillis}. The records still
+     * waiting when the application exits are written by a shutdown hook
+     *
+     * @return Instance of the class
+     */
+    public static ErrorReporter getInstance() {
+        ErrorReporter result = instance;
+        if (result == null) {
+            synchronized (ErrorReporter.class) {
+                result = instance;
+                if (result == null) {
+                    result = new ErrorReporter(System.err,
+                            Integer.getInteger("orders.errors.bufferSize", DEFAULT_CAPACITY),
+                            Long.getLong("orders.errors.windowMillis", DEFAULT_WINDOW_MILLIS));
+                    Runtime.getRuntime().addShutdownHook(new Thread(result::close, "error-reporter-shutdown"));
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reports an error without waiting for it to be written
+     *
+     * @param ex Error to report
+     * @return true if it's the first error of its kind in the window (a record is written for it), false if it's a
+     * repeat that is only counted
+     */
+    public boolean report(@NotNull SQLException ex) {
+        String sqlState = ex.getSQLState() != null ? ex.getSQLState() : UNKNOWN_STATE;
+        int errorCode = ex.getErrorCode();
+        String message = ex.getMessage();
+
+        counts.computeIfAbsent(sqlState, state -> new LongAdder()).increment();
+
+        ErrorKind kind = kinds.computeIfAbsent(sqlState + '/' + errorCode, key -> new ErrorKind(sqlState, errorCode));
+        if (!kind.tryStartWindow(System.nanoTime(), windowNanos)) {
+            kind.lastMessage = message;
+            kind.repeats.incrementAndGet();
+            return false;
+        }
+
+        // The repeats of the previous window, if the writer didn't see it end yet
+        long repeated = kind.repeats.getAndSet(0);
+        if (repeated > 0) {
+            enqueue(new ErrorRecord(Instant.now(), kind, kind.lastMessage, null, repeated, null));
+        }
+        kind.lastMessage = message;
+        enqueue(new ErrorRecord(Instant.now(), kind, message, Thread.currentThread().getName(), 0, ex));
+        return true;
+    }
+
+    /**
+     * Gets the number of errors per SQL state
+     *
+     * @return Errors reported since the start (or the last reset), by SQL state
+     */
+    public @NotNull Map<String, Long> getCounts() {
+        Map<String, Long> result = new TreeMap<>();
+        counts.forEach((state, count) -> result.put(state, count.sum()));
+        return result;
+    }
+
+    /**
+     * Gets the number of errors of a SQL state
+     *
+     * @param sqlState SQL state
+     * @return Errors reported since the start (or the last reset)
+     */
+    public long getCount(@NotNull String sqlState) {
+        LongAdder count = counts.get(sqlState);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Gets the number of records dropped because the queue was full
+     *
+     * @return Records dropped since the start
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Forgets the counts per SQL state
+     */
+    public void resetCounts() {
+        counts.clear();
+    }
+
+    /**
+     * Writes the records still waiting and stops the writer thread
+     */
+    @Override
+    public void close() {
+        writer.interrupt();
+        try {
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void enqueue(@NotNull ErrorRecord record) {
+        if (!queue.offer(record)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Loop of the writer thread: writes the records as they come and, every second, the repeats of the windows
+     * that are over
+     */
+    private void writeRecords() {
+        long lastSweep = System.nanoTime();
+        try {
+            while (true) {
+                ErrorRecord record = queue.poll(SWEEP_MILLIS, TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    write(record);
+                }
+                if (System.nanoTime() - lastSweep >= TimeUnit.MILLISECONDS.toNanos(SWEEP_MILLIS)) {
+                    writeRepeats(false);
+                    lastSweep = System.nanoTime();
+                }
+            }
+        } catch (InterruptedException ex) {
+            List<ErrorRecord> remaining = new ArrayList<>();
+            queue.drainTo(remaining);
+            for (ErrorRecord record : remaining) {
+                write(record);
+            }
+            writeRepeats(true);
+        }
+    }
+
+    /**
+     * Writes the repeats of the kinds whose window is over (or of all of them)
+     */
+    private void writeRepeats(boolean all) {
+        long now = System.nanoTime();
+        for (ErrorKind kind : kinds.values()) {
+            long start = kind.windowStart.get();
+            if ((all || (start != ErrorKind.NO_WINDOW && now - start >= windowNanos)) && kind.repeats.get() > 0) {
+                long repeated = kind.repeats.getAndSet(0);
+                if (repeated > 0) {
+                    write(new ErrorRecord(Instant.now(), kind, kind.lastMessage, null, repeated, null));
+                }
+            }
+        }
+    }
+
+    private void write(@NotNull ErrorRecord record) {
+        json.reset().beginObject()
+                .name("time").value(record.time.toString())
+                .name("sqlState").value(record.kind.sqlState)
+                .name("errorCode").value(record.kind.errorCode)
+                .name("message").value(record.message);
+        if (record.repeated > 0) {
+            json.name("repeated").value(record.repeated);
+        } else {
+            json.name("thread").value(record.thread);
+            StackTraceElement[] frames = record.error.getStackTrace();
+            if (frames != null && frames.length > 0) {
+                json.name("stackTrace").beginArray();
+                for (int i = 0; i < frames.length && i < STACK_FRAMES; i++) {
+                    json.value(frames[i].toString());
+                }
+                json.endArray();
+            }
+        }
+        out.println(json.endObject());
+    }
+}
@@ -10,15 +10,15 @@ import java.sql.SQLException;
 public class ExceptionHandler {
 
     /**
-     * Method to extract and print information from a SQLException
+     * Method to extract and report the information of a SQLException. The error code, SQL state, message and first
+     * frames of the stack trace are written as a record by the {@link ErrorReporter}, in the background and
+     * rate-limited by kind of error, so the calling thread never waits for the output. The DAO call in progress on
+     * the thread counts as an error in the {@link Metrics}
      *
      * @param sqlException Exception from which information will be extracted
      */
     public static void handleException(@NotNull SQLException sqlException) {
-        System.out.println(sqlException.getErrorCode());
-        System.out.println(sqlException.getSQLState());
-        System.out.println(sqlException.getMessage());
-        sqlException.printStackTrace();
-
+        Metrics.errorOccurred();
+        ErrorReporter.getInstance().report(sqlException);
     }
 }
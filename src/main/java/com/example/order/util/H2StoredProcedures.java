@@ -5,12 +5,21 @@ import org.jetbrains.annotations.NotNull;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.util.StringJoiner;
 
 /**
  * Class that defines the stored procedures for the database
  */
 public class H2StoredProcedures {
+    /**
+     * Query that sums the paid orders of a customer with one join/aggregate. The SQL text is the same for every
+     * customer, so the database parses and plans it only once per connection
+     */
+    public static final String PAID_ORDER_TOTAL_SQL = "SELECT SUM(p.product_price * d.order_detail_quantity) " +
+            "FROM orders o " +
+            "JOIN order_details d ON d.order_detail_order_id = o.order_id " +
+            "JOIN products p ON p.product_id = d.order_detail_product_id " +
+            "WHERE o.order_customer_id = ? AND o.order_status = '" + OrderStatus.PAID.getStatus() + "'";
+
     /**
      * Represents a stored-procedure that gets the total of all paid orders of a customer
      *
@@ -20,22 +29,8 @@ public class H2StoredProcedures {
      * @throws Exception In case of a database error
      */
     public static ResultSet getPaidOrderTotalFromCustomer(@NotNull Connection conn, Long customerId) throws Exception {
-        StringJoiner joiner = new StringJoiner(",");
-        StringBuilder sql = new StringBuilder();
-        sql.append("SELECT order_id FROM orders ");
-        sql.append("WHERE order_status='paid' AND order_customer_id=").append(customerId);
-
-        PreparedStatement ps = conn.prepareStatement(sql.toString());
-        ResultSet results = ps.executeQuery();
-        while (results.next())
-            joiner.add(results.getString("order_id"));
-
-        sql = new StringBuilder();
-        sql.append("SELECT SUM( MULT(product_price, order_detail_quantity) ) FROM order_details, products ");
-        sql.append("WHERE order_detail_product_id = product_id ");
-        sql.append("AND order_detail_order_id IN (").append(joiner.toString()).append(")");
-
-        ps = conn.prepareStatement(sql.toString());
+        PreparedStatement ps = conn.prepareStatement(PAID_ORDER_TOTAL_SQL);
+        ps.setLong(1, customerId);
         return ps.executeQuery();
     }
 
@@ -0,0 +1,274 @@
+package com.example.order.util;
+
+import com.example.order.dto.OrderDetailDto;
+import com.example.order.dto.OrderDto;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Writer of JSON documents, meant to be reused: the text and its UTF-8 encoding are kept in buffers that grow as
+ * needed and are emptied by {@link #reset()}, so writing a response doesn't allocate once the buffers are big enough.
+ * <p>
+ * Commas are added automatically between the members of objects and arrays. It isn't thread-safe, each thread must
+ * use its own writer.
+ */
+public class JsonWriter {
+    /**
+     * Buffers that grew over this size are dropped on reset, so that one big document doesn't pin memory forever
+     */
+    private static final int MAX_RETAINED_SIZE = 64 * 1024;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private StringBuilder sb = new StringBuilder(256);
+    private byte[] bytes = new byte[256];
+    private char[] chars = new char[256];
+
+    /**
+     * Empties the writer to start a new document
+     *
+     * @return This object
+     */
+    public @NotNull JsonWriter reset() {
+        if (sb.capacity() > MAX_RETAINED_SIZE) {
+            sb = new StringBuilder(256);
+        }
+        if (bytes.length > MAX_RETAINED_SIZE) {
+            bytes = new byte[256];
+        }
+        if (chars.length > MAX_RETAINED_SIZE) {
+            chars = new char[256];
+        }
+        sb.setLength(0);
+        return this;
+    }
+
+    public @NotNull JsonWriter beginObject() {
+        separate();
+        sb.append('{');
+        return this;
+    }
+
+    public @NotNull JsonWriter endObject() {
+        sb.append('}');
+        return this;
+    }
+
+    public @NotNull JsonWriter beginArray() {
+        separate();
+        sb.append('[');
+        return this;
+    }
+
+    public @NotNull JsonWriter endArray() {
+        sb.append(']');
+        return this;
+    }
+
+    /**
+     * Writes the name of the next member of an object
+     *
+     * @param name Name of the member (written as is, it must not need escaping)
+     * @return This object
+     */
+    public @NotNull JsonWriter name(@NotNull String name) {
+        separate();
+        sb.append('"').append(name).append("\":");
+        return this;
+    }
+
+    public @NotNull JsonWriter value(long value) {
+        separate();
+        sb.append(value);
+        return this;
+    }
+
+    public @NotNull JsonWriter value(BigDecimal value) {
+        separate();
+        if (value == null) {
+            sb.append("null");
+        } else {
+            sb.append(value.toPlainString());
+        }
+        return this;
+    }
+
+    public @NotNull JsonWriter value(String value) {
+        separate();
+        if (value == null) {
+            sb.append("null");
+            return this;
+        }
+
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else if (c == '\r') {
+                sb.append("\\r");
+            } else if (c == '\t') {
+                sb.append("\\t");
+            } else if (c < 0x20) {
+                sb.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+        return this;
+    }
+
+    /**
+     * Writes a date as an ISO-8601 local date-time (ex. {@code "2012-09-17T00:00:00"})
+     *
+     * @param value Date to write
+     * @return This object
+     */
+    public @NotNull JsonWriter value(Date value) {
+        separate();
+        if (value == null) {
+            sb.append("null");
+            return this;
+        }
+
+        sb.append('"');
+        appendDate(sb, value);
+        sb.append('"');
+        return this;
+    }
+
+    /**
+     * Appends a date as an ISO-8601 local date-time, without building any intermediate string
+     *
+     * @param sb    Destination of the text
+     * @param value Date to append
+     */
+    static void appendDate(@NotNull StringBuilder sb, @NotNull Date value) {
+        // java.sql.Date doesn't support toInstant()
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(value.getTime()), ZONE), sb);
+    }
+
+    /**
+     * Writes an order, with its detail lines when it has them
+     *
+     * @param order Order to write
+     * @return This object
+     */
+    public @NotNull JsonWriter order(@NotNull OrderDto order) {
+        beginObject()
+                .name("orderId").value(order.getOrderId())
+                .name("customerId").value(order.getCustomerId())
+                .name("date").value(order.getDate())
+                .name("status").value(order.getStatus());
+        if (order.getOrderDetail() != null) {
+            name("details").beginArray();
+            for (OrderDetailDto detail : order.getOrderDetail()) {
+                detail(detail);
+            }
+            endArray();
+        }
+        return endObject();
+    }
+
+    /**
+     * Writes a detail line of an order, with the name and price of its product when they were read
+     *
+     * @param detail Detail line to write
+     * @return This object
+     */
+    public @NotNull JsonWriter detail(@NotNull OrderDetailDto detail) {
+        beginObject().name("productId").value(detail.getProductId());
+        if (detail.getProductName() != null) {
+            name("productName").value(detail.getProductName());
+        }
+        if (detail.getProductPrice() != null) {
+            name("price").value(detail.getProductPrice());
+        }
+        return name("quantity").value(detail.getQuantity())
+                .endObject();
+    }
+
+    /**
+     * Encodes the document in UTF-8 into the byte buffer of the writer
+     *
+     * @return Number of bytes of the document, see {@link #getBytes()}
+     */
+    public int encode() {
+        int length = sb.length();
+        if (bytes.length < length) {
+            bytes = new byte[Math.max(length, bytes.length * 2)];
+        }
+
+        for (int i = 0; i < length; i++) {
+            char c = sb.charAt(i);
+            if (c >= 0x80) {
+                // Not only ASCII, let the charset deal with it
+                byte[] encoded = sb.toString().getBytes(StandardCharsets.UTF_8);
+                if (bytes.length < encoded.length) {
+                    bytes = Arrays.copyOf(encoded, encoded.length);
+                } else {
+                    System.arraycopy(encoded, 0, bytes, 0, encoded.length);
+                }
+                return encoded.length;
+            }
+            bytes[i] = (byte) c;
+        }
+        return length;
+    }
+
+    /**
+     * Gets the buffer filled by {@link #encode()}. It's reused by the next document
+     *
+     * @return Buffer with the encoded document at the beginning
+     */
+    public byte @NotNull [] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Writes the document to a writer, through a reused char buffer instead of a string
+     *
+     * @param out Destination of the document
+     */
+    public void writeTo(@NotNull PrintWriter out) {
+        int length = sb.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        sb.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+
+    /**
+     * Adds a comma when a member or an element follows another one
+     */
+    private void separate() {
+        int length = sb.length();
+        if (length > 0) {
+            char last = sb.charAt(length - 1);
+            if (last != '{' && last != '[' && last != ':') {
+                sb.append(',');
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.order.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Histogram of latencies with a fixed relative precision, to compute percentiles without keeping every sample.
+ * <p>
+ * Values below 128 ns have their own bucket; above that each power of two is split into 64 buckets, so a percentile
+ * is at most 1.6% above the real value and the histogram always takes about 30 KB whatever the number of samples.
+ * It isn't thread-safe: each thread records into its own histogram and they are added together at the end.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Number of buckets of a histogram
+     */
+    static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts;
+    private long count;
+    private long sum;
+    private long max;
+
+    /**
+     * Constructor of an empty histogram
+     */
+    public LatencyHistogram() {
+        this.counts = new long[BUCKETS];
+    }
+
+    /**
+     * Constructor of a histogram with samples already counted (ex. by a {@link LatencyRecorder})
+     *
+     * @param counts Number of samples of every bucket, see {@link #index(long)}
+     * @param sum    Sum of the samples
+     * @param max    Highest sample
+     */
+    LatencyHistogram(long @NotNull [] counts, long sum, long max) {
+        this.counts = counts;
+        for (long bucket : counts) {
+            this.count += bucket;
+        }
+        this.sum = sum;
+        this.max = max;
+    }
+
+    /**
+     * Records a latency
+     *
+     * @param nanos Latency in nanoseconds (negative values count as 0)
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[index(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds the samples of another histogram to this one
+     *
+     * @param other Histogram to add
+     * @return This object
+     */
+    public @NotNull LatencyHistogram add(@NotNull LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Average of the recorded latencies
+     *
+     * @return Average in nanoseconds, 0 when nothing was recorded
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Gets the latency below which a percentage of the samples fall
+     *
+     * @param percentile Percentage between 0 and 100 (ex. 99 for the p99)
+     * @return Latency in nanoseconds (the top of its bucket), 0 when nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Bucket of a value: the value itself below 128, then 64 buckets per power of two
+     */
+    static int index(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /**
+     * Highest value that falls into a bucket
+     */
+    static long highestValue(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
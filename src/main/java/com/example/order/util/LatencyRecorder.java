@@ -0,0 +1,129 @@
+package com.example.order.util;
+
+import jdk.jfr.EventType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recorder of the latencies, errors and rows of one kind of operation (a command or a DAO call), shared by all the
+ * threads.
+ * <p>
+ * Recording is lock-free: the latency goes into the bucket of a {@link LatencyHistogram} held in an atomic array,
+ * and the totals into {@link LongAdder}s, so threads recording at the same time don't wait for each other. The
+ * statistics are computed from a snapshot of the buckets; samples recorded while the snapshot is taken may be
+ * counted in some totals and not in others.
+ */
+public class LatencyRecorder {
+    /**
+     * Type of the {@link DaoEvent}s, whose flag says if a recording wants them before any event is allocated
+     */
+    private static final EventType DAO_EVENT = EventType.getEventType(DaoEvent.class);
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(LatencyHistogram.BUCKETS);
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+
+    /**
+     * Constructor
+     *
+     * @param name Name of the operation
+     */
+    LatencyRecorder(@NotNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * Starts timing a DAO call on the current thread, and a {@link DaoEvent} if a flight recording wants it
+     *
+     * @return Start time, to give to {@link #stop(long, long)}
+     */
+    public long start() {
+        Metrics.Context context = Metrics.context();
+        context.failed = false;
+        if (DAO_EVENT.isEnabled()) {
+            DaoEvent event = new DaoEvent();
+            event.begin();
+            context.daoEvent = event;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a DAO call started by {@link #start()}. The call counts as an error if an SQL exception was handled on
+     * the thread in between; its rows and error also count for the command that made the call, if any
+     *
+     * @param start Start time returned by {@link #start()}
+     * @param rows  Rows read or affected by the call
+     */
+    public void stop(long start, long rows) {
+        Metrics.Context context = Metrics.context();
+        record(System.nanoTime() - start, rows, context.failed);
+        context.commandRows += rows;
+        context.commandFailed |= context.failed;
+
+        DaoEvent event = context.daoEvent;
+        if (event != null) {
+            context.daoEvent = null;
+            if (event.shouldCommit()) {
+                event.method = name;
+                event.rows = rows;
+                event.failed = context.failed;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Records an operation
+     *
+     * @param nanos  Latency in nanoseconds (negative values count as 0)
+     * @param rows   Rows read or affected by the operation
+     * @param failed Whether the operation failed
+     */
+    public void record(long nanos, long rows, boolean failed) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(LatencyHistogram.index(value));
+        sum.add(value);
+        max.accumulate(value);
+        this.rows.add(rows);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Takes a snapshot of the statistics
+     *
+     * @return Statistics recorded since the start (or the last reset)
+     */
+    public @NotNull MetricStats getStats() {
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        LatencyHistogram histogram = new LatencyHistogram(snapshot, sum.sum(), max.get());
+
+        return new MetricStats(name, histogram.getCount(), errors.sum(), rows.sum(), histogram.getMean(),
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(95),
+                histogram.getValueAtPercentile(99), histogram.getMax());
+    }
+
+    /**
+     * Forgets what was recorded
+     */
+    void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        sum.reset();
+        max.reset();
+        errors.reset();
+        rows.reset();
+    }
+}
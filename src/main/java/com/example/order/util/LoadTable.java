@@ -0,0 +1,121 @@
+package com.example.order.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Enum that represents the tables the bulk loader can fill, in the order they have to be loaded
+ * (a table only references tables listed before it)
+ */
+public enum LoadTable {
+    CUSTOMERS("customers",
+            "INSERT INTO customers (customer_id, customer_name, customer_email) VALUES (?, ?, ?)",
+            ColumnType.LONG, ColumnType.STRING, ColumnType.STRING),
+    PRODUCTS("products",
+            "INSERT INTO products (product_id, product_name, product_price) VALUES (?, ?, ?)",
+            ColumnType.LONG, ColumnType.STRING, ColumnType.DECIMAL),
+    ORDERS("orders",
+            "INSERT INTO orders (order_id, order_customer_id, order_date, order_status) VALUES (?, ?, ?, ?)",
+            ColumnType.LONG, ColumnType.LONG, ColumnType.TIMESTAMP, ColumnType.STRING),
+    ORDER_DETAILS("details",
+            "INSERT INTO order_details (order_detail_order_id, order_detail_product_id, order_detail_quantity) VALUES (?, ?, ?)",
+            ColumnType.LONG, ColumnType.LONG, ColumnType.LONG);
+
+    private final String option;
+    private final String insertSql;
+    private final ColumnType[] columns;
+
+    /**
+     * Constructor
+     *
+     * @param option    Name of the table in the load command (ex. --details)
+     * @param insertSql SQL statement that inserts one row
+     * @param columns   Types of the columns of the CSV file, in order
+     */
+    LoadTable(String option, String insertSql, ColumnType... columns) {
+        this.option = option;
+        this.insertSql = insertSql;
+        this.columns = columns;
+    }
+
+    public String getOption() {
+        return option;
+    }
+
+    public String getInsertSql() {
+        return insertSql;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * Sets the fields of a CSV line as the parameters of the insert statement
+     *
+     * @param ps   PreparedStatement object of the insert statement
+     * @param line Parsed CSV line
+     * @throws SQLException             In case of a database error
+     * @throws IllegalArgumentException In case a field doesn't have the type of its column
+     */
+    public void bind(@NotNull PreparedStatement ps, @NotNull CsvLine line) throws SQLException {
+        if (line.getFieldCount() != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " fields but found " + line.getFieldCount());
+        }
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].bind(ps, i + 1, line, i);
+        }
+    }
+
+    /**
+     * Finds a table by its name in the load command
+     *
+     * @param option Name of the table (ex. customers)
+     * @return The table, or null if there's no table with that name
+     */
+    public static LoadTable fromOption(String option) {
+        for (LoadTable table : values()) {
+            if (table.option.equals(option)) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Types of the columns of the CSV files
+     */
+    private enum ColumnType {
+        LONG {
+            @Override
+            void bind(PreparedStatement ps, int index, CsvLine line, int field) throws SQLException {
+                ps.setLong(index, line.getLong(field));
+            }
+        },
+        STRING {
+            @Override
+            void bind(PreparedStatement ps, int index, CsvLine line, int field) throws SQLException {
+                ps.setString(index, line.getString(field));
+            }
+        },
+        DECIMAL {
+            @Override
+            void bind(PreparedStatement ps, int index, CsvLine line, int field) throws SQLException {
+                ps.setBigDecimal(index, new BigDecimal(line.getString(field)));
+            }
+        },
+        TIMESTAMP {
+            @Override
+            void bind(PreparedStatement ps, int index, CsvLine line, int field) throws SQLException {
+                String value = line.getString(field);
+                ps.setTimestamp(index, Timestamp.valueOf(value.length() == 10 ? value + " 00:00:00" : value));
+            }
+        };
+
+        abstract void bind(PreparedStatement ps, int index, CsvLine line, int field) throws SQLException;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.order.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Enum that represents the operations the load test runs, with their share of the default mix
+ */
+public enum LoadTestOperation {
+    GET("get", 60),
+    UPDATE("update", 15),
+    INSERT("insert", 10),
+    DELETE("delete", 5),
+    TOTAL("total", 10);
+
+    private final String option;
+    private final int defaultWeight;
+
+    /**
+     * Constructor
+     *
+     * @param option        Name of the operation in the mix of the loadtest command
+     * @param defaultWeight Weight of the operation when the command doesn't give a mix
+     */
+    LoadTestOperation(String option, int defaultWeight) {
+        this.option = option;
+        this.defaultWeight = defaultWeight;
+    }
+
+    public String getOption() {
+        return option;
+    }
+
+    /**
+     * Gets the mix used when the command doesn't give one
+     *
+     * @return Weight of every operation
+     */
+    public static @NotNull Map<LoadTestOperation, Integer> defaultMix() {
+        Map<LoadTestOperation, Integer> mix = new EnumMap<>(LoadTestOperation.class);
+        for (LoadTestOperation operation : values()) {
+            mix.put(operation, operation.defaultWeight);
+        }
+        return mix;
+    }
+
+    /**
+     * Parses a mix of operations with the format {@code get=60,update=15,...}. The weights are relative, they don't
+     * need to add up to 100; operations not listed aren't run
+     *
+     * @param mix Mix to parse
+     * @return Weight of every listed operation
+     * @throws IllegalArgumentException In case the mix is malformed
+     */
+    public static @NotNull Map<LoadTestOperation, Integer> parseMix(@NotNull String mix) {
+        Map<LoadTestOperation, Integer> weights = new EnumMap<>(LoadTestOperation.class);
+
+        for (String item : mix.split(",")) {
+            int separator = item.indexOf('=');
+            LoadTestOperation operation = separator > 0 ? fromOption(item.substring(0, separator)) : null;
+            if (operation == null) {
+                throw new IllegalArgumentException("Invalid operation '" + item + "', the format is <operation>=<weight>");
+            }
+
+            int weight;
+            try {
+                weight = Integer.parseInt(item.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                weight = -1;
+            }
+            if (weight < 0) {
+                throw new IllegalArgumentException("The weight of " + operation.option + " must be a non-negative integer");
+            }
+            weights.put(operation, weight);
+        }
+
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("At least one operation must have a positive weight");
+        }
+        return weights;
+    }
+
+    /**
+     * Finds an operation by its name in the mix
+     *
+     * @param option Name of the operation (ex. get)
+     * @return The operation, or null if there's no operation with that name
+     */
+    public static LoadTestOperation fromOption(String option) {
+        for (LoadTestOperation operation : values()) {
+            if (operation.option.equals(option)) {
+                return operation;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.order.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV file read through memory-mapped chunks.
+ * <p>
+ * The file is split into chunks that start and end at line boundaries, so that every chunk can be parsed on its own
+ * thread. Each chunk is mapped separately when it's read, which keeps the mappings under the 2 GB limit of a
+ * {@link MappedByteBuffer} and lets the OS page the file in as the chunks are consumed.
+ */
+public class MappedCsvFile {
+    /**
+     * Smallest chunk worth handing to another thread
+     */
+    private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * Largest chunk mapped at once
+     */
+    private static final long MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+    private final Path path;
+    private final long size;
+
+    /**
+     * Constructor
+     *
+     * @param path Path of the CSV file
+     * @throws IOException In case the file can't be read
+     */
+    public MappedCsvFile(@NotNull Path path) throws IOException {
+        this.path = path;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.size = channel.size();
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Splits the file into chunks that end at a line boundary
+     *
+     * @param chunks Number of chunks wanted (the result may have fewer for small files, or more for huge ones)
+     * @return Chunks of the file, in order
+     * @throws IOException In case the file can't be read
+     */
+    public @NotNull List<Chunk> split(int chunks) throws IOException {
+        long target = Math.min(MAX_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, size / Math.max(1, chunks)));
+        List<Chunk> result = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long start = 0;
+            while (start < size) {
+                long end = start + target >= size ? size : nextLineStart(channel, start + target);
+                result.add(new Chunk(start, end));
+                start = end;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Finds the first position after the end of the line that contains a position
+     *
+     * @param channel  Channel of the file
+     * @param position Position inside a line
+     * @return Position of the first byte of the next line, or the size of the file
+     * @throws IOException In case the file can't be read
+     */
+    private long nextLineStart(@NotNull FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+
+        return size;
+    }
+
+    /**
+     * Consumer of the lines of a chunk
+     */
+    @FunctionalInterface
+    public interface LineHandler {
+        /**
+         * Receives one line. The line object is reused, so it's only valid during the call
+         *
+         * @param line   Parsed line, or null if the line couldn't be split into fields
+         * @param offset Position of the first byte of the line in the file
+         * @param error  Reason why the line couldn't be split, or null
+         */
+        void handle(CsvLine line, long offset, String error);
+    }
+
+    /**
+     * Part of the file that starts at the beginning of a line and ends after a line terminator (or at the end of the
+     * file)
+     */
+    public final class Chunk {
+        private final long start;
+        private final long end;
+
+        private Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        /**
+         * Maps the chunk and passes each line to a handler. Blank lines are skipped
+         *
+         * @param handler Consumer of the lines
+         * @throws IOException In case the file can't be mapped
+         */
+        public void forEachLine(@NotNull LineHandler handler) throws IOException {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                // The mapping stays valid after the channel is closed
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            }
+
+            CsvLine line = new CsvLine();
+            int limit = buffer.limit();
+            int lineStart = 0;
+
+            while (lineStart < limit) {
+                int lineEnd = lineStart;
+                while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+
+                String error = null;
+                buffer.position(lineStart);
+                try {
+                    line.set(buffer, lineEnd - lineStart);
+                } catch (IllegalArgumentException ex) {
+                    error = ex.getMessage();
+                }
+
+                if (error != null) {
+                    handler.handle(null, start + lineStart, error);
+                } else if (!line.isBlank()) {
+                    handler.handle(line, start + lineStart, null);
+                }
+                lineStart = lineEnd + 1;
+            }
+        }
+    }
+}
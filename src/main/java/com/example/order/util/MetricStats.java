@@ -0,0 +1,102 @@
+package com.example.order.util;
+
+/**
+ * Snapshot of the statistics of a command or a DAO call
+ */
+public class MetricStats {
+
+    private final String name;
+
+    private final long count;
+
+    private final long errors;
+
+    private final long rows;
+
+    private final double meanNanos;
+
+    private final long p50Nanos;
+
+    private final long p95Nanos;
+
+    private final long p99Nanos;
+
+    private final long maxNanos;
+
+    /**
+     * Constructor
+     *
+     * @param name      Name of the command or the DAO call
+     * @param count     Number of calls
+     * @param errors    Calls that failed
+     * @param rows      Rows read or affected by the calls
+     * @param meanNanos Average latency
+     * @param p50Nanos  Median latency
+     * @param p95Nanos  95th percentile of the latency
+     * @param p99Nanos  99th percentile of the latency
+     * @param maxNanos  Highest latency
+     */
+    public MetricStats(String name, long count, long errors, long rows, double meanNanos, long p50Nanos,
+                       long p95Nanos, long p99Nanos, long maxNanos) {
+        this.name = name;
+        this.count = count;
+        this.errors = errors;
+        this.rows = rows;
+        this.meanNanos = meanNanos;
+        this.p50Nanos = p50Nanos;
+        this.p95Nanos = p95Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public double getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP95Nanos() {
+        return p95Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "MetricStats{" +
+                "name='" + name + '\'' +
+                ", count=" + count +
+                ", errors=" + errors +
+                ", rows=" + rows +
+                ", meanNanos=" + meanNanos +
+                ", p50Nanos=" + p50Nanos +
+                ", p95Nanos=" + p95Nanos +
+                ", p99Nanos=" + p99Nanos +
+                ", maxNanos=" + maxNanos +
+                '}';
+    }
+}
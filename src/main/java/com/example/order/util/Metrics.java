@@ -0,0 +1,190 @@
+package com.example.order.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency histograms, error counts and rows of every command and every DAO call.
+ * <p>
+ * The DAOs time their public methods with a {@link LatencyRecorder}; a DAO call counts as an error when an SQL
+ * exception goes through {@link ExceptionHandler} during the call. The commands are timed around
+ * {@code OrderService.execute}, and their rows and errors are those of the DAO calls they make on the same thread.
+ * <p>
+ * The metrics are shown by the {@code stats} command and exported through JMX as the MXBean
+ * {@code com.example.order:type=Metrics}, so a monitoring agent or JConsole can read them from a running application.
+ */
+public class Metrics implements MetricsMXBean {
+    /**
+     * Name of the MXBean
+     */
+    public static final String OBJECT_NAME = "com.example.order:type=Metrics";
+
+    private static final ThreadLocal<Context> CONTEXT = ThreadLocal.withInitial(Context::new);
+
+    private static volatile Metrics instance = null;
+
+    private final Map<String, LatencyRecorder> commands = new ConcurrentHashMap<>();
+    private final Map<String, LatencyRecorder> daoCalls = new ConcurrentHashMap<>();
+
+    /**
+     * What the current thread is doing, to attribute errors and rows
+     */
+    static final class Context {
+        boolean failed;
+        DaoEvent daoEvent;
+        long commandRows;
+        boolean commandFailed;
+        boolean lastCommandFailed;
+    }
+
+    /**
+     * Gets the metrics of the application (created, and registered in JMX, on first use)
+     *
+     * @return Instance of the class
+     */
+    public static Metrics getInstance() {
+        Metrics result = instance;
+        if (result == null) {
+            synchronized (Metrics.class) {
+                result = instance;
+                if (result == null) {
+                    result = new Metrics();
+                    try {
+                        ManagementFactory.getPlatformMBeanServer().registerMBean(result, new ObjectName(OBJECT_NAME));
+                    } catch (JMException ex) {
+                        // Already registered by another class loader (ex. in tests), the metrics still work
+                    }
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the recorder of a command
+     *
+     * @param name Name of the command
+     * @return Recorder, created on first use
+     */
+    public @NotNull LatencyRecorder command(@NotNull String name) {
+        return commands.computeIfAbsent(name, LatencyRecorder::new);
+    }
+
+    /**
+     * Gets the recorder of a DAO call
+     *
+     * @param name Name of the call (ex. GetOrderDao.getOrderById)
+     * @return Recorder, created on first use
+     */
+    public @NotNull LatencyRecorder dao(@NotNull String name) {
+        return daoCalls.computeIfAbsent(name, LatencyRecorder::new);
+    }
+
+    /**
+     * Starts timing a command on the current thread
+     *
+     * @return Start time, to give to {@link #stopCommand(LatencyRecorder, long, boolean)}
+     */
+    public static long startCommand() {
+        Context context = context();
+        context.commandRows = 0;
+        context.commandFailed = false;
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a command started by {@link #startCommand()}, with the rows and the errors of its DAO calls
+     *
+     * @param recorder Recorder of the command
+     * @param start    Start time returned by {@link #startCommand()}
+     * @param failed   Whether the command itself failed (ex. with an exception)
+     * @return Whether the command failed, by itself or in one of its DAO calls
+     */
+    public static boolean stopCommand(@NotNull LatencyRecorder recorder, long start, boolean failed) {
+        Context context = context();
+        boolean commandFailed = failed || context.commandFailed;
+        recorder.record(System.nanoTime() - start, context.commandRows, commandFailed);
+        context.lastCommandFailed = commandFailed;
+        return commandFailed;
+    }
+
+    /**
+     * Checks if the last command recorded on the current thread failed. The DAOs handle their SQL exceptions, so a
+     * command can fail without throwing: this is how the callers of a service find out
+     *
+     * @return Whether the last command failed, by itself or in one of its DAO calls
+     */
+    public static boolean lastCommandFailed() {
+        return context().lastCommandFailed;
+    }
+
+    /**
+     * Marks the DAO call of the current thread as failed
+     */
+    static void errorOccurred() {
+        CONTEXT.get().failed = true;
+    }
+
+    static @NotNull Context context() {
+        return CONTEXT.get();
+    }
+
+    @Override
+    public List<MetricStats> getCommands() {
+        return snapshot(commands);
+    }
+
+    @Override
+    public List<MetricStats> getDaoCalls() {
+        return snapshot(daoCalls);
+    }
+
+    @Override
+    public PoolStats getPool() {
+        return Database.getInstance().getPoolStats();
+    }
+
+    @Override
+    public CacheStats getCache() {
+        return OrderCache.getInstance().getStats();
+    }
+
+    @Override
+    public Map<String, Long> getErrorsBySqlState() {
+        return ErrorReporter.getInstance().getCounts();
+    }
+
+    @Override
+    public void reset() {
+        for (LatencyRecorder recorder : commands.values()) {
+            recorder.reset();
+        }
+        for (LatencyRecorder recorder : daoCalls.values()) {
+            recorder.reset();
+        }
+        ErrorReporter.getInstance().resetCounts();
+    }
+
+    /**
+     * Takes a snapshot of the recorders that recorded something, by name
+     */
+    private static @NotNull List<MetricStats> snapshot(@NotNull Map<String, LatencyRecorder> recorders) {
+        List<MetricStats> stats = new ArrayList<>();
+        for (LatencyRecorder recorder : new TreeMap<>(recorders).values()) {
+            MetricStats snapshot = recorder.getStats();
+            if (snapshot.getCount() > 0) {
+                stats.add(snapshot);
+            }
+        }
+        return stats;
+    }
+}
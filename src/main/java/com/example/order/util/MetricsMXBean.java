@@ -0,0 +1,49 @@
+package com.example.order.util;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Management interface of the metrics, registered as {@code com.example.order:type=Metrics}
+ */
+public interface MetricsMXBean {
+    /**
+     * Statistics of the commands
+     *
+     * @return One entry per command executed since the start (or the last reset)
+     */
+    List<MetricStats> getCommands();
+
+    /**
+     * Statistics of the DAO calls
+     *
+     * @return One entry per DAO method called since the start (or the last reset)
+     */
+    List<MetricStats> getDaoCalls();
+
+    /**
+     * Statistics of the connection pool
+     *
+     * @return Snapshot of the pool
+     */
+    PoolStats getPool();
+
+    /**
+     * Statistics of the order cache
+     *
+     * @return Snapshot of the cache
+     */
+    CacheStats getCache();
+
+    /**
+     * Number of SQL errors per SQL state
+     *
+     * @return Errors reported since the start (or the last reset), by SQL state
+     */
+    Map<String, Long> getErrorsBySqlState();
+
+    /**
+     * Forgets what was recorded by the commands and the DAO calls, and the errors per SQL state
+     */
+    void reset();
+}
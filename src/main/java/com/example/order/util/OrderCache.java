@@ -0,0 +1,357 @@
+package com.example.order.util;
+
+import com.example.order.dto.OrderDto;
+import com.example.order.dto.OrderDetailDto;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded read-through cache of orders, with least-recently-used eviction.
+ * <p>
+ * Missing IDs are cached too (negative entries) so that repeated lookups of an ID that doesn't exist don't reach the
+ * database; those entries expire after a while because orders can be inserted with explicit IDs (ex. by the bulk
+ * loader). The DAOs that write orders invalidate the IDs they change after the change is committed. A load that
+ * started before an invalidation doesn't store its result, so a slow reader can't put back a stale order.
+ * <p>
+ * Orders read by the get command are cached with their detail lines (and the names and prices of the products). The
+ * detail lines only change when an order is inserted or deleted, which invalidates it, and the bulk loader, the only
+ * other writer of details and products, empties the whole cache.
+ * <p>
+ * The cache can be tuned with system properties: {@code orders.cache.maxSize} (entries, default 10000, 0 disables
+ * the cache) and {@code orders.cache.negativeTtlMillis} (default 30000).
+ */
+public class OrderCache {
+    /**
+     * Estimated heap used by an entry with an order: map entry, key, cache entry, OrderDto and Date
+     */
+    static final int ORDER_ENTRY_BYTES = 200;
+
+    /**
+     * Estimated heap used by a negative entry: map entry, key and cache entry
+     */
+    static final int NEGATIVE_ENTRY_BYTES = 96;
+
+    /**
+     * Estimated heap used by a detail line of a cached order: list slot, OrderDetailDto and BigDecimal
+     */
+    static final int DETAIL_ENTRY_BYTES = 120;
+
+    private static volatile OrderCache instance = null;
+
+    private final Object lock = new Object();
+    private final int maxSize;
+    private final long negativeTtlNanos;
+    private final LinkedHashMap<Long, CacheEntry> entries;
+
+    private long version;
+    private int negativeSize;
+    private long estimatedBytes;
+    private long hits;
+    private long negativeHits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    /**
+     * Loader of the orders that aren't in the cache
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * Reads an order from the database
+         *
+         * @param orderId ID of the order
+         * @return The order, or null if it doesn't exist
+         * @throws SQLException In case of a database error (nothing is cached then)
+         */
+        OrderDto load(long orderId) throws SQLException;
+    }
+
+    /**
+     * Loader of several orders with their detail lines
+     */
+    @FunctionalInterface
+    public interface BulkLoader {
+        /**
+         * Reads orders and their detail lines from the database
+         *
+         * @param orderIds IDs of the orders
+         * @return Orders found, by ID (the IDs that don't exist are left out)
+         * @throws SQLException In case of a database error (nothing is cached then)
+         */
+        Map<Long, OrderDto> load(@NotNull Collection<Long> orderIds) throws SQLException;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param maxSize           Maximum number of entries, 0 to disable the cache
+     * @param negativeTtlMillis Time after which a cached "not found" expires
+     */
+    public OrderCache(int maxSize, long negativeTtlMillis) {
+        this.maxSize = maxSize;
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        this.entries = new LinkedHashMap<Long, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CacheEntry> eldest) {
+                if (size() > OrderCache.this.maxSize) {
+                    removed(eldest.getValue());
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Gets the cache of the application (created on first use)
+     *
+     * @return Instance of the class
+     */
+    public static OrderCache getInstance() {
+        OrderCache result = instance;
+        if (result == null) {
+            synchronized (OrderCache.class) {
+                result = instance;
+                if (result == null) {
+                    result = new OrderCache(Integer.getInteger("orders.cache.maxSize", 10_000),
+                            Long.getLong("orders.cache.negativeTtlMillis", 30_000L));
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets an order from the cache, loading it (and caching the result) if it isn't there
+     *
+     * @param orderId ID of the order
+     * @param loader  Reads the order from the database
+     * @return A copy of the order, or null if it doesn't exist
+     * @throws SQLException In case the loader fails
+     */
+    public OrderDto get(long orderId, @NotNull Loader loader) throws SQLException {
+        if (maxSize <= 0) {
+            return loader.load(orderId);
+        }
+
+        long loadVersion;
+        synchronized (lock) {
+            CacheEntry entry = entries.get(orderId);
+            if (entry != null) {
+                if (entry.order != null) {
+                    hits++;
+                    return copy(entry.order);
+                }
+                if (System.nanoTime() - entry.createdNanos < negativeTtlNanos) {
+                    negativeHits++;
+                    return null;
+                }
+                removed(entries.remove(orderId));
+                evictions++;
+            }
+            misses++;
+            loadVersion = version;
+        }
+
+        OrderDto order = loader.load(orderId);
+
+        synchronized (lock) {
+            // Something was invalidated while loading, the order may be stale
+            if (loadVersion == version) {
+                put(orderId, order);
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Gets several orders with their detail lines, loading the ones that aren't in the cache with a single call of
+     * the loader. Orders cached without their detail lines (by {@link #get(long, Loader)}) count as misses and are
+     * replaced by the loaded ones
+     *
+     * @param orderIds IDs of the orders
+     * @param loader   Reads the missing orders with their detail lines
+     * @return Copies of the orders found, by ID
+     * @throws SQLException In case the loader fails
+     */
+    public @NotNull Map<Long, OrderDto> getAll(@NotNull Collection<Long> orderIds, @NotNull BulkLoader loader)
+            throws SQLException {
+        if (maxSize <= 0) {
+            return loader.load(orderIds);
+        }
+
+        Map<Long, OrderDto> result = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        long loadVersion;
+        synchronized (lock) {
+            for (Long orderId : orderIds) {
+                if (result.containsKey(orderId) || missing.contains(orderId)) {
+                    continue;
+                }
+                CacheEntry entry = entries.get(orderId);
+                if (entry != null && entry.order != null && entry.order.getOrderDetail() != null) {
+                    hits++;
+                    result.put(orderId, copy(entry.order));
+                } else if (entry != null && entry.order == null
+                        && System.nanoTime() - entry.createdNanos < negativeTtlNanos) {
+                    negativeHits++;
+                } else {
+                    misses++;
+                    missing.add(orderId);
+                }
+            }
+            loadVersion = version;
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        Map<Long, OrderDto> loaded = loader.load(missing);
+
+        synchronized (lock) {
+            // Something was invalidated while loading, the orders may be stale
+            if (loadVersion == version) {
+                for (Long orderId : missing) {
+                    put(orderId, loaded.get(orderId));
+                }
+            }
+        }
+        result.putAll(loaded);
+        return result;
+    }
+
+    /**
+     * Removes an order from the cache. It must be called after the change of the order is committed
+     *
+     * @param orderId ID of the order that changed
+     */
+    public void invalidate(long orderId) {
+        synchronized (lock) {
+            version++;
+            CacheEntry entry = entries.remove(orderId);
+            if (entry != null) {
+                removed(entry);
+                invalidations++;
+            }
+        }
+    }
+
+    /**
+     * Removes every order from the cache (ex. after a bulk change)
+     */
+    public void invalidateAll() {
+        synchronized (lock) {
+            version++;
+            invalidations += entries.size();
+            entries.clear();
+            negativeSize = 0;
+            estimatedBytes = 0;
+        }
+    }
+
+    /**
+     * Gets the statistics of the cache
+     *
+     * @return Cache statistics
+     */
+    public @NotNull CacheStats getStats() {
+        synchronized (lock) {
+            return new CacheStats(entries.size(), negativeSize, maxSize, hits, negativeHits, misses,
+                    evictions, invalidations, estimatedBytes);
+        }
+    }
+
+    /**
+     * Caches an order (or its absence), replacing the entry of the ID if there's one. The lock must be held
+     */
+    private void put(long orderId, OrderDto order) {
+        CacheEntry entry = new CacheEntry(order == null ? null : copy(order));
+        CacheEntry previous = entries.put(orderId, entry);
+        if (previous != null) {
+            removed(previous);
+        }
+        added(entry);
+    }
+
+    private void added(@NotNull CacheEntry entry) {
+        estimatedBytes += entry.bytes;
+        if (entry.order == null) {
+            negativeSize++;
+        }
+    }
+
+    private void removed(@NotNull CacheEntry entry) {
+        estimatedBytes -= entry.bytes;
+        if (entry.order == null) {
+            negativeSize--;
+        }
+    }
+
+    /**
+     * Copies an order and its detail lines, so that callers can't change the cached one
+     *
+     * @param order Order to copy
+     * @return A new object with the same information
+     */
+    private static @NotNull OrderDto copy(@NotNull OrderDto order) {
+        OrderDto copy = new OrderDto();
+        copy.setOrderId(order.getOrderId());
+        copy.setCustomerId(order.getCustomerId());
+        copy.setDate(order.getDate() == null ? null : (Date) order.getDate().clone());
+        copy.setStatus(order.getStatus());
+        if (order.getOrderDetail() != null) {
+            List<OrderDetailDto> details = new ArrayList<>(order.getOrderDetail().size());
+            for (OrderDetailDto detail : order.getOrderDetail()) {
+                details.add(detail == null ? null : copy(detail));
+            }
+            copy.setOrderDetail(details);
+        }
+        return copy;
+    }
+
+    /**
+     * Copies a detail line of an order
+     *
+     * @param detail Detail line to copy
+     * @return A new object with the same information
+     */
+    private static @NotNull OrderDetailDto copy(@NotNull OrderDetailDto detail) {
+        OrderDetailDto copy = new OrderDetailDto();
+        copy.setOrderId(detail.getOrderId());
+        copy.setProductId(detail.getProductId());
+        copy.setQuantity(detail.getQuantity());
+        copy.setProductName(detail.getProductName());
+        copy.setProductPrice(detail.getProductPrice());
+        return copy;
+    }
+
+    /**
+     * Cached order, or cached "not found" when the order is null
+     */
+    private static final class CacheEntry {
+        private final OrderDto order;
+        private final long createdNanos = System.nanoTime();
+        private final int bytes;
+
+        private CacheEntry(OrderDto order) {
+            this.order = order;
+            this.bytes = order == null ? NEGATIVE_ENTRY_BYTES
+                    : ORDER_ENTRY_BYTES + (order.getStatus() == null ? 0 : order.getStatus().length())
+                    + (order.getOrderDetail() == null ? 0 : order.getOrderDetail().size() * DETAIL_ENTRY_BYTES);
+        }
+    }
+}
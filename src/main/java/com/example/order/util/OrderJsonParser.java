@@ -0,0 +1,301 @@
+package com.example.order.util;
+
+import com.example.order.dto.OrderDetailDto;
+import com.example.order.dto.OrderDto;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal JSON parser for one order, ex. {@code {"customerId": 1, "details": [{"productId": 2, "quantity": 3}]}},
+ * or for a change of status.
+ * <p>
+ * It only understands the shape of an order: unknown keys are skipped, and {@code customer_id},
+ * {@code orderDetail}/{@code lines} and {@code product_id} are accepted as aliases. Parsing works directly on the
+ * characters of the input, without building an intermediate tree.
+ */
+public class OrderJsonParser {
+    private final CharSequence json;
+    private int pos;
+
+    /**
+     * Constructor
+     *
+     * @param json JSON text of one order
+     */
+    private OrderJsonParser(@NotNull CharSequence json) {
+        this.json = json;
+    }
+
+    /**
+     * Parses one order
+     *
+     * @param json JSON text of the order
+     * @return Object with the information of the order
+     * @throws IllegalArgumentException In case the text is not a valid order
+     */
+    public static @NotNull OrderDto parseOrder(@NotNull CharSequence json) {
+        OrderJsonParser parser = new OrderJsonParser(json);
+        OrderDto orderDto = parser.readOrder();
+        parser.skipWhitespace();
+        if (parser.pos < json.length()) {
+            throw parser.error("Unexpected content after the order");
+        }
+        return orderDto;
+    }
+
+    /**
+     * Parses a change of status, ex. {@code {"status": "paid"}}
+     *
+     * @param json JSON text of the change
+     * @return The new status (not validated)
+     * @throws IllegalArgumentException In case the text is not an object with a status
+     */
+    public static @NotNull String parseStatus(@NotNull CharSequence json) {
+        OrderJsonParser parser = new OrderJsonParser(json);
+        String status = null;
+
+        parser.expect('{');
+        if (!parser.tryConsume('}')) {
+            do {
+                String key = parser.readString();
+                parser.expect(':');
+                if ("status".equals(key)) {
+                    status = parser.readString();
+                } else {
+                    parser.skipValue();
+                }
+            } while (parser.tryConsume(','));
+            parser.expect('}');
+        }
+        parser.skipWhitespace();
+        if (parser.pos < json.length()) {
+            throw parser.error("Unexpected content after the object");
+        }
+
+        if (status == null) {
+            throw parser.error("The object has no status");
+        }
+        return status;
+    }
+
+    private @NotNull OrderDto readOrder() {
+        OrderDto orderDto = new OrderDto();
+        boolean hasCustomer = false;
+
+        expect('{');
+        if (!tryConsume('}')) {
+            do {
+                String key = readString();
+                expect(':');
+                switch (key) {
+                    case "customerId":
+                    case "customer_id":
+                        orderDto.setCustomerId(readLong());
+                        hasCustomer = true;
+                        break;
+                    case "details":
+                    case "orderDetail":
+                    case "lines":
+                        orderDto.setOrderDetail(readDetails());
+                        break;
+                    default:
+                        skipValue();
+                }
+            } while (tryConsume(','));
+            expect('}');
+        }
+
+        if (!hasCustomer) {
+            throw error("The order has no customerId");
+        }
+        if (orderDto.getOrderDetail() == null || orderDto.getOrderDetail().isEmpty()) {
+            throw error("The order has no detail lines");
+        }
+        return orderDto;
+    }
+
+    private @NotNull List<OrderDetailDto> readDetails() {
+        List<OrderDetailDto> details = new ArrayList<>();
+
+        expect('[');
+        if (!tryConsume(']')) {
+            do {
+                details.add(readDetail());
+            } while (tryConsume(','));
+            expect(']');
+        }
+        return details;
+    }
+
+    private @NotNull OrderDetailDto readDetail() {
+        OrderDetailDto detail = new OrderDetailDto();
+        boolean hasProduct = false;
+        boolean hasQuantity = false;
+
+        expect('{');
+        if (!tryConsume('}')) {
+            do {
+                String key = readString();
+                expect(':');
+                switch (key) {
+                    case "productId":
+                    case "product_id":
+                        detail.setProductId(readLong());
+                        hasProduct = true;
+                        break;
+                    case "quantity":
+                        long quantity = readLong();
+                        if (quantity > Integer.MAX_VALUE) {
+                            throw error("Quantity too large");
+                        }
+                        detail.setQuantity((int) quantity);
+                        hasQuantity = true;
+                        break;
+                    default:
+                        skipValue();
+                }
+            } while (tryConsume(','));
+            expect('}');
+        }
+
+        if (!hasProduct || !hasQuantity) {
+            throw error("A detail line needs a productId and a quantity");
+        }
+        return detail;
+    }
+
+    private long readLong() {
+        skipWhitespace();
+        boolean negative = tryConsumeRaw('-');
+        int start = pos;
+        long value = 0;
+
+        while (pos < json.length() && Character.isDigit(json.charAt(pos))) {
+            if (value > (Long.MAX_VALUE - 9) / 10) {
+                throw error("Number too large");
+            }
+            value = value * 10 + (json.charAt(pos++) - '0');
+        }
+        if (pos == start) {
+            throw error("Integer expected");
+        }
+        if (pos < json.length() && (json.charAt(pos) == '.' || json.charAt(pos) == 'e' || json.charAt(pos) == 'E')) {
+            throw error("Integer expected");
+        }
+        return negative ? -value : value;
+    }
+
+    private @NotNull String readString() {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+
+        while (pos < json.length()) {
+            char c = json.charAt(pos++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c == '\\') {
+                if (pos >= json.length()) {
+                    break;
+                }
+                char escaped = json.charAt(pos++);
+                switch (escaped) {
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case 'b':
+                        sb.append('\b');
+                        break;
+                    case 'f':
+                        sb.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 > json.length()) {
+                            throw error("Invalid unicode escape");
+                        }
+                        sb.append((char) Integer.parseInt(json.subSequence(pos, pos + 4).toString(), 16));
+                        pos += 4;
+                        break;
+                    default:
+                        sb.append(escaped);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        throw error("Unterminated string");
+    }
+
+    /**
+     * Skips a value of any type (used for unknown keys)
+     */
+    private void skipValue() {
+        skipWhitespace();
+        if (pos >= json.length()) {
+            throw error("Value expected");
+        }
+
+        char c = json.charAt(pos);
+        if (c == '"') {
+            readString();
+        } else if (c == '{' || c == '[') {
+            char close = c == '{' ? '}' : ']';
+            pos++;
+            if (!tryConsume(close)) {
+                do {
+                    if (c == '{') {
+                        readString();
+                        expect(':');
+                    }
+                    skipValue();
+                } while (tryConsume(','));
+                expect(close);
+            }
+        } else {
+            int start = pos;
+            while (pos < json.length() && ",}] \t\r\n".indexOf(json.charAt(pos)) < 0) {
+                pos++;
+            }
+            if (pos == start) {
+                throw error("Value expected");
+            }
+        }
+    }
+
+    private void expect(char c) {
+        if (!tryConsume(c)) {
+            throw error("'" + c + "' expected");
+        }
+    }
+
+    private boolean tryConsume(char c) {
+        skipWhitespace();
+        return tryConsumeRaw(c);
+    }
+
+    private boolean tryConsumeRaw(char c) {
+        if (pos < json.length() && json.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (pos < json.length() && Character.isWhitespace(json.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private @NotNull IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + pos);
+    }
+}
@@ -33,6 +33,21 @@ public enum OrderStatus {
         return status;
     }
 
+    /**
+     * Finds a status by its name, ignoring the case
+     *
+     * @param status Name of the status (ex. paid)
+     * @return The status, or null if there's no status with that name
+     */
+    public static OrderStatus fromStatus(String status) {
+        for (OrderStatus os : values()) {
+            if (os.status.equalsIgnoreCase(status)) {
+                return os;
+            }
+        }
+        return null;
+    }
+
     /**
      * Method to get all the status values of this Enum as a comma-separated string
      *
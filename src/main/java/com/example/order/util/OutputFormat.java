@@ -0,0 +1,70 @@
+package com.example.order.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Enum that represents the formats the results of a command can be written in (option --output)
+ */
+public enum OutputFormat {
+    /**
+     * Text meant to be read by a person, the default
+     */
+    TEXT("text"),
+    /**
+     * One JSON object per line
+     */
+    JSONL("jsonl"),
+    /**
+     * CSV with a header line
+     */
+    CSV("csv");
+
+    /**
+     * Option of the commands get, list and total that selects the format
+     */
+    public static final String OPTION = "--output";
+
+    private final String option;
+
+    /**
+     * Constructor
+     *
+     * @param option Name of the format in the option --output
+     */
+    OutputFormat(String option) {
+        this.option = option;
+    }
+
+    public String getOption() {
+        return option;
+    }
+
+    /**
+     * Finds a format by its name, ignoring the case
+     *
+     * @param option Name of the format (ex. jsonl)
+     * @return The format, or null if there's no format with that name
+     */
+    public static OutputFormat fromOption(String option) {
+        for (OutputFormat format : values()) {
+            if (format.option.equalsIgnoreCase(option)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Method to get the names of all the formats as a comma-separated string
+     *
+     * @return All the format names as a comma-separated string
+     */
+    public static @NotNull String listOfValues() {
+        return Arrays.stream(OutputFormat.values())
+                .map(OutputFormat::getOption)
+                .collect(Collectors.joining(","));
+    }
+}
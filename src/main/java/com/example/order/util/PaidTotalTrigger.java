@@ -0,0 +1,279 @@
+package com.example.order.util;
+
+import org.h2.api.Trigger;
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Trigger that keeps the {@code customer_paid_totals} table in step with the orders, their details and the product
+ * prices, in the same transaction as the change. It's registered on the three tables by the migration that creates
+ * the aggregate, so every way of writing them (DAOs, bulk load, scripts) keeps the totals right.
+ * <p>
+ * Each change is applied as a delta: the old row is subtracted if it counted as paid and the new row is added if it
+ * counts as paid. When an order is deleted, its details may be removed by the cascade before or after the order
+ * trigger fires; both sides read the current state of the other table, so the lines are subtracted exactly once.
+ */
+public class PaidTotalTrigger implements Trigger {
+    /**
+     * Query that answers the paid total of a customer from the aggregate
+     */
+    public static final String SELECT_TOTAL_SQL = "SELECT paid_total FROM customer_paid_totals " +
+            "WHERE customer_id = ? AND paid_lines > 0";
+
+    private static final String PAID = OrderStatus.PAID.getStatus();
+    private static final String DUPLICATE_KEY = "23505";
+
+    private static final String ORDER_TOTAL_SQL = "SELECT SUM(p.product_price * d.order_detail_quantity), COUNT(*) " +
+            "FROM order_details d JOIN products p ON p.product_id = d.order_detail_product_id " +
+            "WHERE d.order_detail_order_id = ?";
+    private static final String ORDER_SQL = "SELECT order_customer_id, order_status FROM orders WHERE order_id = ?";
+    private static final String PRICE_SQL = "SELECT product_price FROM products WHERE product_id = ?";
+    private static final String ADD_SQL = "UPDATE customer_paid_totals " +
+            "SET paid_total = paid_total + ?, paid_lines = paid_lines + ? WHERE customer_id = ?";
+    private static final String INSERT_SQL = "INSERT INTO customer_paid_totals " +
+            "(customer_id, paid_total, paid_lines) VALUES (?, ?, ?)";
+    private static final String PRICE_CHANGE_SQL = "UPDATE customer_paid_totals t SET paid_total = paid_total + ? * (" +
+            "SELECT SUM(d.order_detail_quantity) FROM orders o " +
+            "JOIN order_details d ON d.order_detail_order_id = o.order_id " +
+            "WHERE o.order_customer_id = t.customer_id AND o.order_status = '" + PAID + "' " +
+            "AND d.order_detail_product_id = ?) " +
+            "WHERE t.customer_id IN (SELECT o.order_customer_id FROM orders o " +
+            "JOIN order_details d ON d.order_detail_order_id = o.order_id " +
+            "WHERE o.order_status = '" + PAID + "' AND d.order_detail_product_id = ?)";
+
+    private String table;
+
+    /**
+     * Initializes the trigger
+     *
+     * @param conn        Connection to the database
+     * @param schemaName  Name of the schema
+     * @param triggerName Name of the trigger
+     * @param tableName   Name of the table the trigger is on
+     * @param before      Whether the trigger runs before the change
+     * @param type        Operations the trigger fires on
+     */
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before, int type) {
+        this.table = tableName.toUpperCase();
+    }
+
+    /**
+     * Applies the change of one row to the aggregate
+     *
+     * @param conn   Connection to the database, in the transaction of the change
+     * @param oldRow Row before the change, or null for inserts
+     * @param newRow Row after the change, or null for deletes
+     * @throws SQLException In case of a database error
+     */
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        switch (table) {
+            case "ORDERS":
+                orderChanged(conn, oldRow, newRow);
+                break;
+            case "ORDER_DETAILS":
+                detailChanged(conn, oldRow, newRow);
+                break;
+            case "PRODUCTS":
+                priceChanged(conn, oldRow, newRow);
+                break;
+            default:
+                throw new SQLException("The paid total trigger doesn't support the table " + table);
+        }
+    }
+
+    /**
+     * Applies the change of an order (columns: order_id, order_customer_id, order_date, order_status)
+     *
+     * @param conn   Connection to the database
+     * @param oldRow Order before the change, or null
+     * @param newRow Order after the change, or null
+     * @throws SQLException In case of a database error
+     */
+    private static void orderChanged(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        boolean wasPaid = oldRow != null && PAID.equals(oldRow[3]);
+        boolean isPaid = newRow != null && PAID.equals(newRow[3]);
+
+        if (wasPaid && isPaid && oldRow[0].equals(newRow[0]) && oldRow[1].equals(newRow[1])) {
+            return;
+        }
+        if (wasPaid) {
+            addOrder(conn, toLong(oldRow[0]), toLong(oldRow[1]), -1);
+        }
+        if (isPaid) {
+            addOrder(conn, toLong(newRow[0]), toLong(newRow[1]), 1);
+        }
+    }
+
+    /**
+     * Applies the change of a detail line (columns: order_detail_order_id, order_detail_product_id,
+     * order_detail_quantity)
+     *
+     * @param conn   Connection to the database
+     * @param oldRow Line before the change, or null
+     * @param newRow Line after the change, or null
+     * @throws SQLException In case of a database error
+     */
+    private static void detailChanged(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        if (oldRow != null) {
+            addLine(conn, oldRow, -1);
+        }
+        if (newRow != null) {
+            addLine(conn, newRow, 1);
+        }
+    }
+
+    /**
+     * Applies the change of the price of a product (columns: product_id, product_name, product_price)
+     *
+     * @param conn   Connection to the database
+     * @param oldRow Product before the change, or null
+     * @param newRow Product after the change, or null
+     * @throws SQLException In case of a database error
+     */
+    private static void priceChanged(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        if (oldRow == null || newRow == null || !oldRow[0].equals(newRow[0])) {
+            // New products aren't in any order yet, and referenced products can't be deleted
+            return;
+        }
+
+        BigDecimal delta = toDecimal(newRow[2]).subtract(toDecimal(oldRow[2]));
+        if (delta.signum() == 0) {
+            return;
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(PRICE_CHANGE_SQL)) {
+            ps.setBigDecimal(1, delta);
+            ps.setLong(2, toLong(newRow[0]));
+            ps.setLong(3, toLong(newRow[0]));
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Adds (or subtracts) the current detail lines of an order to the total of a customer
+     *
+     * @param conn       Connection to the database
+     * @param orderId    ID of the order
+     * @param customerId ID of the customer the order counts for
+     * @param sign       1 to add the order, -1 to subtract it
+     * @throws SQLException In case of a database error
+     */
+    private static void addOrder(Connection conn, long orderId, long customerId, int sign) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(ORDER_TOTAL_SQL)) {
+            ps.setLong(1, orderId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getLong(2) > 0) {
+                    BigDecimal total = rs.getBigDecimal(1);
+                    add(conn, customerId, sign > 0 ? total : total.negate(), sign * rs.getLong(2));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds (or subtracts) one detail line to the total of the customer, if its order is paid
+     *
+     * @param conn Connection to the database
+     * @param row  Detail line
+     * @param sign 1 to add the line, -1 to subtract it
+     * @throws SQLException In case of a database error
+     */
+    private static void addLine(Connection conn, Object[] row, int sign) throws SQLException {
+        long customerId;
+
+        try (PreparedStatement ps = conn.prepareStatement(ORDER_SQL)) {
+            ps.setLong(1, toLong(row[0]));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || !PAID.equals(rs.getString(2))) {
+                    return;
+                }
+                customerId = rs.getLong(1);
+            }
+        }
+
+        BigDecimal price;
+        try (PreparedStatement ps = conn.prepareStatement(PRICE_SQL)) {
+            ps.setLong(1, toLong(row[1]));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return;
+                }
+                price = rs.getBigDecimal(1);
+            }
+        }
+
+        BigDecimal amount = price.multiply(toDecimal(row[2]));
+        add(conn, customerId, sign > 0 ? amount : amount.negate(), sign);
+    }
+
+    /**
+     * Adds an amount to the aggregate row of a customer, creating the row if needed
+     *
+     * @param conn       Connection to the database
+     * @param customerId ID of the customer
+     * @param amount     Amount to add (negative to subtract)
+     * @param lines      Number of paid detail lines to add (negative to subtract)
+     * @throws SQLException In case of a database error
+     */
+    private static void add(Connection conn, long customerId, @NotNull BigDecimal amount, long lines) throws SQLException {
+        if (update(conn, customerId, amount, lines)) {
+            return;
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+            ps.setLong(1, customerId);
+            ps.setBigDecimal(2, amount);
+            ps.setLong(3, lines);
+            ps.executeUpdate();
+        } catch (SQLException ex) {
+            // Another transaction created the row in the meantime
+            if (!DUPLICATE_KEY.equals(ex.getSQLState()) || !update(conn, customerId, amount, lines)) {
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Adds an amount to the existing aggregate row of a customer
+     *
+     * @param conn       Connection to the database
+     * @param customerId ID of the customer
+     * @param amount     Amount to add (negative to subtract)
+     * @param lines      Number of paid detail lines to add (negative to subtract)
+     * @return true if the row exists, false otherwise
+     * @throws SQLException In case of a database error
+     */
+    private static boolean update(Connection conn, long customerId, @NotNull BigDecimal amount, long lines) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(ADD_SQL)) {
+            ps.setBigDecimal(1, amount);
+            ps.setLong(2, lines);
+            ps.setLong(3, customerId);
+            return ps.executeUpdate() > 0;
+        }
+    }
+
+    private static long toLong(Object value) {
+        return ((Number) value).longValue();
+    }
+
+    private static @NotNull BigDecimal toDecimal(Object value) {
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release
+    }
+
+    @Override
+    public void remove() {
+        // Nothing to release
+    }
+}
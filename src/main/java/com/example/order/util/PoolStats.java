@@ -0,0 +1,169 @@
+package com.example.order.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of the statistics of the connection pool
+ */
+public class PoolStats {
+
+    private final int active;
+
+    private final int idle;
+
+    private final int total;
+
+    private final int maxSize;
+
+    private final int waiting;
+
+    private final long acquired;
+
+    private final long totalWaitNanos;
+
+    private final long maxWaitNanos;
+
+    private final long timeouts;
+
+    private final long leaks;
+
+    private final long evicted;
+
+    private final long statementHits;
+
+    private final long statementMisses;
+
+    private final long statementEvictions;
+
+    /**
+     * Constructor
+     *
+     * @param active             Connections currently borrowed
+     * @param idle               Connections open and free
+     * @param total              Connections open
+     * @param maxSize            Maximum size of the pool
+     * @param waiting            Threads waiting for a connection
+     * @param acquired           Number of connections handed out since start
+     * @param totalWaitNanos     Accumulated time callers waited for a connection
+     * @param maxWaitNanos       Longest time a caller waited for a connection
+     * @param timeouts           Number of acquisitions that timed out
+     * @param leaks              Number of connections reported as leaked
+     * @param evicted            Number of idle connections closed by the pool
+     * @param statementHits      Prepared statements taken from the statement cache
+     * @param statementMisses    Prepared statements that had to be prepared
+     * @param statementEvictions Cached statements closed to make room
+     */
+    public PoolStats(int active, int idle, int total, int maxSize, int waiting, long acquired,
+                     long totalWaitNanos, long maxWaitNanos, long timeouts, long leaks, long evicted,
+                     long statementHits, long statementMisses, long statementEvictions) {
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.maxSize = maxSize;
+        this.waiting = waiting;
+        this.acquired = acquired;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.timeouts = timeouts;
+        this.leaks = leaks;
+        this.evicted = evicted;
+        this.statementHits = statementHits;
+        this.statementMisses = statementMisses;
+        this.statementEvictions = statementEvictions;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public long getAcquired() {
+        return acquired;
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getLeaks() {
+        return leaks;
+    }
+
+    public long getEvicted() {
+        return evicted;
+    }
+
+    public long getStatementHits() {
+        return statementHits;
+    }
+
+    public long getStatementMisses() {
+        return statementMisses;
+    }
+
+    public long getStatementEvictions() {
+        return statementEvictions;
+    }
+
+    /**
+     * Share of the prepared statements taken from the statement cache
+     *
+     * @return Hit rate between 0 and 1
+     */
+    public double getStatementHitRate() {
+        long requests = statementHits + statementMisses;
+        return requests == 0 ? 0 : (double) statementHits / requests;
+    }
+
+    /**
+     * Average time callers waited for a connection
+     *
+     * @return Average wait time in microseconds
+     */
+    public double getAverageWaitMicros() {
+        return acquired == 0 ? 0 : (double) TimeUnit.NANOSECONDS.toMicros(totalWaitNanos) / acquired;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats{" +
+                "active=" + active +
+                ", idle=" + idle +
+                ", total=" + total +
+                ", maxSize=" + maxSize +
+                ", waiting=" + waiting +
+                ", acquired=" + acquired +
+                ", avgWaitMicros=" + String.format("%.1f", getAverageWaitMicros()) +
+                ", maxWaitMicros=" + TimeUnit.NANOSECONDS.toMicros(maxWaitNanos) +
+                ", timeouts=" + timeouts +
+                ", leaks=" + leaks +
+                ", evicted=" + evicted +
+                ", statementHits=" + statementHits +
+                ", statementMisses=" + statementMisses +
+                ", statementEvictions=" + statementEvictions +
+                '}';
+    }
+}
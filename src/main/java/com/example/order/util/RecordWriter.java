@@ -0,0 +1,273 @@
+package com.example.order.util;
+
+import com.example.order.dto.OrderDetailDto;
+import com.example.order.dto.OrderDto;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Writer of the results of a command in a machine-readable format, one record per line. The values are written as
+ * they are (numbers, ISO-8601 dates) straight to the destination, through buffers that are reused for every record,
+ * so nothing has to be parsed back by whoever reads the output.
+ * <p>
+ * It isn't thread-safe, each command execution must use its own writer.
+ */
+public abstract class RecordWriter {
+    /**
+     * Kinds of records, each one with its own CSV columns
+     */
+    enum Kind {
+        ORDER("orderId,customerId,status,date"),
+        ORDER_LINE("orderId,customerId,status,date,productId,productName,quantity,price,amount"),
+        TOTAL("customerId,total");
+
+        private final String header;
+
+        Kind(String header) {
+            this.header = header;
+        }
+    }
+
+    protected final PrintWriter out;
+
+    /**
+     * Constructor
+     *
+     * @param out Destination of the records
+     */
+    protected RecordWriter(@NotNull PrintWriter out) {
+        this.out = out;
+    }
+
+    /**
+     * Gets a writer for a format
+     *
+     * @param format Format of the records, it can't be {@link OutputFormat#TEXT}
+     * @param out    Destination of the records
+     * @return Writer of the records
+     */
+    public static @NotNull RecordWriter of(@NotNull OutputFormat format, @NotNull PrintWriter out) {
+        switch (format) {
+            case JSONL:
+                return new JsonLinesWriter(out);
+            case CSV:
+                return new CsvWriter(out);
+            default:
+                throw new IllegalArgumentException("No record writer for the format " + format.getOption());
+        }
+    }
+
+    /**
+     * Writes the main information of an order
+     *
+     * @param order Order to write, its detail lines are ignored
+     */
+    public abstract void order(@NotNull OrderDto order);
+
+    /**
+     * Writes an order with its detail lines and its total
+     *
+     * @param order Order to write
+     */
+    public abstract void orderWithDetails(@NotNull OrderDto order);
+
+    /**
+     * Writes the total of the paid orders of a customer
+     *
+     * @param customerId ID of the customer
+     * @param total      Total of the paid orders, null if the customer has none
+     */
+    public abstract void total(long customerId, BigDecimal total);
+
+    /**
+     * Flushes the records written so far to the destination
+     */
+    public void flush() {
+        out.flush();
+    }
+
+    protected static @NotNull BigDecimal amount(@NotNull OrderDetailDto detail) {
+        return detail.getProductPrice().multiply(BigDecimal.valueOf(detail.getQuantity()));
+    }
+
+    /**
+     * One JSON object per record
+     */
+    private static final class JsonLinesWriter extends RecordWriter {
+        private final JsonWriter json = new JsonWriter();
+
+        private JsonLinesWriter(@NotNull PrintWriter out) {
+            super(out);
+        }
+
+        @Override
+        public void order(@NotNull OrderDto order) {
+            json.reset().beginObject()
+                    .name("orderId").value(order.getOrderId())
+                    .name("customerId").value(order.getCustomerId())
+                    .name("status").value(order.getStatus())
+                    .name("date").value(order.getDate())
+                    .endObject();
+            writeLine();
+        }
+
+        @Override
+        public void orderWithDetails(@NotNull OrderDto order) {
+            json.reset().beginObject()
+                    .name("orderId").value(order.getOrderId())
+                    .name("customerId").value(order.getCustomerId())
+                    .name("status").value(order.getStatus())
+                    .name("date").value(order.getDate())
+                    .name("details").beginArray();
+
+            BigDecimal total = BigDecimal.ZERO;
+            List<OrderDetailDto> details = order.getOrderDetail() != null
+                    ? order.getOrderDetail()
+                    : Collections.emptyList();
+            for (OrderDetailDto detail : details) {
+                BigDecimal amount = amount(detail);
+                total = total.add(amount);
+                json.beginObject()
+                        .name("productId").value(detail.getProductId())
+                        .name("productName").value(detail.getProductName())
+                        .name("quantity").value(detail.getQuantity())
+                        .name("price").value(detail.getProductPrice())
+                        .name("amount").value(amount)
+                        .endObject();
+            }
+
+            json.endArray()
+                    .name("total").value(total)
+                    .endObject();
+            writeLine();
+        }
+
+        @Override
+        public void total(long customerId, BigDecimal total) {
+            json.reset().beginObject()
+                    .name("customerId").value(customerId)
+                    .name("total").value(total)
+                    .endObject();
+            writeLine();
+        }
+
+        private void writeLine() {
+            json.writeTo(out);
+            out.println();
+        }
+    }
+
+    /**
+     * One CSV line per record, with a header line before the first record of each kind
+     */
+    private static final class CsvWriter extends RecordWriter {
+        private final StringBuilder sb = new StringBuilder(256);
+        private char[] chars = new char[256];
+        private Kind kind;
+
+        private CsvWriter(@NotNull PrintWriter out) {
+            super(out);
+        }
+
+        @Override
+        public void order(@NotNull OrderDto order) {
+            begin(Kind.ORDER);
+            appendOrder(order);
+            writeLine();
+        }
+
+        @Override
+        public void orderWithDetails(@NotNull OrderDto order) {
+            begin(Kind.ORDER_LINE);
+            if (order.getOrderDetail() == null || order.getOrderDetail().isEmpty()) {
+                // Still one line, so that the order isn't lost
+                appendOrder(order);
+                sb.append(",,,,,");
+                writeLine();
+                return;
+            }
+
+            for (OrderDetailDto detail : order.getOrderDetail()) {
+                appendOrder(order);
+                sb.append(',').append(detail.getProductId()).append(',');
+                appendText(detail.getProductName());
+                sb.append(',').append(detail.getQuantity())
+                        .append(',').append(detail.getProductPrice().toPlainString())
+                        .append(',').append(amount(detail).toPlainString());
+                writeLine();
+            }
+        }
+
+        @Override
+        public void total(long customerId, BigDecimal total) {
+            begin(Kind.TOTAL);
+            sb.append(customerId).append(',');
+            if (total != null) {
+                sb.append(total.toPlainString());
+            }
+            writeLine();
+        }
+
+        private void begin(@NotNull Kind next) {
+            if (kind != next) {
+                kind = next;
+                out.println(next.header);
+            }
+            sb.setLength(0);
+        }
+
+        private void appendOrder(@NotNull OrderDto order) {
+            sb.append(order.getOrderId()).append(',').append(order.getCustomerId()).append(',');
+            appendText(order.getStatus());
+            sb.append(',');
+            Date date = order.getDate();
+            if (date != null) {
+                JsonWriter.appendDate(sb, date);
+            }
+        }
+
+        /**
+         * Appends a text field, quoted only when it has to be
+         */
+        private void appendText(String value) {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                sb.append(value);
+                return;
+            }
+
+            sb.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    sb.append('"');
+                }
+                sb.append(c);
+            }
+            sb.append('"');
+        }
+
+        private void writeLine() {
+            int length = sb.length();
+            if (chars.length < length) {
+                chars = new char[Math.max(length, chars.length * 2)];
+            }
+            sb.getChars(0, length, chars, 0);
+            out.write(chars, 0, length);
+            out.println();
+            sb.setLength(0);
+        }
+    }
+}
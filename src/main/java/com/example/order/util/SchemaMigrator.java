@@ -0,0 +1,241 @@
+package com.example.order.util;
+
+import org.h2.tools.RunScript;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Applies the versioned scripts of {@code /db/migration} to the database.
+ * <p>
+ * Scripts are named {@code V<version>__<description>.sql} and applied in version order. Every applied script is
+ * recorded in the {@code schema_version} table with a checksum of its content, so a script is only run once and a
+ * script that was edited after it was applied stops the application instead of leaving the schema in an unknown
+ * state. To change the schema, add a script with the next version to {@link #MIGRATIONS}; never edit an applied one.
+ */
+public class SchemaMigrator {
+    /**
+     * Location of the scripts in the classpath
+     */
+    static final String LOCATION = "/db/migration/";
+
+    /**
+     * Scripts of the application. The classpath can't be listed inside a jar, so new scripts are registered here
+     */
+    static final List<String> MIGRATIONS = Arrays.asList(
+            "V1__create_schema.sql",
+            "V2__seed_data.sql",
+            "V3__add_indexes.sql",
+            "V4__customer_paid_totals.sql"
+    );
+
+    private static final String CREATE_VERSION_TABLE = "CREATE TABLE IF NOT EXISTS schema_version (" +
+            "version INT PRIMARY KEY, " +
+            "description VARCHAR(200) NOT NULL, " +
+            "script VARCHAR(200) NOT NULL, " +
+            "checksum BIGINT NOT NULL, " +
+            "installed_on TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL, " +
+            "execution_time_ms BIGINT NOT NULL)";
+    private static final String SELECT_APPLIED = "SELECT version, checksum FROM schema_version";
+    private static final String INSERT_APPLIED = "INSERT INTO schema_version " +
+            "(version, description, script, checksum, execution_time_ms) VALUES (?, ?, ?, ?, ?)";
+
+    private final List<Migration> migrations;
+
+    /**
+     * Constructor that reads the scripts of the application
+     */
+    public SchemaMigrator() {
+        this(MIGRATIONS);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param scripts Names of the scripts, in {@link #LOCATION}
+     */
+    SchemaMigrator(@NotNull List<String> scripts) {
+        migrations = new ArrayList<>(scripts.size());
+        for (String script : scripts) {
+            migrations.add(Migration.load(script));
+        }
+        migrations.sort((a, b) -> Integer.compare(a.version, b.version));
+
+        for (int i = 1; i < migrations.size(); i++) {
+            if (migrations.get(i).version == migrations.get(i - 1).version) {
+                throw new IllegalStateException("Two migration scripts have the version " + migrations.get(i).version);
+            }
+        }
+    }
+
+    /**
+     * Applies the scripts that aren't applied yet, after checking that the applied ones didn't change
+     *
+     * @param connection Object that represents a connection to the database
+     * @return Number of scripts applied
+     * @throws SQLException          In case of a database error
+     * @throws IllegalStateException In case an applied script was modified
+     */
+    public int migrate(@NotNull Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_VERSION_TABLE);
+        }
+
+        try {
+            connection.setAutoCommit(false);
+            Map<Integer, Long> applied = getAppliedChecksums(connection);
+            int count = 0;
+
+            for (Migration migration : migrations) {
+                Long checksum = applied.get(migration.version);
+                if (checksum == null) {
+                    apply(connection, migration);
+                    count++;
+                } else if (checksum != migration.checksum) {
+                    throw new IllegalStateException("Migration " + migration.script
+                            + " was modified after it was applied (checksum " + migration.checksum
+                            + ", expected " + checksum + ")");
+                }
+            }
+
+            return count;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Gets the version of the last script applied
+     *
+     * @param connection Object that represents a connection to the database
+     * @return Version of the schema, or 0 if no script was applied
+     * @throws SQLException In case of a database error
+     */
+    public static int getCurrentVersion(@NotNull Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT MAX(version) FROM schema_version");
+             ResultSet rs = ps.executeQuery()
+        ) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Reads the checksums of the applied scripts
+     *
+     * @param connection Object that represents a connection to the database
+     * @return Checksum of each applied version
+     * @throws SQLException In case of a database error
+     */
+    private static @NotNull Map<Integer, Long> getAppliedChecksums(@NotNull Connection connection) throws SQLException {
+        Map<Integer, Long> applied = new HashMap<>();
+
+        try (PreparedStatement ps = connection.prepareStatement(SELECT_APPLIED);
+             ResultSet rs = ps.executeQuery()
+        ) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Runs one script and records it. Data changes are rolled back if the script fails, but H2 commits DDL
+     * statements as they run, so a failed script that creates objects has to be fixed by hand
+     *
+     * @param connection Object that represents a connection to the database
+     * @param migration  Script to apply
+     * @throws SQLException In case of a database error
+     */
+    private static void apply(@NotNull Connection connection, @NotNull Migration migration) throws SQLException {
+        long start = System.nanoTime();
+
+        try {
+            RunScript.execute(connection, new StringReader(migration.sql));
+
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_APPLIED)) {
+                ps.setInt(1, migration.version);
+                ps.setString(2, migration.description);
+                ps.setString(3, migration.script);
+                ps.setLong(4, migration.checksum);
+                ps.setLong(5, (System.nanoTime() - start) / 1_000_000);
+                ps.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException ex) {
+            connection.rollback();
+            throw new SQLException("Migration " + migration.script + " failed: " + ex.getMessage(),
+                    ex.getSQLState(), ex.getErrorCode(), ex);
+        }
+    }
+
+    /**
+     * One versioned script
+     */
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final String script;
+        private final String sql;
+        private final long checksum;
+
+        private Migration(int version, String description, String script, String sql) {
+            this.version = version;
+            this.description = description;
+            this.script = script;
+            this.sql = sql;
+
+            // Line endings don't count, so a checkout on another OS doesn't look like a modified script
+            CRC32 crc = new CRC32();
+            crc.update(sql.replace("\r\n", "\n").getBytes(StandardCharsets.UTF_8));
+            this.checksum = crc.getValue();
+        }
+
+        /**
+         * Reads a script from the classpath
+         *
+         * @param script Name of the script (ex. V1__create_schema.sql)
+         * @return The migration
+         * @throws IllegalStateException In case the name is invalid or the script can't be read
+         */
+        private static @NotNull Migration load(@NotNull String script) {
+            int separator = script.indexOf("__");
+            if (!script.startsWith("V") || separator < 2 || !script.endsWith(".sql")) {
+                throw new IllegalStateException("Invalid migration name " + script + ", expected V<version>__<description>.sql");
+            }
+
+            int version;
+            try {
+                version = Integer.parseInt(script.substring(1, separator));
+            } catch (NumberFormatException ex) {
+                throw new IllegalStateException("Invalid migration version in " + script, ex);
+            }
+            String description = script.substring(separator + 2, script.length() - 4).replace('_', ' ');
+
+            try (InputStream is = SchemaMigrator.class.getResourceAsStream(LOCATION + script)) {
+                if (is == null) {
+                    throw new IllegalStateException("Migration " + script + " not found in " + LOCATION);
+                }
+                return new Migration(version, description, script, new String(is.readAllBytes(), StandardCharsets.UTF_8));
+            } catch (IOException ex) {
+                throw new IllegalStateException("Migration " + script + " couldn't be read", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.example.order.util;
+
+import com.example.order.dto.SlowQueryDto;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Log of the statements slower than a threshold.
+ * <p>
+ * When the log is enabled, {@link Database} wraps the connections it hands out with {@link #wrap(Connection)}: the
+ * prepared and callable statements of a wrapped connection keep their bound parameters and time their execute calls.
+ * The time of a query includes reading its result set, until the result set is closed, and its rows are the rows
+ * read; the rows of an update are its update count (the sum of a batch). A statement that reaches the threshold is
+ * printed on the standard error and kept, with its parameters and the DAO method that ran it, among the last ones
+ * logged. An execution that fails is logged the same way, with its error instead of rows.
+ * <p>
+ * The procedures of {@link H2StoredProcedures} run inside the database on its own connection, so they're timed as
+ * part of the {@code CALL} statement that runs them.
+ */
+public class SlowQueryLog {
+    /**
+     * Number of statements kept by default
+     */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private static final String DAO_PACKAGE = "com.example.order.dao.";
+    private static final int MAX_PARAMETERS = 20;
+    private static final int MAX_ARRAY_VALUES = 10;
+
+    private final int capacity;
+    private final Deque<SlowQueryDto> entries = new ArrayDeque<>();
+    private final LongAdder logged = new LongAdder();
+    private volatile long thresholdNanos;
+
+    /**
+     * Constructor
+     *
+     * @param thresholdMillis Duration from which a statement is logged, negative to disable the log
+     * @param capacity        Number of statements kept, the oldest ones are dropped
+     */
+    public SlowQueryLog(long thresholdMillis, int capacity) {
+        this.capacity = Math.max(1, capacity);
+        setThresholdMillis(thresholdMillis);
+    }
+
+    /**
+     * Checks if the connections should be wrapped
+     *
+     * @return true if the log has a threshold
+     */
+    public boolean isEnabled() {
+        return thresholdNanos >= 0;
+    }
+
+    /**
+     * Gets the threshold
+     *
+     * @return Duration from which a statement is logged, negative if the log is disabled
+     */
+    public long getThresholdMillis() {
+        return thresholdNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    /**
+     * Changes the threshold. The connections already borrowed keep being timed (or not) until they're closed
+     *
+     * @param thresholdMillis Duration from which a statement is logged, negative to disable the log
+     */
+    public void setThresholdMillis(long thresholdMillis) {
+        this.thresholdNanos = thresholdMillis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    /**
+     * Gets the statements logged
+     *
+     * @return The last statements logged, oldest first
+     */
+    public synchronized @NotNull List<SlowQueryDto> getEntries() {
+        return new ArrayList<>(entries);
+    }
+
+    /**
+     * Gets the number of statements logged
+     *
+     * @return Statements logged since the start (or the last clear), including the ones no longer kept
+     */
+    public long getLogged() {
+        return logged.sum();
+    }
+
+    /**
+     * Forgets the statements logged
+     */
+    public synchronized void clear() {
+        entries.clear();
+        logged.reset();
+    }
+
+    /**
+     * Wraps a connection so its prepared and callable statements are timed
+     *
+     * @param connection Connection to wrap
+     * @return Connection that behaves like the one given
+     */
+    public @NotNull Connection wrap(@NotNull Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection));
+    }
+
+    /**
+     * Logs a statement if it reached the threshold, error is the failure of the statement or null if it succeeded
+     */
+    private void log(@NotNull String sql, Object @NotNull [] parameters, int count, int batches, long elapsedNanos,
+                     long rows, @Nullable String error) {
+        long threshold = thresholdNanos;
+        if (threshold < 0 || elapsedNanos < threshold) {
+            return;
+        }
+
+        SlowQueryDto entry = new SlowQueryDto();
+        entry.setTime(LocalDateTime.now());
+        entry.setElapsedNanos(elapsedNanos);
+        entry.setSql(sql);
+        String values = formatParameters(parameters, count);
+        entry.setParameters(batches > 0 ? "batch of " + batches + ", last " + values : values);
+        entry.setCaller(findCaller());
+        entry.setRows(rows);
+        entry.setError(error);
+
+        synchronized (this) {
+            if (entries.size() == capacity) {
+                entries.pollFirst();
+            }
+            entries.offerLast(entry);
+        }
+        logged.increment();
+
+        if (error != null) {
+            System.err.printf("Slow statement: %.3f ms, failed, %s: %s (%s): %s%n", elapsedNanos / 1e6,
+                    entry.getCaller(), sql, entry.getParameters(), error);
+        } else {
+            System.err.printf("Slow statement: %.3f ms, %d rows, %s: %s (%s)%n", elapsedNanos / 1e6, rows,
+                    entry.getCaller(), sql, entry.getParameters());
+        }
+    }
+
+    /**
+     * Formats the first bound parameters, by position, abbreviating long lists and arrays
+     */
+    static @NotNull String formatParameters(Object @NotNull [] parameters, int count) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < Math.min(count, MAX_PARAMETERS); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            Object value = parameters[i];
+            if (value instanceof Object[]) {
+                Object[] values = (Object[]) value;
+                sb.append(Arrays.toString(Arrays.copyOf(values, Math.min(values.length, MAX_ARRAY_VALUES))));
+                if (values.length > MAX_ARRAY_VALUES) {
+                    sb.insert(sb.length() - 1, ", ... " + values.length + " values");
+                }
+            } else if (value instanceof CharSequence) {
+                sb.append('\'').append(value).append('\'');
+            } else {
+                sb.append(value);
+            }
+        }
+        if (count > MAX_PARAMETERS) {
+            sb.append(", ... ").append(count).append(" parameters");
+        }
+        return sb.append(']').toString();
+    }
+
+    /**
+     * Finds the DAO method that runs the statement, or else the first method outside of the JDBC layer
+     */
+    private static @NotNull String findCaller() {
+        List<StackWalker.StackFrame> frames = StackWalker.getInstance().walk(stream -> stream
+                .filter(frame -> !isJdbcLayer(frame.getClassName()))
+                .collect(Collectors.toList()));
+
+        for (StackWalker.StackFrame frame : frames) {
+            if (frame.getClassName().startsWith(DAO_PACKAGE)) {
+                return methodName(frame);
+            }
+        }
+        return frames.isEmpty() ? "unknown" : methodName(frames.get(0));
+    }
+
+    private static boolean isJdbcLayer(@NotNull String className) {
+        return className.startsWith("java.") || className.startsWith("jdk.") || className.startsWith("com.sun.proxy.")
+                || className.startsWith(SlowQueryLog.class.getName())
+                || className.startsWith(ConnectionPool.class.getName());
+    }
+
+    private static @NotNull String methodName(StackWalker.@NotNull StackFrame frame) {
+        return frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1) + "." + frame.getMethodName();
+    }
+
+    private static Object forward(@NotNull Object target, @NotNull Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Proxy handler of a wrapped connection: wraps the prepared and callable statements
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, @NotNull Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "prepareStatement":
+                case "prepareCall":
+                    PreparedStatement statement = (PreparedStatement) forward(target, method, args);
+                    boolean call = statement instanceof CallableStatement;
+                    return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                            new Class<?>[]{call ? CallableStatement.class : PreparedStatement.class},
+                            new StatementHandler((Connection) proxy, (String) args[0], statement));
+                default:
+                    return forward(target, method, args);
+            }
+        }
+    }
+
+    /**
+     * Proxy handler of a wrapped statement: keeps the parameters and times the executions. The execution of a query
+     * stays pending until its result set is closed (or the statement is executed again or closed)
+     */
+    private final class StatementHandler implements InvocationHandler {
+        private final Connection connection;
+        private final String sql;
+        private final PreparedStatement target;
+        private Object[] parameters = new Object[8];
+        private int parameterCount;
+        private int batches;
+        private Object[] pendingParameters;
+        private long pendingNanos;
+        private long pendingRows;
+
+        private StatementHandler(Connection connection, String sql, PreparedStatement target) {
+            this.connection = connection;
+            this.sql = sql;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, @NotNull Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    return connection;
+                case "clearParameters":
+                    Arrays.fill(parameters, null);
+                    return forward(target, method, args);
+                case "addBatch":
+                    batches++;
+                    return forward(target, method, args);
+                case "clearBatch":
+                    batches = 0;
+                    return forward(target, method, args);
+                case "getResultSet":
+                    ResultSet resultSet = (ResultSet) forward(target, method, args);
+                    return resultSet != null && pendingParameters != null ? wrap(resultSet) : resultSet;
+                case "close":
+                    finishPending();
+                    return forward(target, method, args);
+                default:
+                    if (name.startsWith("execute")) {
+                        return execute(method, args);
+                    }
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        setParameter((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                    }
+                    return forward(target, method, args);
+            }
+        }
+
+        private void setParameter(int index, Object value) {
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            if (index > 0) {
+                parameters[index - 1] = value;
+                parameterCount = Math.max(parameterCount, index);
+            }
+        }
+
+        private Object execute(@NotNull Method method, Object[] args) throws Throwable {
+            finishPending();
+            int executedBatches = batches;
+            if (method.getName().endsWith("Batch")) {
+                batches = 0;
+            }
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = forward(target, method, args);
+            } catch (Throwable ex) {
+                log(sql, parameters, parameterCount, executedBatches, System.nanoTime() - start, -1,
+                        String.valueOf(ex));
+                throw ex;
+            }
+            long elapsed = System.nanoTime() - start;
+
+            if (result instanceof ResultSet || Boolean.TRUE.equals(result)) {
+                pendingParameters = Arrays.copyOf(parameters, parameterCount);
+                pendingNanos = elapsed;
+                pendingRows = 0;
+                return result instanceof ResultSet ? wrap((ResultSet) result) : result;
+            }
+
+            long rows = -1;
+            if (result instanceof Number) {
+                rows = ((Number) result).longValue();
+            } else if (result instanceof int[]) {
+                rows = 0;
+                for (int count : (int[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[]) {
+                rows = 0;
+                for (long count : (long[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (Boolean.FALSE.equals(result) && elapsed >= thresholdNanos) {
+                rows = target.getUpdateCount();
+            }
+            log(sql, parameters, parameterCount, executedBatches, elapsed, rows, null);
+            return result;
+        }
+
+        /**
+         * Logs the pending query, with the time and the rows of its result set
+         */
+        private void finishPending() {
+            if (pendingParameters != null) {
+                Object[] queryParameters = pendingParameters;
+                pendingParameters = null;
+                log(sql, queryParameters, queryParameters.length, 0, pendingNanos, pendingRows, null);
+            }
+        }
+
+        private @NotNull ResultSet wrap(@NotNull ResultSet resultSet) {
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class}, new ResultSetHandler(this, resultSet));
+        }
+    }
+
+    /**
+     * Proxy handler of the result set of a wrapped statement: adds the time spent reading rows to the query
+     */
+    private final class ResultSetHandler implements InvocationHandler {
+        private final StatementHandler statement;
+        private final ResultSet target;
+
+        private ResultSetHandler(StatementHandler statement, ResultSet target) {
+            this.statement = statement;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, @NotNull Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "next":
+                    long start = System.nanoTime();
+                    Object result = forward(target, method, args);
+                    statement.pendingNanos += System.nanoTime() - start;
+                    if (Boolean.TRUE.equals(result)) {
+                        statement.pendingRows++;
+                    }
+                    return result;
+                case "close":
+                    try {
+                        return forward(target, method, args);
+                    } finally {
+                        statement.finishPending();
+                    }
+                default:
+                    return forward(target, method, args);
+            }
+        }
+    }
+}
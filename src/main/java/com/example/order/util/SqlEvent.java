@@ -0,0 +1,32 @@
+package com.example.order.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event of the execution of a prepared statement handed out by the {@link ConnectionPool}
+ */
+@Name("com.example.order.Sql")
+@Label("SQL Execution")
+@Description("Execution of a prepared statement")
+@Category({"Orders", "JDBC"})
+@StackTrace(false)
+public class SqlEvent extends jdk.jfr.Event {
+
+    @Label("SQL")
+    public String sql;
+
+    @Label("Method")
+    @Description("JDBC method: execute, executeQuery, executeUpdate or executeBatch")
+    public String method;
+
+    @Label("Rows")
+    @Description("Rows affected (the sum of a batch), -1 for a query")
+    public long rows;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,31 @@
+create table customers(
+  customer_id     numeric IDENTITY PRIMARY KEY,
+  customer_name   varchar(50) NOT NULL,
+  customer_email  varchar(50) NOT NULL
+);
+
+create table products(
+  product_id     numeric IDENTITY PRIMARY KEY,
+  product_name   varchar(50) NOT NULL,
+  product_price  decimal(20, 2) NOT NULL
+);
+
+create table orders(
+  order_id           numeric IDENTITY PRIMARY KEY,
+  order_customer_id  numeric NOT NULL,
+  order_date         timestamp NOT NULL,
+  order_status       varchar(10) NOT NULL,
+  constraint fk_customer foreign key (order_customer_id) references customers(customer_id)
+);
+
+create table order_details(
+  order_detail_order_id    numeric NOT NULL,
+  order_detail_product_id  numeric NOT NULL,
+  order_detail_quantity    numeric NOT NULL,
+  constraint fk_product foreign key (order_detail_product_id) references products(product_id),
+  constraint fk_order foreign key (order_detail_order_id) references orders(order_id) ON DELETE CASCADE,
+  primary key(order_detail_order_id, order_detail_product_id)
+);
+
+CREATE ALIAS GET_PAID_ORDER_TOTAL_FROM_CUSTOMER FOR "com.example.order.util.H2StoredProcedures.getPaidOrderTotalFromCustomer";
+CREATE ALIAS MULT FOR "com.example.order.util.H2StoredProcedures.mult";
@@ -0,0 +1,20 @@
+insert into customers values(1, 'Kevin Doe', 'kdoe@example.com');
+insert into customers values(2, 'Amanda Walton', 'awton@example.com');
+insert into customers values(3, 'Dave Keaton', 'davek@example.com');
+insert into customers values(4, 'Joe Smith', 'joes@example.com');
+
+insert into products values(1, 'Case', 9.99);
+insert into products values(2, 'Charger', 9.99);
+insert into products values(3, 'Stand', 9.99);
+
+insert into orders values(1, 1, parsedatetime('17-09-2012 18:47:52.69', 'dd-MM-yyyy hh:mm:ss.SS'), 'created');
+insert into orders values(2, 2, parsedatetime('17-09-2012 18:47:52.69', 'dd-MM-yyyy hh:mm:ss.SS'), 'paid');
+insert into orders values(3, 3, parsedatetime('17-09-2012 18:47:52.69', 'dd-MM-yyyy hh:mm:ss.SS'), 'canceled');
+insert into orders values(4, 1, parsedatetime('17-09-2012 18:47:52.69', 'dd-MM-yyyy hh:mm:ss.SS'), 'paid');
+
+insert into order_details values(1, 2, 2);
+insert into order_details values(1, 3, 1);
+insert into order_details values(2, 1, 4);
+insert into order_details values(3, 1, 1);
+insert into order_details values(4, 1, 1);
+insert into order_details values(4, 2, 2);
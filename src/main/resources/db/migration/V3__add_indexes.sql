@@ -0,0 +1,8 @@
+-- The paid total and the customer lookups filter orders by customer and status
+create index idx_orders_customer_status on orders(order_customer_id, order_status);
+
+-- Orders are listed and purged by date
+create index idx_orders_date on orders(order_date);
+
+-- Sales per product and the product foreign key checks
+create index idx_order_details_product on order_details(order_detail_product_id);
@@ -0,0 +1,18 @@
+-- Paid total of every customer, kept up to date by PaidTotalTrigger so that the total command reads one row
+create table customer_paid_totals(
+  customer_id  numeric PRIMARY KEY,
+  paid_total   decimal(20, 2) NOT NULL,
+  paid_lines   bigint NOT NULL
+);
+
+insert into customer_paid_totals (customer_id, paid_total, paid_lines)
+select o.order_customer_id, sum(p.product_price * d.order_detail_quantity), count(*)
+from orders o
+join order_details d on d.order_detail_order_id = o.order_id
+join products p on p.product_id = d.order_detail_product_id
+where o.order_status = 'paid'
+group by o.order_customer_id;
+
+CREATE TRIGGER trg_orders_paid_total AFTER INSERT, UPDATE, DELETE ON orders FOR EACH ROW CALL "com.example.order.util.PaidTotalTrigger";
+CREATE TRIGGER trg_order_details_paid_total AFTER INSERT, UPDATE, DELETE ON order_details FOR EACH ROW CALL "com.example.order.util.PaidTotalTrigger";
+CREATE TRIGGER trg_products_paid_total AFTER UPDATE ON products FOR EACH ROW CALL "com.example.order.util.PaidTotalTrigger";
@@ -0,0 +1,115 @@
+package com.example.order;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.example.order.dto.OrderDetailDto;
+import com.example.order.dto.OrderDto;
+import com.example.order.service.AsyncOrderService;
+import com.example.order.util.Database;
+import com.example.order.util.OrderCache;
+import com.example.order.util.OrderStatus;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class AsyncOrderServiceTest {
+
+    @Test
+    public void shouldRunOperationsAsynchronously() {
+        try (AsyncOrderService service = new AsyncOrderService(Database.getInstance(), new OrderCache(0, 0), 2, 10,
+                AsyncOrderService.RejectionPolicy.ABORT)) {
+            OrderDetailDto detail = new OrderDetailDto();
+            detail.setProductId(1);
+            detail.setQuantity(1);
+            OrderDto orderDto = new OrderDto();
+            orderDto.setCustomerId(3);
+            orderDto.setOrderDetail(Collections.singletonList(detail));
+
+            long orderId = service.insertOrder(orderDto).join();
+            assertTrue(orderId > 0);
+
+            CompletableFuture<OrderDto> order = service.getOrder(orderId);
+            CompletableFuture<BigDecimal> total = service.getPaidTotal(1);
+            assertEquals(3, order.join().getCustomerId());
+            assertNotNull(total.join());
+
+            assertEquals(Integer.valueOf(1), service.updateOrderStatus(orderId, OrderStatus.CANCELED).join());
+            assertEquals(Integer.valueOf(1), service.deleteOrders(Collections.singletonList(orderId)).join());
+            assertNull(service.getOrder(orderId).join());
+        }
+    }
+
+    @Test
+    public void shouldApplyTheRejectionPolicyWhenTheQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        Database database = mock(Database.class);
+        when(database.getConnection()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return Database.getInstance().getConnection();
+        });
+
+        try (AsyncOrderService abort = new AsyncOrderService(database, new OrderCache(0, 0), 1, 1,
+                AsyncOrderService.RejectionPolicy.ABORT)) {
+            List<CompletableFuture<OrderDto>> futures = new ArrayList<>();
+            futures.add(abort.getOrder(1));
+            started.await(10, TimeUnit.SECONDS);
+            // One operation runs, one waits in the queue, the third one is refused
+            futures.add(abort.getOrder(2));
+            futures.add(abort.getOrder(3));
+
+            try {
+                futures.get(2).join();
+                fail("The operation should have been rejected");
+            } catch (CompletionException ex) {
+                assertTrue(ex.getCause() instanceof RejectedExecutionException);
+            }
+            assertEquals(1, abort.getRejected());
+            assertEquals(1, abort.getQueueSize());
+
+            release.countDown();
+            assertEquals(1, futures.get(0).join().getOrderId());
+            assertEquals(2, futures.get(1).join().getOrderId());
+        }
+    }
+
+    @Test
+    public void shouldRunInTheCallerThreadWhenTheQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        Database database = mock(Database.class);
+        when(database.getConnection()).thenAnswer(invocation -> {
+            if (Thread.currentThread().getName().startsWith("order-async-")) {
+                started.countDown();
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return Database.getInstance().getConnection();
+        });
+
+        try (AsyncOrderService callerRuns = new AsyncOrderService(database, new OrderCache(0, 0), 1, 1,
+                AsyncOrderService.RejectionPolicy.CALLER_RUNS)) {
+            CompletableFuture<OrderDto> running = callerRuns.getOrder(1);
+            started.await(10, TimeUnit.SECONDS);
+            CompletableFuture<OrderDto> queued = callerRuns.getOrder(2);
+
+            CompletableFuture<OrderDto> inCaller = callerRuns.getOrder(3);
+            assertTrue("The operation should have run in the calling thread", inCaller.isDone());
+            assertEquals(3, inCaller.join().getOrderId());
+            assertEquals(0, callerRuns.getRejected());
+
+            release.countDown();
+            assertEquals(1, running.join().getOrderId());
+            assertEquals(2, queued.join().getOrderId());
+        }
+    }
+}
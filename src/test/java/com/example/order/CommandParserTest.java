@@ -0,0 +1,80 @@
+package com.example.order;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import com.example.order.dto.CommandDto;
+import com.example.order.dto.ParamsDto;
+import com.example.order.util.CommandParser;
+import com.example.order.util.Commands;
+import com.example.order.util.LoadTable;
+import com.example.order.util.OutputFormat;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CommandParserTest {
+    private final CommandParser parser = new CommandParser();
+
+    @Test
+    public void shouldParseTheArgumentsOfEveryLineIntoParameters() {
+        CommandDto get = parser.parse("  GET 1\t2 --output jsonl 3 ");
+        assertTrue(get.isValid());
+        assertEquals(Commands.GET, get.getCommand());
+        assertEquals(Arrays.asList(1L, 2L, 3L), get.getParams().getOrderIds());
+        assertEquals(OutputFormat.JSONL, get.getParams().getOutputFormat());
+
+        ParamsDto update = parser.parse("update --customer 7 --current Created --before 2024-01-01 --chunk 50 paid")
+                .getParams();
+        assertEquals(7, update.getCustomerId());
+        assertEquals("created", update.getCurrentStatus());
+        assertEquals(LocalDate.of(2024, 1, 1), update.getBefore());
+        assertEquals(50, update.getChunkSize());
+        assertEquals("paid", update.getStatus());
+
+        ParamsDto insert = parser.parse("insert 1 2:3 30:1").getParams();
+        assertEquals(1, insert.getOrder().getCustomerId());
+        assertEquals(2, insert.getOrder().getOrderDetail().size());
+        assertEquals(30, insert.getOrder().getOrderDetail().get(1).getProductId());
+        assertEquals(1, insert.getOrder().getOrderDetail().get(1).getQuantity());
+        assertNull(parser.parse("insert").getParams().getOrder());
+
+        ParamsDto load = parser.parse("load --orders o.csv --threads 2").getParams();
+        assertEquals("o.csv", load.getLoadFiles().get(LoadTable.ORDERS));
+        assertEquals(2, load.getThreads());
+
+        StringBuilder many = new StringBuilder("delete");
+        for (int i = 1; i <= 40; i++) {
+            many.append(' ').append(i);
+        }
+        assertEquals(40, parser.parse(many.toString()).getParams().getOrderIds().size());
+        assertEquals(Commands.EXIT, parser.parse("exit").getCommand());
+    }
+
+    @Test
+    public void shouldAttachTheValidationErrorToTheCommand() {
+        CommandDto unknown = parser.parse("fetch 1");
+        assertFalse(unknown.isValid());
+        assertNull(unknown.getCommand());
+        assertEquals("Invalid command", unknown.getError());
+        assertEquals("Invalid command", parser.parse("   ").getError());
+
+        CommandDto get = parser.parse("get 1 x");
+        assertEquals(Commands.GET, get.getCommand());
+        assertNull(get.getParams());
+        assertEquals("The arguments of the command must be integers representing order IDs", get.getError());
+
+        assertEquals("The option --limit must be followed by a positive integer",
+                parser.parse("list --limit -1").getError());
+        assertEquals("The option --limit must be followed by a positive integer",
+                parser.parse("list --limit 0").getError());
+        assertEquals("Invalid order line '2:0', the format is <productId>:<quantity> with positive integers",
+                parser.parse("insert 1 2:0").getError());
+        assertEquals("The program received order IDs and a range of order IDs, give only one of them",
+                parser.parse("update 1 2 --from 3 paid").getError());
+        assertEquals("The arguments of the command must be integers representing order IDs",
+                parser.parse("delete 99999999999999999999").getError());
+        assertEquals("The program receive more than one customer ID", parser.parse("total 1 2").getError());
+        assertNotNull(parser.parse("cache").getError());
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.order;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+
+import com.example.order.util.ConnectionPool;
+import com.example.order.util.PoolStats;
+import org.h2.jdbc.JdbcConnection;
+import org.h2.jdbc.JdbcPreparedStatement;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConnectionPoolTest {
+    private ConnectionPool pool;
+
+    @Before
+    public void setup() throws SQLException {
+        pool = new ConnectionPool(() -> DriverManager.getConnection("jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1", "sa", ""),
+                1, 2, 200, 60_000, 0);
+        pool.fill();
+    }
+
+    @After
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void shouldReusePhysicalConnection() throws SQLException {
+        JdbcConnection first;
+        try (Connection con = pool.getConnection()) {
+            first = con.unwrap(JdbcConnection.class);
+        }
+        try (Connection con = pool.getConnection()) {
+            assertSame("Closing a pooled connection should return it to the pool.", first, con.unwrap(JdbcConnection.class));
+        }
+
+        PoolStats stats = pool.getStats();
+        assertEquals(0, stats.getActive());
+        assertEquals(1, stats.getTotal());
+        assertEquals(2, stats.getAcquired());
+    }
+
+    @Test
+    public void shouldRestoreAutoCommitOnRelease() throws SQLException {
+        try (Connection con = pool.getConnection()) {
+            con.setAutoCommit(false);
+        }
+        try (Connection con = pool.getConnection()) {
+            assertTrue(con.getAutoCommit());
+        }
+    }
+
+    @Test
+    public void shouldRejectUseAfterClose() throws SQLException {
+        Connection con = pool.getConnection();
+        con.close();
+
+        assertTrue(con.isClosed());
+        try {
+            con.createStatement();
+            fail("A closed pooled connection should not be usable.");
+        } catch (SQLException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldTimeOutWhenPoolIsExhausted() throws SQLException {
+        try (Connection first = pool.getConnection();
+             Connection second = pool.getConnection()
+        ) {
+            assertNotSame("Each borrow should get its own connection.", first, second);
+            pool.getConnection();
+            fail("The pool should not hand out more connections than its maximum size.");
+        } catch (SQLTimeoutException ex) {
+            assertEquals(1, pool.getStats().getTimeouts());
+        }
+    }
+
+    @Test
+    public void shouldReusePreparedStatementsOfConnection() throws SQLException {
+        try (ConnectionPool cachingPool = new ConnectionPool(
+                () -> DriverManager.getConnection("jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1", "sa", ""),
+                1, 1, 200, 60_000, 0, 1)) {
+            JdbcPreparedStatement first;
+            int defaultFetchSize;
+            try (Connection con = cachingPool.getConnection();
+                 PreparedStatement ps = con.prepareStatement("SELECT ? + 1")) {
+                first = ps.unwrap(JdbcPreparedStatement.class);
+                ps.setInt(1, 41);
+                defaultFetchSize = ps.getFetchSize();
+                ps.setFetchSize(10);
+                ps.setMaxRows(1);
+                ps.setQueryTimeout(5);
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(42, rs.getInt(1));
+                }
+            }
+
+            try (Connection con = cachingPool.getConnection();
+                 PreparedStatement ps = con.prepareStatement("SELECT ? + 1")) {
+                assertSame("The statement should be reused by the next borrower of the connection.",
+                        first, ps.unwrap(JdbcPreparedStatement.class));
+                assertEquals(defaultFetchSize, ps.getFetchSize());
+                assertEquals(0, ps.getMaxRows());
+                assertEquals(0, ps.getQueryTimeout());
+                try {
+                    ps.executeQuery();
+                    fail("The parameters of a cached statement should be cleared.");
+                } catch (SQLException ex) {
+                    // expected
+                }
+            }
+
+            try (Connection con = cachingPool.getConnection();
+                 PreparedStatement ps = con.prepareStatement("SELECT ? + 2")) {
+                assertFalse(ps.isClosed());
+            }
+            assertTrue("The least recently used statement should be closed when the cache is full.", first.isClosed());
+
+            PoolStats stats = cachingPool.getStats();
+            assertEquals(1, stats.getStatementHits());
+            assertEquals(2, stats.getStatementMisses());
+            assertEquals(1, stats.getStatementEvictions());
+        }
+    }
+}
@@ -11,6 +11,9 @@ import java.util.List;
 
 import com.example.order.dao.DeleteOrderDao;
 import com.example.order.dto.ParamsDto;
+import com.example.order.service.OrderService;
+import com.example.order.service.ServiceFactory;
+import com.example.order.util.Commands;
 import com.example.order.util.Database;
 import org.h2.expression.ParameterInterface;
 import org.h2.jdbc.JdbcParameterMetaData;
@@ -21,6 +24,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.mockito.exceptions.verification.WantedButNotInvoked;
 import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
@@ -29,6 +33,7 @@ import static org.mockito.Mockito.*;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest(DeleteOrderDao.class)
+@PowerMockIgnore("javax.management.*")
 public class DeleteOrderDaoTest {
     private Database databaseInstance;
     private DeleteOrderDao daoInstance;
@@ -154,6 +159,48 @@ public class DeleteOrderDaoTest {
                 paramsDto.getOrderIds().size(), numberAffectedRows);
     }
 
+    @Test
+    public void shouldDeleteOrdersInFixedSizeChunks() throws SQLException {
+        try (Connection con = databaseInstance.getConnection();
+             PreparedStatement ps = con.prepareStatement("INSERT INTO orders VALUES (?, 1, CURRENT_TIMESTAMP(), 'created')")
+        ) {
+            for (long id = 1001; id <= 1010; id++) {
+                ps.setLong(1, id);
+                ps.executeUpdate();
+            }
+        }
+
+        long[] orderIds = {1001, 1002, 1003, 1004, 1005, 1006, 1007, 1008, 1009, 1010, 9999};
+        assertEquals("Every chunk, including the padded last one, should delete its orders.",
+                7, daoInstance.deleteOrdersInChunks(orderIds, 7, 3, false));
+
+        long[] remaining = {1008, 1009, 1010, 9999};
+        assertEquals("The array parameter should delete the orders of every chunk.",
+                3, daoInstance.deleteOrdersInChunks(remaining, remaining.length, 3, true));
+    }
+
+    @Test
+    public void shouldDeleteCommandLineListsWithOneStatement() throws SQLException {
+        try (Connection con = databaseInstance.getConnection();
+             PreparedStatement ps = con.prepareStatement("INSERT INTO orders VALUES (?, 1, CURRENT_TIMESTAMP(), 'created')")
+        ) {
+            for (long id = 1101; id <= 1105; id++) {
+                ps.setLong(1, id);
+                ps.executeUpdate();
+            }
+        }
+
+        OrderService service = ServiceFactory.get(Commands.DELETE);
+        ParamsDto two = new ParamsDto();
+        two.setOrderIds(Arrays.asList(1101L, 1102L));
+        assertEquals("Rows affected: 2", service.execute(two));
+
+        ParamsDto three = new ParamsDto();
+        three.setOrderIds(Arrays.asList(1103L, 1104L, 1105L, 9999L));
+        assertEquals("Rows affected: 3", service.execute(three));
+        assertEquals("No rows affected", service.execute(three));
+    }
+
     private int countCharOccurrences(@NotNull String someString, char someChar) {
         int count = 0;
 
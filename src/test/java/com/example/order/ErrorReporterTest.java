@@ -0,0 +1,63 @@
+package com.example.order;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.order.util.ErrorReporter;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ErrorReporterTest {
+
+    @Test
+    public void shouldWriteOneRecordPerKindOfErrorAndCountTheRepeats() throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ErrorReporter reporter = new ErrorReporter(new PrintStream(buffer, true, "UTF-8"), 100, 60_000);
+        AtomicInteger firsts = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 250; i++) {
+                    SQLException ex = new SQLException("Referential integrity constraint violation " + i, "23506", 23506);
+                    if (reporter.report(ex)) {
+                        firsts.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(reporter.report(new SQLException("Table \"NOPE\" not found", "42S02", 42102)));
+        reporter.close();
+
+        assertEquals(1, firsts.get());
+        assertEquals(1000, reporter.getCount("23506"));
+        assertEquals(1, reporter.getCount("42S02"));
+        assertEquals(2, reporter.getCounts().size());
+        assertEquals(0, reporter.getDropped());
+
+        String[] lines = buffer.toString(StandardCharsets.UTF_8.name()).split(System.lineSeparator());
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"sqlState\":\"23506\""));
+        assertTrue(lines[0].contains("\"errorCode\":23506"));
+        assertTrue(lines[0].contains("\"thread\":"));
+        assertTrue(lines[0].contains("\"stackTrace\":[\"com.example.order.ErrorReporterTest"));
+        assertTrue(lines[1].contains("\"sqlState\":\"42S02\""));
+        assertTrue(lines[2].contains("\"sqlState\":\"23506\""));
+        assertTrue(lines[2].contains("\"repeated\":999"));
+        assertFalse(lines[2].contains("\"stackTrace\""));
+    }
+}
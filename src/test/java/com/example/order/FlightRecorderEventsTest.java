@@ -0,0 +1,115 @@
+package com.example.order;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.order.dto.ParamsDto;
+import com.example.order.service.ServiceFactory;
+import com.example.order.util.Commands;
+import com.example.order.util.ConnectionPool;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FlightRecorderEventsTest {
+
+    @Test
+    public void shouldRecordCommandDaoSqlAndConnectionEvents() throws Exception {
+        Path file = Files.createTempFile("orders", ".jfr");
+        List<RecordedEvent> events;
+
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.order.Command");
+            recording.enable("com.example.order.Dao");
+            recording.enable("com.example.order.Sql");
+            recording.enable("com.example.order.ConnectionAcquire");
+            recording.start();
+
+            ParamsDto paramsDto = new ParamsDto();
+            paramsDto.setCustomerId(2);
+            assertEquals("Total: 39.96", ServiceFactory.get(Commands.TOTAL).execute(paramsDto));
+
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        Map<String, RecordedEvent> byType = new HashMap<>();
+        for (RecordedEvent event : events) {
+            if (event.getThread() != null && event.getThread().getJavaThreadId() == Thread.currentThread().getId()) {
+                byType.put(event.getEventType().getName(), event);
+            }
+        }
+
+        RecordedEvent command = byType.get("com.example.order.Command");
+        assertNotNull(command);
+        assertEquals("total", command.getString("command"));
+        assertEquals(2, command.getLong("customerId"));
+        assertFalse(command.getBoolean("failed"));
+
+        RecordedEvent dao = byType.get("com.example.order.Dao");
+        assertNotNull(dao);
+        assertEquals("TotalOrderDao.getTotalAllPaidOrders", dao.getString("method"));
+        assertEquals(1, dao.getLong("rows"));
+
+        RecordedEvent sql = byType.get("com.example.order.Sql");
+        assertNotNull(sql);
+        assertTrue(sql.getString("sql").contains("customer_paid_totals"));
+
+        assertNotNull(byType.get("com.example.order.ConnectionAcquire"));
+        assertFalse(command.getStartTime().isAfter(dao.getStartTime()));
+        assertFalse(command.getEndTime().isBefore(dao.getEndTime()));
+    }
+
+    @Test
+    public void shouldRecordSqlEventsWithoutTheStatementCache() throws Exception {
+        Path file = Files.createTempFile("orders", ".jfr");
+        List<RecordedEvent> events;
+
+        try (ConnectionPool pool = new ConnectionPool(
+                () -> DriverManager.getConnection("jdbc:h2:mem:jfrtest;DB_CLOSE_DELAY=-1", "sa", ""), 0, 1, 1000, 0, 0, 0);
+             Recording recording = new Recording()
+        ) {
+            recording.enable("com.example.order.Sql");
+            recording.start();
+
+            try (Connection con = pool.getConnection();
+                 PreparedStatement ps = con.prepareStatement("SELECT ? + 1")
+            ) {
+                ps.setInt(1, 41);
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(42, rs.getInt(1));
+                }
+                assertSame(con, ps.getConnection());
+            }
+
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        RecordedEvent sql = events.stream()
+                .filter(event -> "com.example.order.Sql".equals(event.getEventType().getName()))
+                .findFirst()
+                .orElse(null);
+        assertNotNull("The statements that aren't cached should be recorded too", sql);
+        assertEquals("SELECT ? + 1", sql.getString("sql"));
+        assertEquals("executeQuery", sql.getString("method"));
+        assertEquals(-1, sql.getLong("rows"));
+    }
+}
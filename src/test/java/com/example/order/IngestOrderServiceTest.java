@@ -0,0 +1,68 @@
+package com.example.order;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.order.dto.OrderDto;
+import com.example.order.dto.ParamsDto;
+import com.example.order.service.IngestOrderService;
+import com.example.order.util.OrderJsonParser;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IngestOrderServiceTest {
+
+    @Test
+    public void shouldParseOrderFromJson() {
+        OrderDto orderDto = OrderJsonParser.parseOrder(
+                "{\"customerId\": 2, \"note\": {\"a\": [1, \"x\"]}, \"details\": [{\"productId\": 1, \"quantity\": 3}, {\"product_id\": 2, \"quantity\": 1}]}");
+
+        assertEquals(2, orderDto.getCustomerId());
+        assertEquals(2, orderDto.getOrderDetail().size());
+        assertEquals(1, orderDto.getOrderDetail().get(0).getProductId());
+        assertEquals(3, orderDto.getOrderDetail().get(0).getQuantity());
+        assertEquals(2, orderDto.getOrderDetail().get(1).getProductId());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectOrderWithoutDetails() {
+        OrderJsonParser.parseOrder("{\"customerId\": 2, \"details\": []}");
+    }
+
+    @Test
+    public void shouldIngestOrdersAndRejectBadRecords() throws Exception {
+        Path input = Files.createTempFile("orders", ".jsonl");
+        Path rejects = Files.createTempFile("rejects", ".txt");
+        try {
+            Files.write(input, Arrays.asList(
+                    "{\"customerId\": 1, \"details\": [{\"productId\": 1, \"quantity\": 1}]}",
+                    "not json",
+                    "{\"customerId\": 2, \"details\": [{\"productId\": 2, \"quantity\": 2}, {\"productId\": 3, \"quantity\": 1}]}",
+                    "{\"customerId\": 99, \"details\": [{\"productId\": 1, \"quantity\": 1}]}",
+                    "{\"customerId\": 3, \"details\": [{\"productId\": 3, \"quantity\": 5}]}"
+            ), StandardCharsets.UTF_8);
+
+            ParamsDto paramsDto = new ParamsDto();
+            paramsDto.setFile(input.toString());
+            paramsDto.setBatchSize(2);
+            paramsDto.setRejectFile(rejects.toString());
+
+            String result = new IngestOrderService().execute(paramsDto);
+
+            assertTrue(result, result.startsWith("Ingested 3 orders (4 detail lines)"));
+            assertTrue(result, result.endsWith("2 rejected"));
+
+            List<String> rejected = Files.readAllLines(rejects, StandardCharsets.UTF_8);
+            assertEquals(2, rejected.size());
+            assertTrue(rejected.get(0).startsWith("2\t"));
+            assertTrue(rejected.get(1).startsWith("4\t"));
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(rejects);
+        }
+    }
+}
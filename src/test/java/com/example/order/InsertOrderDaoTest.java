@@ -4,6 +4,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 
 import com.example.order.dao.InsertOrderDao;
@@ -12,11 +13,13 @@ import com.example.order.dto.OrderDto;
 import com.example.order.util.Database;
 import org.h2.expression.ParameterInterface;
 import org.h2.jdbc.JdbcParameterMetaData;
+import org.h2.jdbc.JdbcPreparedStatement;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
@@ -25,6 +28,7 @@ import static org.mockito.Mockito.*;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest(InsertOrderDao.class)
+@PowerMockIgnore("javax.management.*")
 public class InsertOrderDaoTest {
     private Database databaseInstance;
     private InsertOrderDao daoInstance;
@@ -86,11 +90,12 @@ public class InsertOrderDaoTest {
                 result
         );
 
-        // Get the private field to see if generate keys is set
-        Field generatedKeysField = result.getClass().getDeclaredField("generatedKeysRequest");
+        // Get the private field to see if generate keys is set (on the H2 statement behind the pool's proxy)
+        JdbcPreparedStatement statement = result.unwrap(JdbcPreparedStatement.class);
+        Field generatedKeysField = statement.getClass().getDeclaredField("generatedKeysRequest");
         generatedKeysField.setAccessible(true);
 
-        Boolean flag = (Boolean) generatedKeysField.get(result);
+        Boolean flag = (Boolean) generatedKeysField.get(statement);
         assertTrue("The method `createOrderPreparedStatement()` doesn't return a `PreparedStatement` object with the flag indicating whether auto-generated keys should be returned set.",
                 flag != null && flag
         );
@@ -246,19 +251,23 @@ public class InsertOrderDaoTest {
 
     @Test
     public void shouldCreatedPreparedStatementObjectForOrderDetailOfMainOrder() throws Exception {
-        // createOrderDetailPreparedStatement
-        Method createPreparedStatementMethod = daoInstance.getClass().getDeclaredMethod("createOrderDetailPreparedStatement", Connection.class, OrderDetailDto.class);
+        // createOrderDetailPreparedStatement + setOrderDetailParameters
+        Method createPreparedStatementMethod = daoInstance.getClass().getDeclaredMethod("createOrderDetailPreparedStatement", Connection.class);
         createPreparedStatementMethod.setAccessible(true);
+        Method setParametersMethod = daoInstance.getClass().getDeclaredMethod("setOrderDetailParameters", PreparedStatement.class, OrderDetailDto.class);
+        setParametersMethod.setAccessible(true);
 
         PreparedStatement result = (PreparedStatement) createPreparedStatementMethod.invoke(
                 daoInstance,
-                databaseInstance.getConnection(), orderDto.getOrderDetail().get(0)
+                databaseInstance.getConnection()
         );
 
         assertNotNull("The method `createOrderDetailPreparedStatement()` should not return null.",
                 result
         );
 
+        setParametersMethod.invoke(daoInstance, result, orderDto.getOrderDetail().get(0));
+
         // Get the private field with the parameters set
         JdbcParameterMetaData parameterMetaData = (JdbcParameterMetaData) result.getParameterMetaData();
         Field parametersField = parameterMetaData.getClass().getDeclaredField("parameters");
@@ -270,28 +279,28 @@ public class InsertOrderDaoTest {
         assertNotNull("The method `createOrderDetailPreparedStatement()` doesn't create a valid PreparedStatement with the insert query.",
                 parameters
         );
-        assertEquals("You should set the ID of the order, the product ID, and the quantity of the product as parameters on the PreparedStatement object returned by the method `createOrderDetailPreparedStatement()`.",
+        assertEquals("You should set the ID of the order, the product ID, and the quantity of the product as parameters on the PreparedStatement object passed to the method `setOrderDetailParameters()`.",
                 3, parameters.size()
         );
-        assertTrue("You should set the ID of the order as the first parameter (of type Long) on the PreparedStatement object returned by the method `createOrderDetailPreparedStatement()`.",
+        assertTrue("You should set the ID of the order as the first parameter (of type Long) on the PreparedStatement object passed to the method `setOrderDetailParameters()`.",
                 parameters.get(0).isValueSet()
         );
-        assertTrue("You should set the product ID as the second parameter (of type Long) on the PreparedStatement object returned by the method `createOrderDetailPreparedStatement()`.",
+        assertTrue("You should set the product ID as the second parameter (of type Long) on the PreparedStatement object passed to the method `setOrderDetailParameters()`.",
                 parameters.get(1).isValueSet()
         );
-        assertTrue("You should set the quantity of the product as the third parameter (of type Int) on the PreparedStatement object returned by the method `createOrderDetailPreparedStatement()`.",
+        assertTrue("You should set the quantity of the product as the third parameter (of type Int) on the PreparedStatement object passed to the method `setOrderDetailParameters()`.",
                 parameters.get(2).isValueSet()
         );
     }
 
     @Test
     public void shouldExecuteInsertOperationOnOrderDetail() throws Exception {
-        // Execute update on second PreparedStatement
+        // Execute the batch of the second PreparedStatement
         InsertOrderDao daoMock = PowerMockito.spy(daoInstance);
         PreparedStatement psMock = Mockito.mock(PreparedStatement.class);
 
         PowerMockito.doReturn(psMock)
-                .when(daoMock, "createOrderDetailPreparedStatement", any(Connection.class), any(OrderDetailDto.class));
+                .when(daoMock, "createOrderDetailPreparedStatement", any(Connection.class));
 
         try {
             daoMock.insertOrder(orderDto);
@@ -300,9 +309,11 @@ public class InsertOrderDaoTest {
         }
 
         try {
-            verify(psMock, times(1)).executeUpdate();
+            verify(psMock, times(orderDto.getOrderDetail().size())).addBatch();
+            verify(psMock, times(1)).executeBatch();
+            verify(psMock, never()).executeUpdate();
         } catch (Error ex) {
-            fail("You didn't call the `executeUpdate()` method on the `PreparedStatement` returned by the method `createOrderDetailPreparedStatement()`.");
+            fail("You didn't add every detail line to the batch and call the `executeBatch()` method once on the `PreparedStatement` returned by the method `createOrderDetailPreparedStatement()`.");
         }
     }
 
@@ -320,7 +331,7 @@ public class InsertOrderDaoTest {
         when(psMock.getGeneratedKeys()).thenReturn(rsMock);
         when(rsMock.next()).thenReturn(true);
         when(connectionMock.prepareStatement(anyString())).thenReturn(psDetailMock);
-        when(psDetailMock.executeUpdate()).thenReturn(0);
+        when(psDetailMock.executeBatch()).thenReturn(new int[]{0});
 
         InsertOrderDao dao = new InsertOrderDao(databaseMock);
         long orderId = -9999;
@@ -354,7 +365,7 @@ public class InsertOrderDaoTest {
         when(psMock.getGeneratedKeys()).thenReturn(rsMock);
         when(rsMock.next()).thenReturn(true);
         when(connectionMock.prepareStatement(anyString())).thenReturn(psDetailMock);
-        when(psDetailMock.executeUpdate()).thenReturn(1);
+        when(psDetailMock.executeBatch()).thenReturn(new int[]{1});
 
         InsertOrderDao dao = new InsertOrderDao(databaseMock);
         long orderId = -1;
@@ -401,4 +412,67 @@ public class InsertOrderDaoTest {
             fail("You didn't call the `rollback()` method on the `Connection` object.");
         }
     }
+
+    @Test
+    public void shouldRollbackTransactionWhenADetailLineFails() throws Exception {
+        Database databaseMock = Mockito.mock(Database.class);
+        Connection connectionMock = Mockito.mock(Connection.class);
+        PreparedStatement psMock = Mockito.mock(PreparedStatement.class);
+        PreparedStatement psDetailMock = Mockito.mock(PreparedStatement.class);
+        ResultSet rsMock = Mockito.mock(ResultSet.class);
+
+        when(databaseMock.getConnection()).thenReturn(connectionMock);
+        when(connectionMock.prepareStatement(anyString(), anyInt())).thenReturn(psMock);
+        when(psMock.getGeneratedKeys()).thenReturn(rsMock);
+        when(rsMock.next()).thenReturn(true);
+        when(connectionMock.prepareStatement(anyString())).thenReturn(psDetailMock);
+        when(psDetailMock.executeBatch()).thenThrow(new BatchUpdateException(new int[]{Statement.EXECUTE_FAILED}));
+
+        long orderId = new InsertOrderDao(databaseMock).insertOrder(orderDto);
+
+        verify(connectionMock, times(1)).rollback();
+        verify(connectionMock, never()).commit();
+        assertEquals(-1, orderId);
+    }
+
+    @Test
+    public void shouldInsertSeveralOrdersInOneTransaction() throws Exception {
+        OrderDto second = new OrderDto();
+        second.setCustomerId(2);
+        OrderDetailDto firstLine = new OrderDetailDto();
+        firstLine.setProductId(2);
+        firstLine.setQuantity(3);
+        OrderDetailDto secondLine = new OrderDetailDto();
+        secondLine.setProductId(3);
+        secondLine.setQuantity(1);
+        second.setOrderDetail(Arrays.asList(firstLine, secondLine));
+
+        long[] orderIds = daoInstance.insertOrders(Arrays.asList(orderDto, second));
+
+        assertEquals(2, orderIds.length);
+        try (Connection con = databaseInstance.getConnection();
+             PreparedStatement ps = con.prepareStatement("SELECT COUNT(*) FROM order_details WHERE order_detail_order_id IN (?, ?)")
+        ) {
+            ps.setLong(1, orderIds[0]);
+            ps.setLong(2, orderIds[1]);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals(3, rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    public void shouldInsertNoOrderWhenOneOfThemFails() {
+        OrderDto invalid = new OrderDto();
+        invalid.setCustomerId(1);
+        OrderDetailDto line = new OrderDetailDto();
+        line.setProductId(-1);
+        line.setQuantity(1);
+        invalid.setOrderDetail(Collections.singletonList(line));
+
+        long[] orderIds = daoInstance.insertOrders(Arrays.asList(orderDto, invalid));
+
+        assertEquals(0, orderIds.length);
+    }
 }
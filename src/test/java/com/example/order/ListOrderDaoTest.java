@@ -0,0 +1,93 @@
+package com.example.order;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.order.dao.ListOrderDao;
+import com.example.order.dto.ParamsDto;
+import com.example.order.util.Database;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ListOrderDaoTest {
+    private static final String URL = "jdbc:h2:mem:listtest;DB_CLOSE_DELAY=-1";
+
+    private ListOrderDao daoInstance;
+    private Database databaseMock;
+
+    @Before
+    public void setup() throws SQLException {
+        org.h2.Driver.load();
+        try (Connection con = DriverManager.getConnection(URL, "sa", "");
+             Statement st = con.createStatement()
+        ) {
+            st.execute("CREATE TABLE orders(order_id numeric PRIMARY KEY, order_customer_id numeric NOT NULL, " +
+                    "order_date timestamp NOT NULL, order_status varchar(10) NOT NULL)");
+            try (PreparedStatement ps = con.prepareStatement("INSERT INTO orders VALUES (?, ?, ?, ?)")) {
+                for (int id = 1; id <= 25; id++) {
+                    ps.setLong(1, id);
+                    ps.setLong(2, id % 2 == 0 ? 1 : 2);
+                    ps.setTimestamp(3, Timestamp.valueOf(LocalDate.of(2020, 1, id).atStartOfDay()));
+                    ps.setString(4, id % 5 == 0 ? "paid" : "created");
+                    ps.executeUpdate();
+                }
+            }
+        }
+
+        databaseMock = mock(Database.class);
+        when(databaseMock.getConnection()).thenAnswer(invocation -> DriverManager.getConnection(URL, "sa", ""));
+        daoInstance = new ListOrderDao(databaseMock);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        try (Connection con = DriverManager.getConnection(URL, "sa", "");
+             Statement st = con.createStatement()
+        ) {
+            st.execute("DROP TABLE orders");
+        }
+    }
+
+    @Test
+    public void shouldListEveryPageInIdOrder() {
+        ParamsDto paramsDto = new ParamsDto();
+        paramsDto.setChunkSize(4);
+        List<Long> ids = new ArrayList<>();
+
+        assertEquals(25, daoInstance.listOrders(paramsDto, order -> ids.add(order.getOrderId())));
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals("The pages should follow each other without gaps or repeats.", i + 1, (long) ids.get(i));
+        }
+    }
+
+    @Test
+    public void shouldApplyFiltersAndLimit() {
+        ParamsDto paramsDto = new ParamsDto();
+        paramsDto.setCustomerId(1);
+        paramsDto.setCurrentStatus("created");
+        paramsDto.setSince(LocalDate.of(2020, 1, 3));
+        paramsDto.setBefore(LocalDate.of(2020, 1, 20));
+        paramsDto.setRangeFrom(5L);
+        paramsDto.setChunkSize(2);
+        List<Long> ids = new ArrayList<>();
+
+        assertEquals(6, daoInstance.listOrders(paramsDto, order -> ids.add(order.getOrderId())));
+        assertEquals(List.of(6L, 8L, 12L, 14L, 16L, 18L), ids);
+
+        paramsDto.setLimit(3);
+        ids.clear();
+        assertEquals(3, daoInstance.listOrders(paramsDto, order -> ids.add(order.getOrderId())));
+        assertEquals(List.of(6L, 8L, 12L), ids);
+    }
+}
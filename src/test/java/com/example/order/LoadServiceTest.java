@@ -0,0 +1,144 @@
+package com.example.order;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.example.order.dao.GetOrderDao;
+import com.example.order.dto.OrderDetailDto;
+import com.example.order.dto.ParamsDto;
+import com.example.order.service.LoadService;
+import com.example.order.util.Database;
+import com.example.order.util.LoadTable;
+import com.example.order.util.MappedCsvFile;
+import com.example.order.util.OrderCache;
+import org.junit.Test;
+
+import static com.example.order.util.ValidationUtils.validateArgs;
+import static org.junit.Assert.*;
+
+public class LoadServiceTest {
+
+    @Test
+    public void shouldSplitFileAtLineBoundaries() throws Exception {
+        Path file = Files.createTempFile("customers", ".csv");
+        try {
+            List<String> lines = new ArrayList<>();
+            for (int i = 0; i < 100_000; i++) {
+                lines.add(i + ",\"Customer, number " + i + "\",customer" + i + "@example.com");
+            }
+            Files.write(file, lines, StandardCharsets.UTF_8);
+
+            MappedCsvFile csv = new MappedCsvFile(file);
+            List<MappedCsvFile.Chunk> chunks = csv.split(4);
+            assertTrue(chunks.size() > 1);
+
+            long[] count = new long[1];
+            long expectedStart = 0;
+            for (MappedCsvFile.Chunk chunk : chunks) {
+                assertEquals(expectedStart, chunk.getStart());
+                expectedStart = chunk.getEnd();
+                chunk.forEachLine((line, offset, error) -> {
+                    assertNull(error);
+                    assertEquals(3, line.getFieldCount());
+                    assertEquals(count[0], line.getLong(0));
+                    assertEquals("Customer, number " + count[0], line.getString(1));
+                    count[0]++;
+                });
+            }
+            assertEquals(csv.getSize(), expectedStart);
+            assertEquals(100_000, count[0]);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void shouldLoadTablesAndRejectBadLines() throws Exception {
+        Path customers = Files.createTempFile("customers", ".csv");
+        Path products = Files.createTempFile("products", ".csv");
+        Path orders = Files.createTempFile("orders", ".csv");
+        Path details = Files.createTempFile("details", ".csv");
+        try {
+            Files.write(customers, Arrays.asList(
+                    "customer_id,customer_name,customer_email",
+                    "100,Jane Roe,jroe@example.com",
+                    "101,\"Doe, John\",jdoe@example.com"
+            ), StandardCharsets.UTF_8);
+            Files.write(products, Arrays.asList(
+                    "100,Cable,4.50",
+                    "101,Battery,not a price"
+            ), StandardCharsets.UTF_8);
+            Files.write(orders, Arrays.asList(
+                    "100,100,2021-03-01,paid",
+                    "101,101,2021-03-02 10:15:00,created",
+                    "102,999,2021-03-02,paid"
+            ), StandardCharsets.UTF_8);
+            Files.write(details, Arrays.asList(
+                    "100,100,2",
+                    "101,100,1",
+                    "",
+                    "101,1,x"
+            ), StandardCharsets.UTF_8);
+
+            ParamsDto paramsDto = new ParamsDto();
+            paramsDto.getLoadFiles().put(LoadTable.CUSTOMERS, customers.toString());
+            paramsDto.getLoadFiles().put(LoadTable.PRODUCTS, products.toString());
+            paramsDto.getLoadFiles().put(LoadTable.ORDERS, orders.toString());
+            paramsDto.getLoadFiles().put(LoadTable.ORDER_DETAILS, details.toString());
+            paramsDto.setBatchSize(2);
+            paramsDto.setThreads(2);
+
+            String result = new LoadService().execute(paramsDto);
+
+            assertTrue(result, result.contains("Loaded 2 customers rows"));
+            assertTrue(result, result.contains("Loaded 1 products rows"));
+            assertTrue(result, result.contains("Loaded 2 orders rows"));
+            assertTrue(result, result.contains("Loaded 2 details rows"));
+            assertTrue(result, result.endsWith("3 rejected"));
+        } finally {
+            Files.deleteIfExists(customers);
+            Files.deleteIfExists(products);
+            Files.deleteIfExists(orders);
+            Files.deleteIfExists(details);
+        }
+    }
+
+    @Test
+    public void shouldEmptyTheCacheAfterLoadingDetailLines() throws Exception {
+        try (Connection con = Database.getInstance().getConnection();
+             PreparedStatement ps = con.prepareStatement("INSERT INTO orders VALUES (4001, 4, CURRENT_TIMESTAMP, 'created')")
+        ) {
+            ps.executeUpdate();
+        }
+        GetOrderDao dao = new GetOrderDao(Database.getInstance(), OrderCache.getInstance());
+        assertTrue(dao.getOrdersWithDetails(Collections.singletonList(4001L)).get(0).getOrderDetail().isEmpty());
+
+        Path details = Files.createTempFile("details", ".csv");
+        try {
+            Files.write(details, Collections.singletonList("4001,1,3"), StandardCharsets.UTF_8);
+            ParamsDto paramsDto = new ParamsDto();
+            paramsDto.getLoadFiles().put(LoadTable.ORDER_DETAILS, details.toString());
+            new LoadService().execute(paramsDto);
+        } finally {
+            Files.deleteIfExists(details);
+        }
+
+        List<OrderDetailDto> lines = dao.getOrdersWithDetails(Collections.singletonList(4001L)).get(0).getOrderDetail();
+        assertEquals("The cached order should be read again after its detail lines are loaded.", 1, lines.size());
+        assertEquals(3, lines.get(0).getQuantity());
+    }
+
+    @Test
+    public void shouldValidateLoadArguments() {
+        assertNull(validateArgs(new String[]{"load", "--orders", "o.csv", "--threads", "2"}));
+        assertNotNull(validateArgs(new String[]{"load", "--batch", "10"}));
+        assertNotNull(validateArgs(new String[]{"load", "--invoices", "i.csv"}));
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.order;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import com.example.order.dto.ParamsDto;
+import com.example.order.service.LoadTestService;
+import com.example.order.util.Database;
+import com.example.order.util.LatencyHistogram;
+import com.example.order.util.LoadTestOperation;
+import org.junit.Test;
+
+import static com.example.order.util.ValidationUtils.validateArgs;
+import static org.junit.Assert.*;
+
+public class LoadTestServiceTest {
+
+    @Test
+    public void shouldComputePercentilesWithinPrecision() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            (value % 2 == 0 ? first : second).record(value * 1000);
+        }
+        LatencyHistogram histogram = first.add(second);
+
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        assertEquals(50_000_500, histogram.getMean(), 1);
+        assertEquals(50_000_000, histogram.getValueAtPercentile(50), 50_000_000 * 0.016);
+        assertEquals(99_000_000, histogram.getValueAtPercentile(99), 99_000_000 * 0.016);
+        assertTrue(histogram.getValueAtPercentile(50) >= 50_000_000);
+        assertEquals(100_000_000, histogram.getValueAtPercentile(100));
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void shouldParseMix() {
+        Map<LoadTestOperation, Integer> mix = LoadTestOperation.parseMix("get=80,total=20");
+
+        assertEquals(2, mix.size());
+        assertEquals(Integer.valueOf(80), mix.get(LoadTestOperation.GET));
+        assertNull(validateArgs(new String[]{"loadtest", "--threads", "4", "--ops", "100", "--mix", "get=1"}));
+        assertNotNull(validateArgs(new String[]{"loadtest", "--mix", "get=0"}));
+        assertNotNull(validateArgs(new String[]{"loadtest", "--mix", "list=10"}));
+        assertNotNull(validateArgs(new String[]{"loadtest", "--duration", "0"}));
+    }
+
+    @Test
+    public void shouldRunOperationsAndReportLatencies() throws SQLException {
+        String statusesBefore = statuses();
+        ParamsDto paramsDto = new ParamsDto();
+        paramsDto.setThreads(2);
+        paramsDto.setOperations(200);
+        paramsDto.setMix(LoadTestOperation.parseMix("get=40,update=10,insert=20,delete=20,total=10"));
+
+        String result = new LoadTestService().execute(paramsDto);
+
+        assertTrue(result, result.startsWith("200 operations in "));
+        assertTrue(result, result.contains("on 2 threads"));
+        assertTrue(result, result.contains(", 0 errors"));
+        assertTrue(result, result.contains("\nget "));
+        assertTrue(result, result.contains("\nupdate "));
+        assertTrue(result, result.contains("\nall "));
+        assertEquals("The load test should only update the orders it inserted.", statusesBefore, statuses());
+    }
+
+    private static String statuses() throws SQLException {
+        StringBuilder sb = new StringBuilder();
+        try (Connection con = Database.getInstance().getConnection();
+             PreparedStatement ps = con.prepareStatement("SELECT order_id, order_status FROM orders ORDER BY order_id");
+             ResultSet rs = ps.executeQuery()
+        ) {
+            while (rs.next()) {
+                sb.append(rs.getLong(1)).append('=').append(rs.getString(2)).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
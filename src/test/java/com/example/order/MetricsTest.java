@@ -0,0 +1,97 @@
+package com.example.order;
+
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import com.example.order.util.ExceptionHandler;
+import com.example.order.util.LatencyRecorder;
+import com.example.order.util.MetricStats;
+import com.example.order.util.Metrics;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+
+    @Test
+    public void shouldRecordLatenciesFromSeveralThreads() throws Exception {
+        LatencyRecorder recorder = Metrics.getInstance().dao("MetricsTest.record");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 1; i <= 1000; i++) {
+                    recorder.record(TimeUnit.MICROSECONDS.toNanos(i), 2, i % 100 == 0);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        MetricStats stats = recorder.getStats();
+        assertEquals(4000, stats.getCount());
+        assertEquals(40, stats.getErrors());
+        assertEquals(8000, stats.getRows());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(1000), stats.getMaxNanos());
+        assertEquals(500_500, stats.getMeanNanos(), 1);
+        // The buckets are precise to 1/64 of the value
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(500), stats.getP50Nanos(), 500_000 / 32.0);
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(990), stats.getP99Nanos(), 990_000 / 32.0);
+    }
+
+    @Test
+    public void shouldAttributeDaoErrorsAndRowsToTheCommand() {
+        LatencyRecorder command = Metrics.getInstance().command("MetricsTest.command");
+        LatencyRecorder dao = Metrics.getInstance().dao("MetricsTest.dao");
+
+        long commandStart = Metrics.startCommand();
+        long start = dao.start();
+        dao.stop(start, 3);
+        start = dao.start();
+        ExceptionHandler.handleException(new SQLException("Expected by the test", "HY000", 1));
+        dao.stop(start, 0);
+        Metrics.stopCommand(command, commandStart, false);
+
+        MetricStats daoStats = dao.getStats();
+        assertEquals(2, daoStats.getCount());
+        assertEquals(1, daoStats.getErrors());
+        assertEquals(3, daoStats.getRows());
+
+        MetricStats commandStats = command.getStats();
+        assertEquals(1, commandStats.getCount());
+        assertEquals(1, commandStats.getErrors());
+        assertEquals(3, commandStats.getRows());
+    }
+
+    @Test
+    public void shouldExportTheMetricsThroughJmx() throws Exception {
+        Metrics.getInstance().dao("MetricsTest.jmx").record(1_000, 1, false);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(Metrics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+
+        boolean found = false;
+        for (CompositeData data : (CompositeData[]) server.getAttribute(name, "DaoCalls")) {
+            if ("MetricsTest.jmx".equals(data.get("name"))) {
+                assertEquals(1L, data.get("count"));
+                found = true;
+            }
+        }
+        assertTrue(found);
+        assertNotNull(server.getAttribute(name, "Pool"));
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.order;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.order.dao.GetOrderDao;
+import com.example.order.dao.UpdateOrderDao;
+import com.example.order.dto.OrderDetailDto;
+import com.example.order.dto.OrderDto;
+import com.example.order.dto.ParamsDto;
+import com.example.order.util.CacheStats;
+import com.example.order.util.Database;
+import com.example.order.util.OrderCache;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OrderCacheTest {
+
+    private static OrderDto order(long orderId) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setOrderId(orderId);
+        orderDto.setStatus("created");
+        return orderDto;
+    }
+
+    @Test
+    public void shouldCacheOrdersAndMissingIds() throws SQLException {
+        OrderCache cache = new OrderCache(10, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+        OrderCache.Loader loader = id -> {
+            loads.incrementAndGet();
+            return id == 404 ? null : order(id);
+        };
+
+        assertEquals(1, cache.get(1, loader).getOrderId());
+        assertEquals(1, cache.get(1, loader).getOrderId());
+        assertNull(cache.get(404, loader));
+        assertNull(cache.get(404, loader));
+
+        assertEquals(2, loads.get());
+        CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getNegativeHits());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getNegativeSize());
+        assertEquals(0.5, stats.getHitRate(), 0.001);
+        assertTrue(stats.getEstimatedBytes() > 0);
+    }
+
+    @Test
+    public void shouldLoadOnlyTheOrdersWithDetailsThatAreNotCached() throws SQLException {
+        OrderCache cache = new OrderCache(10, 60_000);
+        List<Collection<Long>> loads = new ArrayList<>();
+        OrderCache.BulkLoader loader = ids -> {
+            loads.add(new ArrayList<>(ids));
+            Map<Long, OrderDto> orders = new HashMap<>();
+            for (Long id : ids) {
+                if (id != 404) {
+                    OrderDto orderDto = order(id);
+                    orderDto.setOrderDetail(new ArrayList<>());
+                    orders.put(id, orderDto);
+                }
+            }
+            return orders;
+        };
+
+        // An order cached without its detail lines doesn't count
+        cache.get(2, id -> order(id));
+
+        assertEquals(2, cache.getAll(Arrays.asList(1L, 2L, 404L, 1L), loader).size());
+        assertEquals(2, cache.getAll(Arrays.asList(1L, 2L, 404L), loader).size());
+        cache.invalidate(2);
+        assertEquals(2, cache.getAll(Arrays.asList(1L, 2L, 404L), loader).size());
+
+        assertEquals(Arrays.asList(Arrays.asList(1L, 2L, 404L), Collections.singletonList(2L)), loads);
+        assertNotNull(cache.getAll(Collections.singletonList(1L), loader).get(1L).getOrderDetail());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedOrder() throws SQLException {
+        OrderCache cache = new OrderCache(2, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+        OrderCache.Loader loader = id -> {
+            loads.incrementAndGet();
+            return order(id);
+        };
+
+        cache.get(1, loader);
+        cache.get(2, loader);
+        cache.get(1, loader);
+        cache.get(3, loader);
+        cache.get(1, loader);
+        assertEquals(3, loads.get());
+
+        cache.get(2, loader);
+        assertEquals(4, loads.get());
+        assertEquals(2, cache.getStats().getEvictions());
+    }
+
+    @Test
+    public void shouldNotCacheOrderInvalidatedWhileLoading() throws SQLException {
+        OrderCache cache = new OrderCache(10, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1, id -> {
+            loads.incrementAndGet();
+            // An update commits while the old version is being read
+            cache.invalidate(id);
+            return order(id);
+        });
+        cache.get(1, id -> {
+            loads.incrementAndGet();
+            return order(id);
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void shouldReturnCopiesOfCachedOrders() throws SQLException {
+        OrderCache cache = new OrderCache(10, 60_000);
+        OrderCache.Loader loader = id -> {
+            OrderDetailDto detail = new OrderDetailDto();
+            detail.setOrderId(id);
+            detail.setProductId(1);
+            detail.setQuantity(2);
+            OrderDto orderDto = order(id);
+            orderDto.setOrderDetail(new ArrayList<>(Collections.singletonList(detail)));
+            return orderDto;
+        };
+
+        OrderDto first = cache.get(1, loader);
+        first.setStatus("paid");
+        first.getOrderDetail().get(0).setQuantity(5);
+
+        OrderDto second = cache.get(1, loader);
+        assertEquals("created", second.getStatus());
+        assertEquals(2, second.getOrderDetail().get(0).getQuantity());
+    }
+
+    @Test
+    public void shouldInvalidateOrderWhenItIsUpdated() {
+        Database database = Database.getInstance();
+        OrderCache cache = new OrderCache(10, 60_000);
+        GetOrderDao getOrderDao = new GetOrderDao(database, cache);
+        UpdateOrderDao updateOrderDao = new UpdateOrderDao(database, cache);
+
+        ParamsDto paramsDto = new ParamsDto();
+        paramsDto.setOrderId(3);
+        String status = getOrderDao.getOrderById(paramsDto).getStatus();
+
+        try {
+            paramsDto.setStatus("created".equals(status) ? "paid" : "created");
+            assertEquals(1, updateOrderDao.updateOrderStatus(paramsDto));
+            assertEquals(paramsDto.getStatus(), getOrderDao.getOrderById(paramsDto).getStatus());
+            assertEquals(1, cache.getStats().getInvalidations());
+        } finally {
+            paramsDto.setStatus(status);
+            updateOrderDao.updateOrderStatus(paramsDto);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.order;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.Collections;
+
+import com.example.order.dto.OrderDetailDto;
+import com.example.order.dto.OrderDto;
+import com.example.order.util.JsonWriter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OrderHttpServerTest {
+    private OrderHttpServer server;
+    private HttpClient client;
+
+    @Before
+    public void setup() throws Exception {
+        server = new OrderHttpServer(0, 2);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void shouldInsertGetUpdateAndDeleteOrders() throws Exception {
+        HttpResponse<String> inserted = send("POST", "/orders",
+                "{\"customerId\": 2, \"details\": [{\"productId\": 1, \"quantity\": 2}, {\"productId\": 3, \"quantity\": 1}]}");
+        assertEquals(inserted.body(), 201, inserted.statusCode());
+        String location = inserted.headers().firstValue("Location").orElse("");
+        assertTrue(location, location.startsWith("/orders/"));
+        assertTrue(inserted.body(), inserted.body().contains(
+                "\"customerId\":2,"));
+        assertTrue(inserted.body(), inserted.body().endsWith(
+                "\"status\":\"created\",\"details\":[{\"productId\":1,\"productName\":\"Case\",\"price\":9.99,\"quantity\":2},"
+                        + "{\"productId\":3,\"productName\":\"Stand\",\"price\":9.99,\"quantity\":1}]}"));
+
+        HttpResponse<String> found = send("GET", location, null);
+        assertEquals(200, found.statusCode());
+        assertTrue(found.body(), found.body().startsWith("{\"orderId\":" + location.substring(8) + ",\"customerId\":2,"));
+        assertTrue(found.body(), found.body().endsWith(
+                "\"details\":[{\"productId\":1,\"productName\":\"Case\",\"price\":9.99,\"quantity\":2},"
+                        + "{\"productId\":3,\"productName\":\"Stand\",\"price\":9.99,\"quantity\":1}]}"));
+
+        HttpResponse<String> updated = send("PATCH", location, "{\"status\": \"PAID\"}");
+        assertEquals(200, updated.statusCode());
+        assertTrue(updated.body(), updated.body().contains("\"status\":\"paid\""));
+        assertEquals(400, send("PATCH", location, "{\"status\": \"lost\"}").statusCode());
+
+        assertEquals(204, send("DELETE", location, null).statusCode());
+        assertEquals(404, send("GET", location, null).statusCode());
+        assertEquals(404, send("DELETE", location, null).statusCode());
+    }
+
+    @Test
+    public void shouldAnswerTotalsAndErrors() throws Exception {
+        HttpResponse<String> total = send("GET", "/customers/1/total", null);
+        assertEquals(200, total.statusCode());
+        assertTrue(total.body(), total.body().startsWith("{\"customerId\":1,\"paidTotal\":"));
+
+        assertEquals(400, send("POST", "/orders", "{\"customerId\": 1}").statusCode());
+        assertEquals(404, send("GET", "/orders/abc", null).statusCode());
+        HttpResponse<String> notAllowed = send("PUT", "/orders/1", "{}");
+        assertEquals(405, notAllowed.statusCode());
+        assertEquals("{\"error\":\"Method not allowed\"}", notAllowed.body());
+    }
+
+    @Test
+    public void shouldWriteEscapedJson() {
+        OrderDetailDto detail = new OrderDetailDto();
+        detail.setProductId(3);
+        detail.setQuantity(4);
+        OrderDto order = new OrderDto();
+        order.setOrderId(1);
+        order.setCustomerId(2);
+        order.setDate(Date.valueOf("2021-03-01"));
+        order.setStatus("a\"b\\\n\u0001é");
+        order.setOrderDetail(Collections.singletonList(detail));
+
+        JsonWriter json = new JsonWriter();
+        json.beginArray().order(order).value(new BigDecimal("1.50")).value((String) null).endArray();
+
+        String expected = "[{\"orderId\":1,\"customerId\":2,\"date\":\"2021-03-01T00:00:00\"," +
+                "\"status\":\"a\\\"b\\\\\\n\\u0001é\",\"details\":[{\"productId\":3,\"quantity\":4}]},1.50,null]";
+        assertEquals(expected, json.toString());
+        int length = json.encode();
+        assertEquals(expected, new String(json.getBytes(), 0, length, StandardCharsets.UTF_8));
+
+        assertEquals("{}", json.reset().beginObject().endObject().toString());
+        assertEquals(2, json.encode());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.order;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class OrderServerTest {
+    private OrderServer server;
+
+    @Before
+    public void setup() throws Exception {
+        server = new OrderServer(0, 4, 8, 2, 5_000);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void shouldAnswerPipelinedCommandsInOrder() throws Exception {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))
+        ) {
+            // More commands than the in-flight cap, all sent before reading any response
+            StringBuilder commands = new StringBuilder();
+            for (int i = 0; i < 20; i++) {
+                commands.append("get ").append(i % 2 == 0 ? 1 : 2).append('\n');
+            }
+            commands.append("foo\ndelete --file -\ntotal 1\nexit\n");
+            OutputStream out = socket.getOutputStream();
+            out.write(commands.toString().getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            for (int i = 0; i < 20; i++) {
+                List<String> response = readResponse(reader);
+                assertEquals("Order ID: " + (i % 2 == 0 ? 1 : 2), response.get(0));
+            }
+            assertTrue(reader.readLine().startsWith("ERR Invalid command"));
+            assertTrue(reader.readLine().startsWith("ERR The server can only read order IDs from files"));
+            assertTrue(readResponse(reader).get(0).startsWith("Total: "));
+            assertNull("The connection should be closed after exit", reader.readLine());
+        }
+        assertEquals(23, server.getServed());
+    }
+
+    @Test
+    public void shouldRejectConnectionsOverTheLimitAndDrainOnClose() throws Exception {
+        try (Socket first = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             Socket second = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             Socket third = new Socket(InetAddress.getLoopbackAddress(), server.getPort())
+        ) {
+            assertTrue("The second connection should take the last slot", second.isConnected());
+            BufferedReader reader = new BufferedReader(new InputStreamReader(third.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("ERR Too many connections", reader.readLine());
+
+            reader = new BufferedReader(new InputStreamReader(first.getInputStream(), StandardCharsets.UTF_8));
+            first.getOutputStream().write("get 1\n".getBytes(StandardCharsets.UTF_8));
+            assertEquals("Order ID: 1", readResponse(reader).get(0));
+
+            server.close();
+            assertNull("The connection should be closed on shutdown", reader.readLine());
+        }
+    }
+
+    @Test
+    public void shouldOnlyListBoundedPages() throws Exception {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))
+        ) {
+            String commands = "list\nlist --limit " + (OrderServer.MAX_LIST_ROWS + 1) + "\nlist --limit 2\nexit\n";
+            socket.getOutputStream().write(commands.getBytes(StandardCharsets.UTF_8));
+
+            assertTrue(reader.readLine().startsWith("ERR The server lists at most"));
+            assertTrue(reader.readLine().startsWith("ERR The server lists at most"));
+            List<String> response = readResponse(reader);
+            assertEquals("Order ID\tCustomer ID\tStatus\tDate", response.get(0));
+            assertEquals("Orders listed: 2", response.get(response.size() - 1));
+        }
+    }
+
+    @Test
+    public void shouldFrameResponses() {
+        assertEquals("OK 2\na\nb\n", OrderServer.ok("a\r\nb\r\n"));
+        assertEquals("OK 1\nTotal: 1\n", OrderServer.ok("Total: 1"));
+        assertEquals("ERR a b\n", OrderServer.error("a\nb"));
+    }
+
+    private static List<String> readResponse(BufferedReader reader) throws Exception {
+        String header = reader.readLine();
+        assertNotNull(header);
+        assertTrue(header, header.startsWith("OK "));
+
+        int count = Integer.parseInt(header.substring(3));
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add(reader.readLine());
+        }
+        return lines;
+    }
+}
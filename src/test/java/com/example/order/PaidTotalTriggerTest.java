@@ -0,0 +1,113 @@
+package com.example.order;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import com.example.order.dto.ParamsDto;
+import com.example.order.service.PaidTotalsService;
+import com.example.order.util.H2StoredProcedures;
+import com.example.order.util.PaidTotalTrigger;
+import com.example.order.util.SchemaMigrator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PaidTotalTriggerTest {
+    private Connection con;
+
+    @Before
+    public void setup() throws SQLException {
+        org.h2.Driver.load();
+        con = DriverManager.getConnection("jdbc:h2:mem:paid_totals", "sa", "");
+        new SchemaMigrator().migrate(con);
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        // The in-memory database is dropped with its last connection
+        con.close();
+    }
+
+    @Test
+    public void shouldFollowStatusChanges() throws SQLException {
+        assertTotals();
+
+        execute("UPDATE orders SET order_status = 'paid' WHERE order_id = 1");
+        assertEquals(new BigDecimal("59.94"), storedTotal(1));
+        assertTotals();
+
+        execute("UPDATE orders SET order_status = 'canceled' WHERE order_id IN (2, 4)");
+        assertNull(storedTotal(2));
+        assertTotals();
+    }
+
+    @Test
+    public void shouldFollowDeletedOrders() throws SQLException {
+        execute("DELETE FROM orders WHERE order_id = 4");
+
+        assertNull(storedTotal(1));
+        assertTotals();
+    }
+
+    @Test
+    public void shouldFollowDetailAndPriceChanges() throws SQLException {
+        execute("INSERT INTO order_details VALUES (2, 3, 5)");
+        execute("UPDATE order_details SET order_detail_quantity = 10 WHERE order_detail_order_id = 2 AND order_detail_product_id = 1");
+        execute("DELETE FROM order_details WHERE order_detail_order_id = 4 AND order_detail_product_id = 2");
+        assertTotals();
+
+        execute("UPDATE products SET product_price = 1.50 WHERE product_id = 1");
+        assertTotals();
+
+        execute("INSERT INTO orders VALUES (10, 3, CURRENT_TIMESTAMP, 'paid')");
+        execute("INSERT INTO order_details VALUES (10, 2, 1)");
+        assertTotals();
+    }
+
+    @Test
+    public void shouldVerifyAndRebuildTotals() {
+        ParamsDto paramsDto = new ParamsDto();
+        paramsDto.setAction(PaidTotalsService.VERIFY);
+        assertEquals("The paid totals match the orders", new PaidTotalsService().execute(paramsDto));
+
+        paramsDto.setAction(PaidTotalsService.REBUILD);
+        assertTrue(new PaidTotalsService().execute(paramsDto).startsWith("Paid totals rebuilt for "));
+    }
+
+    /**
+     * Checks the aggregate of every customer against the total computed from the orders
+     */
+    private void assertTotals() throws SQLException {
+        for (long customerId = 1; customerId <= 4; customerId++) {
+            try (PreparedStatement ps = con.prepareStatement(H2StoredProcedures.PAID_ORDER_TOTAL_SQL)) {
+                ps.setLong(1, customerId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals("Customer " + customerId, rs.getBigDecimal(1), storedTotal(customerId));
+                }
+            }
+        }
+    }
+
+    private BigDecimal storedTotal(long customerId) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(PaidTotalTrigger.SELECT_TOTAL_SQL)) {
+            ps.setLong(1, customerId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getBigDecimal(1) : null;
+            }
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = con.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+    }
+}
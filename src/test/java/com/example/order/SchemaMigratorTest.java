@@ -0,0 +1,66 @@
+package com.example.order;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import com.example.order.util.SchemaMigrator;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SchemaMigratorTest {
+
+    @Before
+    public void setup() {
+        org.h2.Driver.load();
+    }
+
+    @Test
+    public void shouldApplyMigrationsOnlyOnce() throws Exception {
+        try (Connection con = DriverManager.getConnection("jdbc:h2:mem:migrations_once", "sa", "")) {
+            int applied = new SchemaMigrator().migrate(con);
+
+            assertTrue(applied >= 3);
+            assertEquals(applied, SchemaMigrator.getCurrentVersion(con));
+            assertEquals(0, new SchemaMigrator().migrate(con));
+
+            try (Statement statement = con.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM orders")
+            ) {
+                assertTrue(rs.next());
+                assertEquals(4, rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    public void shouldCreateIndexesForTheQueries() throws Exception {
+        try (Connection con = DriverManager.getConnection("jdbc:h2:mem:migrations_indexes", "sa", "")) {
+            new SchemaMigrator().migrate(con);
+
+            try (Statement statement = con.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT COUNT(DISTINCT INDEX_NAME) FROM INFORMATION_SCHEMA.INDEXES "
+                         + "WHERE INDEX_NAME IN ('IDX_ORDERS_CUSTOMER_STATUS', 'IDX_ORDERS_DATE', 'IDX_ORDER_DETAILS_PRODUCT')")
+            ) {
+                assertTrue(rs.next());
+                assertEquals(3, rs.getInt(1));
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRefuseModifiedMigration() throws Exception {
+        try (Connection con = DriverManager.getConnection("jdbc:h2:mem:migrations_modified", "sa", "")) {
+            new SchemaMigrator().migrate(con);
+
+            try (Statement statement = con.createStatement()) {
+                statement.executeUpdate("UPDATE schema_version SET checksum = checksum + 1 WHERE version = 1");
+            }
+
+            new SchemaMigrator().migrate(con);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.order;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ScriptRunnerTest {
+
+    @Test
+    public void shouldExecuteCommandsWithoutPrompts() throws Exception {
+        StringWriter output = new StringWriter();
+        ScriptRunner runner = new ScriptRunner(new BufferedReader(new StringReader(
+                "# comment\n\nget 1\ninsert 1 1:2 2:1\ntotal 1\n")), new PrintWriter(output));
+        runner.execute();
+
+        assertFalse("The script mode should not prompt for commands.", output.toString().contains("Enter command"));
+        assertTrue(output.toString().contains("Order ID: 1"));
+        assertTrue(output.toString().contains("A new order with the ID"));
+        assertTrue(output.toString().contains("Total: "));
+        assertEquals(3, runner.getExecuted());
+        assertEquals(0, runner.getFailed());
+    }
+
+    @Test
+    public void shouldCountFailuresAndStopAtExit() throws Exception {
+        StringWriter output = new StringWriter();
+        ScriptRunner runner = new ScriptRunner(new BufferedReader(new StringReader(
+                "foo 1\ninsert\ninsert 1 x:2\ninsert 1 999:2\nexit\nget 1\n")), new PrintWriter(output));
+        runner.execute();
+
+        assertTrue(output.toString().contains("Error (line 1)"));
+        assertTrue(output.toString().contains("Error (line 2)"));
+        assertTrue(output.toString().contains("Error (line 3)"));
+        assertTrue("A command that fails on the database should count as failed.",
+                output.toString().contains("Error (line 4): The command failed on the database"));
+        assertFalse("Commands after `exit` should not be executed.", output.toString().contains("Order ID"));
+        assertEquals(4, runner.getExecuted());
+        assertEquals(4, runner.getFailed());
+    }
+
+    @Test
+    public void shouldWriteRecordsInMachineReadableFormats() throws Exception {
+        StringWriter output = new StringWriter();
+        ScriptRunner runner = new ScriptRunner(new BufferedReader(new StringReader(
+                "get 1 --output jsonl\nlist --customer 1 --limit 1 --output csv\ntotal 2 --output csv\n"
+                        + "total 2 --output xml\n")), new PrintWriter(output));
+        runner.execute();
+
+        String[] lines = output.toString().split("\\R");
+        assertTrue(lines[0], lines[0].startsWith("{\"orderId\":1,\"customerId\":1,\"status\":"));
+        assertTrue(lines[0], lines[0].contains("\"date\":\"2012-09-17T00:00:00\",\"details\":[{\"productId\":"));
+        assertEquals("orderId,customerId,status,date", lines[1]);
+        assertTrue(lines[2], lines[2].matches("1,1,\\w+,2012-09-17T[0-9:.]+"));
+        assertEquals("customerId,total", lines[3]);
+        assertTrue(lines[4], lines[4].matches("2,[0-9.]*"));
+        assertTrue(lines[5], lines[5].startsWith("Error (line 4): The option --output must be followed by an output format"));
+        assertEquals(1, runner.getFailed());
+    }
+}
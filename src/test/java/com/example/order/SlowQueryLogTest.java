@@ -0,0 +1,113 @@
+package com.example.order;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import com.example.order.dto.SlowQueryDto;
+import com.example.order.util.SlowQueryLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SlowQueryLogTest {
+    private Connection connection;
+
+    @Before
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:slowlogtest;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS items");
+            statement.execute("CREATE TABLE items (id BIGINT PRIMARY KEY, name VARCHAR(20))");
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void shouldLogStatementsWithTheirParametersAndRows() throws SQLException {
+        SlowQueryLog log = new SlowQueryLog(0, 10);
+        Connection wrapped = log.wrap(connection);
+
+        try (PreparedStatement ps = wrapped.prepareStatement("INSERT INTO items VALUES (?, ?)")) {
+            for (int i = 1; i <= 3; i++) {
+                ps.setLong(1, i);
+                ps.setString(2, "item" + i);
+                ps.addBatch();
+            }
+            assertEquals(3, ps.executeBatch().length);
+        }
+
+        int read = 0;
+        try (PreparedStatement ps = wrapped.prepareStatement("SELECT name FROM items WHERE id >= ?")) {
+            ps.setLong(1, 2);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    read++;
+                }
+            }
+        }
+        assertEquals(2, read);
+
+        List<SlowQueryDto> entries = log.getEntries();
+        assertEquals(2, entries.size());
+        assertEquals(2, log.getLogged());
+
+        SlowQueryDto insert = entries.get(0);
+        assertEquals("INSERT INTO items VALUES (?, ?)", insert.getSql());
+        assertEquals("batch of 3, last [3, 'item3']", insert.getParameters());
+        assertEquals(3, insert.getRows());
+        assertEquals("SlowQueryLogTest.shouldLogStatementsWithTheirParametersAndRows", insert.getCaller());
+
+        SlowQueryDto select = entries.get(1);
+        assertEquals("[2]", select.getParameters());
+        assertEquals(2, select.getRows());
+        assertTrue(select.getElapsedNanos() > 0);
+    }
+
+    @Test
+    public void shouldLogFailedStatementsWithTheirError() throws SQLException {
+        SlowQueryLog log = new SlowQueryLog(0, 10);
+
+        try (PreparedStatement ps = log.wrap(connection).prepareStatement("INSERT INTO items VALUES (?, ?)")) {
+            ps.setLong(1, 1);
+            ps.setString(2, "name longer than the column");
+            ps.executeUpdate();
+            fail("The name shouldn't fit in the column.");
+        } catch (SQLException ex) {
+            // expected
+        }
+
+        List<SlowQueryDto> entries = log.getEntries();
+        assertEquals(1, entries.size());
+        SlowQueryDto insert = entries.get(0);
+        assertEquals("[1, 'name longer than the column']", insert.getParameters());
+        assertEquals(-1, insert.getRows());
+        assertTrue(insert.getElapsedNanos() > 0);
+        assertTrue(insert.getError().contains("22001"));
+    }
+
+    @Test
+    public void shouldOnlyKeepStatementsOverTheThreshold() throws SQLException {
+        SlowQueryLog log = new SlowQueryLog(60_000, 10);
+
+        try (PreparedStatement ps = log.wrap(connection).prepareStatement("SELECT COUNT(*) FROM items");
+             ResultSet rs = ps.executeQuery()
+        ) {
+            assertTrue(rs.next());
+        }
+        assertTrue(log.getEntries().isEmpty());
+
+        log.setThresholdMillis(-1);
+        assertFalse(log.isEnabled());
+    }
+}
@@ -16,6 +16,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
@@ -24,6 +25,7 @@ import static org.mockito.Mockito.*;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest(TotalOrderDao.class)
+@PowerMockIgnore("javax.management.*")
 public class TotalOrderDaoTest {
     private Database databaseInstance;
     private TotalOrderDao daoInstance;
@@ -173,4 +175,17 @@ public class TotalOrderDaoTest {
             ex.printStackTrace();
         }
     }
+
+    @Test
+    public void shouldTellCustomersWithoutPaidOrdersApartFromErrors() throws SQLException {
+        ParamsDto noOrders = new ParamsDto();
+        noOrders.setCustomerId(999_999);
+        assertNull(daoInstance.getTotalAllPaidOrders(noOrders));
+        assertEquals(new BigDecimal("0.00"), daoInstance.getPaidTotal(noOrders));
+
+        Database databaseMock = Mockito.mock(Database.class);
+        when(databaseMock.getConnection()).thenThrow(new SQLException("Connection refused", "08001"));
+        assertNull("An error should not look like a customer without paid orders.",
+                new TotalOrderDao(databaseMock).getPaidTotal(paramsDto));
+    }
 }
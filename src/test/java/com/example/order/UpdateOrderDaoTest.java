@@ -4,11 +4,16 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import com.example.order.dao.UpdateOrderDao;
 import com.example.order.dto.ParamsDto;
+import com.example.order.dto.UpdateResultDto;
 import com.example.order.util.Database;
 import org.h2.expression.ParameterInterface;
 import org.h2.jdbc.JdbcParameterMetaData;
@@ -18,6 +23,7 @@ import org.junit.runner.RunWith;
 import org.mockito.Mockito;
 import org.mockito.exceptions.verification.WantedButNotInvoked;
 import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PowerMockIgnore;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
@@ -26,6 +32,7 @@ import static org.mockito.Mockito.*;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest(UpdateOrderDao.class)
+@PowerMockIgnore("javax.management.*")
 public class UpdateOrderDaoTest {
     private Database databaseInstance;
     private UpdateOrderDao daoInstance;
@@ -122,4 +129,78 @@ public class UpdateOrderDaoTest {
         assertEquals("The `updateOrderStatus()` method is not returning the correct number of affected rows. Make sure you're retuning the result of the call to the `executeUpdate()` method.",
                 1, numberAffectedRows);
     }
+
+    @Test
+    public void shouldUpdateMatchingOrdersInChunks() throws SQLException {
+        try (Connection con = databaseInstance.getConnection();
+             PreparedStatement ps = con.prepareStatement("INSERT INTO orders VALUES (?, 4, ?, 'created')")
+        ) {
+            for (long id = 2001; id <= 2010; id++) {
+                ps.setLong(1, id);
+                ps.setTimestamp(2, Timestamp.valueOf(id <= 2005 ? "2020-01-01 00:00:00" : "2023-01-01 00:00:00"));
+                ps.executeUpdate();
+            }
+        }
+
+        ParamsDto filters = new ParamsDto();
+        filters.setStatus("paid");
+        filters.setCustomerId(4);
+        filters.setCurrentStatus("created");
+        filters.setBefore(LocalDate.of(2021, 1, 1));
+        filters.setChunkSize(2);
+        assertEquals("Only the orders matching every filter should be updated.", 5, daoInstance.updateOrdersStatus(filters).getUpdated());
+        assertEquals("The filters should no longer match once the orders are updated.", 0, daoInstance.updateOrdersStatus(filters).getUpdated());
+
+        ParamsDto list = new ParamsDto();
+        list.setStatus("canceled");
+        list.setOrderIds(Arrays.asList(2006L, 2007L, 2008L, 9999L));
+        list.setChunkSize(3);
+        assertEquals(3, daoInstance.updateOrdersStatus(list).getUpdated());
+
+        ParamsDto range = new ParamsDto();
+        range.setStatus("paid");
+        range.setRangeFrom(2008L);
+        range.setRangeTo(2009L);
+        assertEquals(2, daoInstance.updateOrdersStatus(range).getUpdated());
+
+        try (Connection con = databaseInstance.getConnection();
+             PreparedStatement ps = con.prepareStatement("SELECT order_status FROM orders WHERE order_id = ?")
+        ) {
+            ps.setLong(1, 2005);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("paid", rs.getString(1));
+            }
+            ps.setLong(1, 2010);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("created", rs.getString(1));
+            }
+        }
+    }
+
+    @Test
+    public void shouldReportAChunkThatFailed() throws SQLException {
+        try (Connection con = databaseInstance.getConnection();
+             PreparedStatement ps = con.prepareStatement("INSERT INTO orders VALUES (?, 4, ?, 'created')")
+        ) {
+            for (long id = 3001; id <= 3003; id++) {
+                ps.setLong(1, id);
+                ps.setTimestamp(2, Timestamp.valueOf("2023-01-01 00:00:00"));
+                ps.executeUpdate();
+            }
+        }
+
+        ParamsDto tooLong = new ParamsDto();
+        tooLong.setStatus("status longer than the column");
+        tooLong.setOrderIds(Arrays.asList(3001L, 3002L, 3003L));
+        UpdateResultDto result = daoInstance.updateOrdersStatus(tooLong);
+        assertTrue("A chunk that failed should be reported.", result.isFailed());
+        assertEquals(0, result.getUpdated());
+
+        ParamsDto paid = new ParamsDto();
+        paid.setStatus("paid");
+        paid.setOrderIds(Arrays.asList(3001L, 3002L, 3003L));
+        assertFalse(daoInstance.updateOrdersStatus(paid).isFailed());
+    }
 }